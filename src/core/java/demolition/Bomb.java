@@ -0,0 +1,120 @@
+package demolition;
+
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+ * The Bomb class is used to store information and handle functions related to
+ * particular bomb entities.
+ */
+public class Bomb extends Entity {
+
+    /**
+     * The number of frames in the bomb's animation cycle.
+     */
+    public static final int FRAMES = 9;
+
+    /**
+     * The number of tiles the blast reaches in each direction.
+     */
+    public static final int RANGE = 2;
+
+    /**
+     * The number of ticks between frames of the animation.
+     */
+    public static final int FRAMETICKS = 15;
+
+    /**
+     * The bomb explodes once its gameTime is past this many ticks.
+     */
+    public static final int FUSE = 120;
+
+    /**
+     * The number of broken walls the bomb destroyed when it exploded.
+     */
+    public int tilesDestroyed;
+
+    /**
+     * Constructs a new bomb object to be drawn and eventually exploded.
+     * @param x The x-coordinate of the bomb.
+     * @param y The y-coordinate of the bomb.
+     */
+    public Bomb(int x, int y) {
+        super(FRAMES, x, y);
+    }
+
+    /**
+     * Updates the game time and animation frame of the bomb.
+     */
+    public void tick() {
+        this.gameTime++;
+        if (this.gameTime % FRAMETICKS == 0) {
+            this.updateFrame();
+        }
+        // explosion checking handled in GameState.java
+    }
+
+    /**
+     * Finds the next time a bomb needs to be ticked, when its frame changes or
+     * its fuse runs out.
+     * @param gameTime The bomb's current gameTime.
+     * @return The gameTime after the next tick that does anything.
+     */
+    public static int nextEvent(int gameTime) {
+        return Math.min((Math.floorDiv(gameTime, FRAMETICKS) + 1) * FRAMETICKS, Math.max(gameTime + 1, FUSE + 1));
+    }
+
+    /**
+     * Checks if the bomb is ready to explode, and if so, performs the explosion.
+     * This involves generating the explosion entities.
+     * @param levelMap The map of the current level.
+     * @return A list of explosion entities generated, or null if the bomb doesn't explode.
+     */
+    public List<Explosion> checkExplode(TileGrid levelMap) {
+        List<Explosion> explosions = new ArrayList<Explosion>();
+        if (checkExplode(levelMap, explosions)) {
+            return explosions;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the bomb is ready to explode, and if so, performs the explosion.
+     * The generated explosion entities are appended to an existing list, so
+     * nothing is allocated while the bomb is still ticking.
+     * @param levelMap The map of the current level.
+     * @param explosions The list to which the generated explosion entities are added.
+     * @return Whether the bomb has exploded.
+     */
+    public boolean checkExplode(TileGrid levelMap, List<Explosion> explosions) {
+        if (this.gameTime > FUSE) {
+            explosions.add(new Explosion(Direction.CENTRE, this.x, this.y));
+
+            Direction tempDir = Direction.UP;
+            do {
+                // the first wall in the ray's path is read off the map's bitboards
+                int reach = levelMap.blastReach(this.x, this.y, tempDir, RANGE);
+                for (int distance = 1; distance < reach; distance++) {
+                    explosions.add(new Explosion((distance == RANGE) ? tempDir : tempDir.getAxis(),
+                        this.x + tempDir.getXOffset() * distance, this.y + tempDir.getYOffset() * distance));
+                }
+                if (reach <= RANGE) {
+                    int tempX = this.x + tempDir.getXOffset() * reach;
+                    int tempY = this.y + tempDir.getYOffset() * reach;
+                    if (levelMap.get(tempX, tempY) == Tile.BROKEN) {
+                        levelMap.set(tempX, tempY, Tile.EMPTY);
+                        tilesDestroyed++;
+                        explosions.add(new Explosion(tempDir, tempX, tempY));
+                    }
+                }
+
+                tempDir = tempDir.rotateClockwise();
+            } while (tempDir != Direction.UP);
+
+            return true;
+
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,117 @@
+package demolition;
+
+/**
+ * This abstract class is used for functions relevant to all entities that can
+ * move in four directions, described as Characters.
+ */
+public abstract class Character extends Entity {
+
+    /**
+     * The number of frames in each directional animation cycle.
+     */
+    public static final int FRAMES = 4;
+
+    /**
+     * The number of ticks between frames of the animation.
+     */
+    public static final int FRAMETICKS = 12;
+
+    /**
+     * The number of ticks between an enemy's moves.
+     */
+    public static final int MOVEINTERVAL = 60;
+
+    /**
+     * The current direction of the character.
+     */
+    public Direction dir;
+
+    /**
+     * Whether the character has been killed by an explosion.
+     */
+    public boolean killed;
+
+    /**
+     * The occupancy index the character is registered in, which is kept up
+     * to date as it moves. This is null for the player.
+     */
+    OccupancyIndex occupancy;
+
+    /**
+     * The neighbouring characters on the same tile in the occupancy index.
+     */
+    Character nextOnTile, previousOnTile;
+
+    /**
+     * Constructs a new Character object, as called by inherited classes.
+     */
+    public Character() {
+        super(FRAMES);
+        this.dir = Direction.DOWN;
+    }
+
+    /**
+     * Constructs a new Character object, as called by inherited classes.
+     * This constructor is used when the entity has a starting position at initialisation.
+     * @param startX The initial x-coordinate of the character.
+     * @param startY The initial y-coordinate of the character.
+     */
+    public Character(int startX, int startY) {
+        super(FRAMES, startX, startY);
+        this.dir = Direction.DOWN;
+    }
+
+    /**
+     * Used to handle the automatic moving of characters.
+     * @param levelMap The current level map.
+     * @return Whether the character successfully moved automatically.
+     */
+    public abstract boolean autoMove(TileGrid levelMap);
+
+    public void tick() {
+        this.gameTime++;
+        if (this.gameTime % FRAMETICKS == 0) {
+            this.updateFrame();
+        }
+    }
+
+    /**
+     * Finds the next time an enemy needs to be updated, when its frame
+     * changes or its autoMove acts. The update before an enemy's tick moves
+     * it when its gameTime is a multiple of MOVEINTERVAL.
+     * @param gameTime The enemy's current gameTime.
+     * @return The gameTime after the next tick that does anything.
+     */
+    public static int nextEvent(int gameTime) {
+        int move = (Math.floorDiv(gameTime - 1, MOVEINTERVAL) + 1) * MOVEINTERVAL + 1;
+        return Math.min((Math.floorDiv(gameTime, FRAMETICKS) + 1) * FRAMETICKS, move);
+    }
+
+    /**
+     * Used to handle movement of the character.
+     * @param dir The direction in which the character is trying to move.
+     * @param levelMap The current level map.
+     * @return Whether the move was successful.
+     */
+    public boolean move(Direction dir, TileGrid levelMap) {
+
+        int xOffset = dir.getXOffset();
+        int yOffset = dir.getYOffset();
+
+        // the sentinel border of the map stops characters walking off its edges
+        if (levelMap.isWalkable(this.x + xOffset, this.y + yOffset)) {
+            this.x += xOffset;
+            this.y += yOffset;
+            this.dir = dir;
+            if (this.occupancy != null) {
+                this.occupancy.moveEnemy(this, this.x - xOffset, this.y - yOffset);
+            }
+            levelMap.prefetch(this.x, this.y);
+            return true;
+        }
+
+        return false;
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package demolition;
+
+/**
+ * Handles all information and functionality relevant to a single Chaser
+ * Enemy, which hunts the player along a shortest path. Every chaser reads
+ * its steps from the same DistanceField, so adding chasers adds no searches.
+ */
+public class ChaserEnemy extends Character {
+
+    /**
+     * The field of walking distances to the player.
+     */
+    private final DistanceField distanceField;
+
+    /**
+     * Constructs a new ChaserEnemy object.
+     * @param x The initial x-coord of the enemy.
+     * @param y The initial y-coord of the enemy.
+     * @param distanceField The field of walking distances to the player, shared by every chaser.
+     */
+    public ChaserEnemy(int x, int y, DistanceField distanceField) {
+        super(x, y);
+        this.distanceField = distanceField;
+    }
+
+    public boolean autoMove(TileGrid levelMap) {
+        if (this.gameTime % MOVEINTERVAL == 0) {
+            Direction step = distanceField.step(this.x, this.y);
+            if (step != null) {
+                this.move(step, levelMap);
+            }
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,726 @@
+package demolition;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A level map too large to hold in memory. The map is split into square
+ * chunks of CHUNKSIZE tiles, which are stored in a paged temporary file and
+ * loaded on demand into a small LRU cache, so only the chunks around the
+ * player and the active entities stay in memory. Chunks that have been
+ * changed, such as by explosions destroying broken walls, are written back to
+ * the file asynchronously on a shared background thread when they are
+ * evicted. Chunks that have never been written are empty, so the file only
+ * grows as the map is filled in. As the player and entities move, the chunks
+ * around them are read ahead on the same thread, so crossing into a chunk
+ * that was written out seldom waits for the disk.
+ * <p>
+ * The cache is an open-addressing table keyed by chunk number, with the
+ * chunks linked from least to most recently used through their own fields,
+ * so finding and reordering chunks does not allocate.
+ * <p>
+ * Tiles keep the same positions as in a TileGrid held in memory, so movement
+ * and blast code works unchanged; the positions are simply translated into a
+ * chunk and an offset within it. A copy of the map shares the chunks it has
+ * not changed with the original, which is then frozen, so resetting a level
+ * does not copy its whole file. The map is not thread-safe and must only be
+ * used from the game thread.
+ */
+public class ChunkedTileGrid extends TileGrid {
+
+    /**
+     * The width and height of a chunk in tiles, as a power of two.
+     */
+    public static final int CHUNKSHIFT = 6;
+    public static final int CHUNKSIZE = 1 << CHUNKSHIFT;
+
+    /**
+     * The number of bytes a chunk takes up in memory and in the file.
+     */
+    public static final int CHUNKBYTES = CHUNKSIZE * CHUNKSIZE;
+
+    /**
+     * The default number of chunks kept in memory, which is 4 MiB of tiles.
+     */
+    public static final int DEFAULTCACHE = 1024;
+
+    /**
+     * The smallest cache that reads ahead, which leaves room for the chunks
+     * around two separate entities.
+     */
+    public static final int PREFETCHCACHE = 18;
+
+    private static final Tile[] TILES = Tile.values();
+
+    /**
+     * The background thread writing evicted chunks back and reading chunks
+     * ahead, shared by every map.
+     */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chunk-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A chunk loaded into memory.
+     */
+    private static final class Chunk {
+
+        /**
+         * The number of the chunk.
+         */
+        final int id;
+
+        /**
+         * The tiles of the chunk in row-major order, as Tile ordinals.
+         */
+        final byte[] tiles;
+
+        /**
+         * Whether the chunk has changed since it was loaded or last written.
+         */
+        boolean dirty;
+
+        /**
+         * The neighbouring chunks in order of use, or null at either end.
+         */
+        Chunk older, newer;
+
+        Chunk(int id, byte[] tiles) {
+            this.id = id;
+            this.tiles = tiles;
+        }
+
+    }
+
+    /**
+     * The tiles of a chunk read ahead, waiting for the game thread to add
+     * them to the cache.
+     */
+    private static final class Prefetched {
+
+        final int id;
+
+        /**
+         * The number of chunks written back before the read was queued.
+         */
+        final long writes;
+
+        final byte[] tiles;
+
+        Prefetched(int id, long writes, byte[] tiles) {
+            this.id = id;
+            this.writes = writes;
+            this.tiles = tiles;
+        }
+
+    }
+
+    /**
+     * The number of chunks in each row of the map.
+     */
+    private final int chunksAcross;
+
+    /**
+     * The distance between vertically adjacent tiles in the TileGrid positions.
+     */
+    private final int stride;
+
+    /**
+     * The maximum number of chunks kept in memory.
+     */
+    private final int cacheSize;
+
+    /**
+     * The map this one was copied from, which holds every chunk not yet
+     * written to this map's own file, or null.
+     */
+    private final ChunkedTileGrid parent;
+
+    /**
+     * The chunks that have been written to this map's own file.
+     */
+    private final BitSet owned;
+
+    /**
+     * The chunks in memory, by chunk number with linear probing, with empty
+     * slots null.
+     */
+    private final Chunk[] table;
+
+    /**
+     * The least and most recently used chunks in memory, or null, and the
+     * number of chunks in memory.
+     */
+    private Chunk eldest, youngest;
+    private int loaded;
+
+    /**
+     * The chunks being read ahead, and the reads that have finished.
+     */
+    private final BitSet prefetching;
+    private final Queue<Prefetched> prefetched;
+
+    /**
+     * The number of chunks written back, so that a read ahead queued before a
+     * chunk was written back is not mistaken for the chunk's latest tiles.
+     */
+    private long writes;
+
+    /**
+     * The chunk last read ahead around, or -1.
+     */
+    private int prefetchId;
+
+    /**
+     * The tiles of chunks that have been evicted but not yet written back,
+     * which must be read from here rather than from the file.
+     */
+    private final Map<Integer, byte[]> pendingWrites;
+
+    /**
+     * The most recently used chunk and its number, checked before the cache
+     * since consecutive accesses are usually within the same chunk.
+     */
+    private Chunk lastChunk;
+    private int lastId;
+
+    /**
+     * The paged file and its path, created when the first chunk is written.
+     */
+    private FileChannel file;
+    private Path path;
+
+    /**
+     * The first failure of the background thread to write a chunk, or null.
+     */
+    private volatile IOException writeError;
+
+    /**
+     * Whether the map has been copied, after which it must not change.
+     */
+    private boolean frozen;
+
+    /**
+     * Constructs a new map of empty tiles with the default cache size.
+     * @param width The width of the map in tiles.
+     * @param height The height of the map in tiles.
+     */
+    public ChunkedTileGrid(int width, int height) {
+        this(width, height, DEFAULTCACHE);
+    }
+
+    /**
+     * Constructs a new map of empty tiles.
+     * @param width The width of the map in tiles.
+     * @param height The height of the map in tiles.
+     * @param cacheSize The maximum number of chunks kept in memory, which
+     * reads ahead from PREFETCHCACHE chunks.
+     */
+    public ChunkedTileGrid(int width, int height, int cacheSize) {
+        this(width, height, cacheSize, null);
+    }
+
+    private ChunkedTileGrid(int width, int height, int cacheSize, ChunkedTileGrid parent) {
+        super(width, height, false);
+        if ((cacheSize < 1) || (cacheSize > (1 << 28))) {
+            throw new IllegalArgumentException("The chunk cache must hold between 1 and 2^28 chunks");
+        }
+        this.stride = width + 2;
+        this.chunksAcross = (width + CHUNKSIZE - 1) >> CHUNKSHIFT;
+        this.cacheSize = cacheSize;
+        this.parent = parent;
+        this.tileHash = (parent != null) ? parent.tileHash : 0;
+        this.owned = new BitSet();
+        this.pendingWrites = new ConcurrentHashMap<Integer, byte[]>();
+        this.lastId = -1;
+        // at most half full, so probes stay short
+        this.table = new Chunk[Integer.highestOneBit(cacheSize) << 2];
+        this.prefetching = new BitSet();
+        this.prefetched = new ConcurrentLinkedQueue<Prefetched>();
+        this.prefetchId = -1;
+    }
+
+    @Override
+    public Tile get(int x, int y) {
+        if ((x < 0) || (x >= width) || (y < 0) || (y >= height)) {
+            return Tile.SOLID;
+        }
+        return TILES[chunk(x, y).tiles[offsetInChunk(x, y)]];
+    }
+
+    @Override
+    public void set(int x, int y, Tile tile) {
+        checkNotFrozen();
+        Chunk chunk = chunk(x, y);
+        int offset = offsetInChunk(x, y);
+        tileHash += mixTile(index(x, y), tile.ordinal()) - mixTile(index(x, y), chunk.tiles[offset]);
+        chunk.tiles[offset] = (byte) tile.ordinal();
+        chunk.dirty = true;
+        if (listener != null) {
+            listener.tileChanged(x, y, tile);
+        }
+    }
+
+    @Override
+    public boolean isWalkable(int x, int y) {
+        // EMPTY and GOAL are the last two constants of Tile
+        return get(x, y).ordinal() >= Tile.EMPTY.ordinal();
+    }
+
+    @Override
+    public boolean isWalkableAt(int index) {
+        return getAt(index).ordinal() >= Tile.EMPTY.ordinal();
+    }
+
+    @Override
+    public int exits(int x, int y) {
+        int exits = 0;
+        for (int i = 0; i < EXITS.length; i++) {
+            if (isWalkable(x + EXITS[i].getXOffset(), y + EXITS[i].getYOffset())) {
+                exits |= 1 << i;
+            }
+        }
+        return exits;
+    }
+
+    @Override
+    public Tile getAt(int index) {
+        return get(index % stride - 1, index / stride - 1);
+    }
+
+    @Override
+    public void setAt(int index, Tile tile) {
+        set(index % stride - 1, index / stride - 1, tile);
+    }
+
+    @Override
+    void setOrdinals(int index, byte[] ordinals, int from, int length) {
+        checkNotFrozen();
+        int x = index % stride - 1;
+        int y = index / stride - 1;
+        while (length > 0) {
+            // copy up to the end of the chunk's row
+            int run = Math.min(length, CHUNKSIZE - (x & (CHUNKSIZE - 1)));
+            Chunk chunk = chunk(x, y);
+            int offset = offsetInChunk(x, y);
+            for (int i = 0; i < run; i++) {
+                tileHash += mixTile(index(x + i, y), ordinals[from + i]) - mixTile(index(x + i, y), chunk.tiles[offset + i]);
+            }
+            System.arraycopy(ordinals, from, chunk.tiles, offset, run);
+            chunk.dirty = true;
+            x += run;
+            from += run;
+            length -= run;
+        }
+    }
+
+    /**
+     * Reads ahead the chunks around a position, unless the last position read
+     * ahead around was in the same chunk. Only chunks held in the file are
+     * read, on the background thread, and the tiles are added to the cache
+     * the next time this is called.
+     * @param x The x-coord of the position of the player or an entity.
+     * @param y The y-coord of the position.
+     */
+    @Override
+    public void prefetch(int x, int y) {
+        installPrefetched();
+        if ((cacheSize < PREFETCHCACHE) || (x < 0) || (x >= width) || (y < 0) || (y >= height)) {
+            return;
+        }
+        int chunkX = x >> CHUNKSHIFT;
+        int chunkY = y >> CHUNKSHIFT;
+        int id = chunkY * chunksAcross + chunkX;
+        if (id == prefetchId) {
+            return;
+        }
+        prefetchId = id;
+        int chunksDown = (height + CHUNKSIZE - 1) >> CHUNKSHIFT;
+        for (int row = Math.max(chunkY - 1, 0); row <= Math.min(chunkY + 1, chunksDown - 1); row++) {
+            for (int column = Math.max(chunkX - 1, 0); column <= Math.min(chunkX + 1, chunksAcross - 1); column++) {
+                int neighbour = row * chunksAcross + column;
+                Chunk chunk = find(neighbour);
+                if (chunk != null) {
+                    // keep the neighbourhood from being evicted first
+                    touch(chunk);
+                } else if (owned.get(neighbour) && !pendingWrites.containsKey(neighbour)
+                        && !prefetching.get(neighbour)) {
+                    readAhead(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the map. The copy shares every chunk with this map until it
+     * changes them, so this map is frozen and can no longer be changed.
+     * @return A copy of this map, without its listener.
+     */
+    @Override
+    public ChunkedTileGrid copy() {
+        frozen = true;
+        return new ChunkedTileGrid(width, height, cacheSize, this);
+    }
+
+    /**
+     * Writes every changed chunk in memory back to the file, and waits for
+     * every pending write to finish.
+     * @throws UncheckedIOException If a chunk could not be written.
+     */
+    public void flush() {
+        for (Chunk chunk = eldest; chunk != null; chunk = chunk.newer) {
+            if (chunk.dirty) {
+                chunk.dirty = false;
+                writeBack(chunk.id, chunk.tiles.clone());
+            }
+        }
+        try {
+            WRITER.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        checkWriteError();
+    }
+
+    /**
+     * Discards the chunks in memory and deletes the paged file, after waiting
+     * for pending writes to finish. The map must not be used afterwards, nor
+     * may any copies of it.
+     */
+    @Override
+    public void close() {
+        try {
+            WRITER.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        Arrays.fill(table, null);
+        eldest = null;
+        youngest = null;
+        loaded = 0;
+        prefetched.clear();
+        prefetching.clear();
+        lastChunk = null;
+        lastId = -1;
+        try {
+            if (file != null) {
+                file.close();
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The number of chunks currently held in memory.
+     */
+    public int loadedChunks() {
+        return loaded;
+    }
+
+    /**
+     * @param x The x-coord of a tile on the map.
+     * @param y The y-coord of the tile.
+     * @return Whether the chunk holding the tile is in memory.
+     */
+    public boolean isLoaded(int x, int y) {
+        return find((y >> CHUNKSHIFT) * chunksAcross + (x >> CHUNKSHIFT)) != null;
+    }
+
+    /**
+     * @return The number of chunks written to this map's own file.
+     */
+    public int storedChunks() {
+        return owned.cardinality();
+    }
+
+    private int offsetInChunk(int x, int y) {
+        return ((y & (CHUNKSIZE - 1)) << CHUNKSHIFT) | (x & (CHUNKSIZE - 1));
+    }
+
+    private Chunk chunk(int x, int y) {
+        int id = (y >> CHUNKSHIFT) * chunksAcross + (x >> CHUNKSHIFT);
+        if (id == lastId) {
+            return lastChunk;
+        }
+        Chunk chunk = find(id);
+        if (chunk == null) {
+            chunk = new Chunk(id, load(id));
+            add(chunk);
+        } else {
+            touch(chunk);
+        }
+        lastId = id;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Reads a chunk that is not in memory.
+     * @param id The number of the chunk.
+     * @return A new array holding the tiles of the chunk.
+     */
+    private byte[] load(int id) {
+        checkWriteError();
+        byte[] pending = pendingWrites.get(id);
+        if (pending != null) {
+            return pending.clone();
+        }
+        if (!owned.get(id)) {
+            if (parent != null) {
+                return parent.chunkTiles(id);
+            }
+            byte[] tiles = new byte[CHUNKBYTES];
+            Arrays.fill(tiles, (byte) Tile.EMPTY.ordinal());
+            return tiles;
+        }
+        byte[] tiles = new byte[CHUNKBYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(tiles);
+        try {
+            long position = (long) id * CHUNKBYTES;
+            while (buffer.hasRemaining()) {
+                if (file.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("The chunk file is truncated");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tiles;
+    }
+
+    /**
+     * @param id The number of a chunk.
+     * @return A copy of the tiles of the chunk.
+     */
+    private byte[] chunkTiles(int id) {
+        int x = (id % chunksAcross) << CHUNKSHIFT;
+        int y = (id / chunksAcross) << CHUNKSHIFT;
+        return chunk(x, y).tiles.clone();
+    }
+
+    /**
+     * @param id The number of a chunk.
+     * @return The chunk if it is in memory, or null.
+     */
+    private Chunk find(int id) {
+        int mask = table.length - 1;
+        for (int slot = hash(id) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            if (table[slot].id == id) {
+                return table[slot];
+            }
+        }
+        return null;
+    }
+
+    private static int hash(int id) {
+        int hash = id * 0x9E3779B1;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Adds a chunk that is not in memory as the most recently used, evicting
+     * the least recently used chunk if the cache is full.
+     * @param chunk The chunk.
+     */
+    private void add(Chunk chunk) {
+        if (loaded == cacheSize) {
+            evict(eldest);
+        }
+        int mask = table.length - 1;
+        int slot = hash(chunk.id) & mask;
+        while (table[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = chunk;
+        loaded++;
+        chunk.older = youngest;
+        chunk.newer = null;
+        if (youngest != null) {
+            youngest.newer = chunk;
+        } else {
+            eldest = chunk;
+        }
+        youngest = chunk;
+    }
+
+    /**
+     * Makes a chunk in memory the most recently used.
+     * @param chunk The chunk.
+     */
+    private void touch(Chunk chunk) {
+        if (chunk == youngest) {
+            return;
+        }
+        if (chunk.older != null) {
+            chunk.older.newer = chunk.newer;
+        } else {
+            eldest = chunk.newer;
+        }
+        chunk.newer.older = chunk.older;
+        chunk.older = youngest;
+        chunk.newer = null;
+        youngest.newer = chunk;
+        youngest = chunk;
+    }
+
+    /**
+     * Removes a chunk from memory, writing it back if it has changed.
+     * @param chunk The chunk.
+     */
+    private void evict(Chunk chunk) {
+        if (chunk == lastChunk) {
+            lastChunk = null;
+            lastId = -1;
+        }
+        if (chunk.older != null) {
+            chunk.older.newer = chunk.newer;
+        } else {
+            eldest = chunk.newer;
+        }
+        if (chunk.newer != null) {
+            chunk.newer.older = chunk.older;
+        } else {
+            youngest = chunk.older;
+        }
+        int mask = table.length - 1;
+        int slot = hash(chunk.id) & mask;
+        while (table[slot] != chunk) {
+            slot = (slot + 1) & mask;
+        }
+        // shift later chunks of the probe run back, so no chunk is cut off from its home slot
+        int gap = slot;
+        for (slot = (gap + 1) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            int home = hash(table[slot].id) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+        }
+        table[gap] = null;
+        loaded--;
+        if (chunk.dirty) {
+            writeBack(chunk.id, chunk.tiles);
+        }
+    }
+
+    /**
+     * Queues a chunk held in the file to be read on the background thread.
+     * @param id The number of the chunk.
+     */
+    private void readAhead(int id) {
+        prefetching.set(id);
+        FileChannel channel = file;
+        long queuedWrites = writes;
+        WRITER.execute(() -> {
+            byte[] tiles = new byte[CHUNKBYTES];
+            ByteBuffer buffer = ByteBuffer.wrap(tiles);
+            try {
+                long position = (long) id * CHUNKBYTES;
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        tiles = null;
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                // the chunk is read again when it is needed, which reports the failure
+                tiles = null;
+            }
+            prefetched.add(new Prefetched(id, queuedWrites, tiles));
+        });
+    }
+
+    /**
+     * Adds the chunks read ahead to the cache, unless they were loaded in the
+     * meantime or a chunk has been written back since the read was queued,
+     * which might have been the same chunk with newer tiles.
+     */
+    private void installPrefetched() {
+        Prefetched read;
+        while ((read = prefetched.poll()) != null) {
+            prefetching.clear(read.id);
+            if ((read.tiles != null) && (read.writes == writes) && (find(read.id) == null)) {
+                add(new Chunk(read.id, read.tiles));
+            }
+        }
+    }
+
+    /**
+     * Queues a chunk to be written to the file.
+     * @param id The number of the chunk.
+     * @param tiles The tiles of the chunk, which must no longer change.
+     */
+    private void writeBack(int id, byte[] tiles) {
+        FileChannel channel = openFile();
+        owned.set(id);
+        writes++;
+        pendingWrites.put(id, tiles);
+        WRITER.execute(() -> {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(tiles);
+                long position = (long) id * CHUNKBYTES;
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, position + buffer.position());
+                }
+            } catch (IOException e) {
+                if (writeError == null) {
+                    writeError = e;
+                }
+            } finally {
+                pendingWrites.remove(id, tiles);
+            }
+        });
+    }
+
+    private FileChannel openFile() {
+        if (file == null) {
+            try {
+                path = Files.createTempFile("demolition", ".chunks");
+                // a copy's file is deleted when it is closed on the next reset,
+                // and the JVM never forgets a path registered to delete on exit
+                if (parent == null) {
+                    path.toFile().deleteOnExit();
+                }
+                file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return file;
+    }
+
+    private void checkWriteError() {
+        if (writeError != null) {
+            throw new UncheckedIOException("A chunk could not be written back", writeError);
+        }
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("The map has been copied and can no longer be changed");
+        }
+    }
+
+}
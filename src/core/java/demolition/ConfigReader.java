@@ -0,0 +1,468 @@
+package demolition;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * A streaming pull reader for JSON config files. Rather than building the
+ * whole document in memory, the caller walks it one token at a time, reading
+ * the values it needs and skipping the rest. Skipped values are scanned
+ * without allocating, so the cost of skipping a large array is just reading
+ * its characters. Malformed input raises an IllegalArgumentException giving
+ * the line and column of the problem.
+ */
+public class ConfigReader implements Closeable {
+
+    /**
+     * The kinds of token in a JSON document.
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END
+    }
+
+    /**
+     * The states of the enclosing scopes, kept on the stack.
+     */
+    private static final int EMPTYDOCUMENT = 0;
+    private static final int NONEMPTYDOCUMENT = 1;
+    private static final int EMPTYOBJECT = 2;
+    private static final int NONEMPTYOBJECT = 3;
+    private static final int DANGLINGNAME = 4;
+    private static final int EMPTYARRAY = 5;
+    private static final int NONEMPTYARRAY = 6;
+
+    private final Reader in;
+
+    /**
+     * The name of the input, used in error messages.
+     */
+    private final String source;
+
+    private final char[] buffer = new char[8192];
+    private int pos, limit;
+
+    /**
+     * The number of characters read before the current buffer.
+     */
+    private long offset;
+
+    /**
+     * The current line number, and the position at which that line starts.
+     */
+    private int line = 1;
+    private long lineStart;
+
+    private int[] stack = new int[16];
+    private int depth;
+
+    /**
+     * The next token if it has been peeked but not consumed, or null.
+     */
+    private Token peeked;
+
+    /**
+     * The characters of the string being read, reused between strings.
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Constructs a reader over a stream of characters.
+     * @param in The characters of the document.
+     * @param source The name of the input, used in error messages.
+     */
+    public ConfigReader(Reader in, String source) {
+        this.in = in;
+        this.source = source;
+        this.stack[depth++] = EMPTYDOCUMENT;
+    }
+
+    /**
+     * Opens a reader over a UTF-8 file.
+     * @param path The path of the file.
+     * @return The new reader.
+     * @throws FileNotFoundException If the file does not exist.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static ConfigReader open(String path) throws IOException {
+        try {
+            return new ConfigReader(new InputStreamReader(Files.newInputStream(Paths.get(path)), StandardCharsets.UTF_8), path);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(path);
+        }
+    }
+
+    /**
+     * Returns the kind of the next token without consuming it.
+     * @return The kind of the next token.
+     * @throws IOException If the input cannot be read.
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTYARRAY:
+                stack[depth - 1] = NONEMPTYARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                unread(c);
+                return peeked = peekValue();
+            case NONEMPTYARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("expected ',' or ']'");
+                }
+                return peeked = peekValue();
+            case EMPTYOBJECT:
+            case NONEMPTYOBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (stack[depth - 1] == NONEMPTYOBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("expected a name");
+                }
+                unread(c);
+                stack[depth - 1] = DANGLINGNAME;
+                return peeked = Token.NAME;
+            case DANGLINGNAME:
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("expected ':'");
+                }
+                stack[depth - 1] = NONEMPTYOBJECT;
+                return peeked = peekValue();
+            case EMPTYDOCUMENT:
+                stack[depth - 1] = NONEMPTYDOCUMENT;
+                return peeked = peekValue();
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("expected the end of the document");
+                }
+                return peeked = Token.END;
+        }
+    }
+
+    /**
+     * @return Whether the current object or array has another element.
+     * @throws IOException If the input cannot be read.
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return (token != Token.END_OBJECT) && (token != Token.END_ARRAY) && (token != Token.END);
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTYOBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTYARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * @return The name of the next member of the current object.
+     * @throws IOException If the input cannot be read.
+     */
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString(true);
+    }
+
+    /**
+     * @return The next string value.
+     * @throws IOException If the input cannot be read.
+     */
+    public String nextString() throws IOException {
+        expect(Token.STRING);
+        return readString(true);
+    }
+
+    /**
+     * @return The next number value, which must be an integer in the range of an int.
+     * @throws IOException If the input cannot be read.
+     */
+    public int nextInt() throws IOException {
+        expect(Token.NUMBER);
+        int c = read();
+        boolean negative = (c == '-');
+        if (negative) {
+            c = read();
+        }
+        if ((c < '0') || (c > '9')) {
+            throw syntaxError("expected a digit");
+        }
+        long value = 0;
+        while ((c >= '0') && (c <= '9')) {
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw syntaxError("the number is too large");
+            }
+            c = read();
+        }
+        if ((c == '.') || (c == 'e') || (c == 'E')) {
+            throw syntaxError("expected an integer");
+        }
+        unread(c);
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw syntaxError("the number is too large");
+        }
+        return (int) value;
+    }
+
+    /**
+     * @return The next boolean value.
+     * @throws IOException If the input cannot be read.
+     */
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        int c = read();
+        unread(c);
+        readLiteral((c == 't') ? "true" : "false");
+        return c == 't';
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        readLiteral("null");
+    }
+
+    /**
+     * Skips the next value, including everything nested inside it, without
+     * building any of it.
+     * @throws IOException If the input cannot be read.
+     */
+    public void skipValue() throws IOException {
+        int count = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    count++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    count++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    count--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    count--;
+                    break;
+                case NAME:
+                case STRING:
+                    peeked = null;
+                    readString(false);
+                    break;
+                case NUMBER:
+                    peeked = null;
+                    int c;
+                    do {
+                        c = read();
+                    } while (((c >= '0') && (c <= '9')) || (c == '-') || (c == '+') || (c == '.') || (c == 'e') || (c == 'E'));
+                    unread(c);
+                    break;
+                case BOOLEAN:
+                    nextBoolean();
+                    break;
+                case NULL:
+                    nextNull();
+                    break;
+                default:
+                    throw syntaxError("unexpected end of the document");
+            }
+        } while (count > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Token peekValue() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                unread(c);
+                return Token.STRING;
+            case 't':
+            case 'f':
+                unread(c);
+                return Token.BOOLEAN;
+            case 'n':
+                unread(c);
+                return Token.NULL;
+            case -1:
+                throw syntaxError("unexpected end of the document");
+            default:
+                if ((c == '-') || ((c >= '0') && (c <= '9'))) {
+                    unread(c);
+                    return Token.NUMBER;
+                }
+                throw syntaxError(String.format("unexpected character '%c'", (char) c));
+        }
+    }
+
+    private void expect(Token token) throws IOException {
+        if (peek() != token) {
+            throw syntaxError(String.format("expected %s but found %s", token, peeked));
+        }
+        peeked = null;
+    }
+
+    private void push(int state) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = state;
+    }
+
+    /**
+     * Reads a quoted string, starting at its opening quote.
+     * @param keep Whether to build the string, or just skip over it.
+     * @return The string, or null if it is skipped.
+     * @throws IOException If the input cannot be read.
+     */
+    private String readString(boolean keep) throws IOException {
+        read();
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return keep ? text.toString() : null;
+            } else if (c == '\\') {
+                c = readEscape();
+            } else if (c == -1) {
+                throw syntaxError("unterminated string");
+            } else if (c < 0x20) {
+                throw syntaxError("unescaped control character in string");
+            }
+            if (keep) {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private int readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = java.lang.Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return value;
+            default:
+                throw syntaxError("invalid escape sequence");
+        }
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError(String.format("expected '%s'", literal));
+            }
+        }
+        int c = read();
+        if (java.lang.Character.isLetterOrDigit(c)) {
+            throw syntaxError(String.format("expected '%s'", literal));
+        }
+        unread(c);
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == '\n') {
+                line++;
+                lineStart = offset + pos;
+            } else if ((c != ' ') && (c != '\t') && (c != '\r')) {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            offset += limit;
+            pos = 0;
+            limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+            if (limit == 0) {
+                return -1;
+            }
+        }
+        return buffer[pos++];
+    }
+
+    /**
+     * Steps back over the character just read, unless it was the end of the input.
+     * @param c The character just read.
+     */
+    private void unread(int c) {
+        if (c != -1) {
+            pos--;
+        }
+    }
+
+    private IllegalArgumentException syntaxError(String message) {
+        return new IllegalArgumentException(String.format("%s, line %d, column %d: %s",
+            source, line, offset + pos - lineStart, message));
+    }
+
+}
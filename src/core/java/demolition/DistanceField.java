@@ -0,0 +1,310 @@
+package demolition;
+
+import java.util.Arrays;
+
+/**
+ * The walking distance from every tile of the level map to the player,
+ * found by a breadth-first search outwards from the player's tile. Chasing
+ * enemies step to whichever neighbouring tile is closest to the player, so a
+ * single field serves every chaser, and the cost of pathfinding depends on
+ * the size of the map rather than the number of chasers. Distances are
+ * indexed by the TileGrid's array positions, whose solid border bounds the
+ * search.
+ * <p>
+ * Changes to tiles are repaired as a dynamic breadth-first search rather
+ * than by searching again: when a tile opens up, shorter distances spread
+ * outwards from it until they stop improving; when a tile closes, the tiles
+ * whose every shortest path ran through it are found, cleared, and filled in
+ * again from the tiles around them. Either way only tiles whose distance
+ * changes, and their neighbours, are visited, so a destroyed wall costs
+ * microseconds even on the largest maps. Changes to tiles must be reported
+ * through tileChanged.
+ * <p>
+ * The player's moves are not repaired. The map is a bipartite graph, so one
+ * step changes the distance of every reachable tile by one, and no repair
+ * can visit fewer tiles than a search. Instead the moves are gathered up and
+ * the map is searched once when a chaser next asks for a step, so ticks
+ * when no chaser moves cost nothing.
+ */
+public class DistanceField {
+
+    /**
+     * The distance of a tile from which the player cannot be reached.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * The directions tried for each step, in clockwise order.
+     */
+    private static final Direction[] STEPS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
+    /**
+     * The distance of each tile from the target, by array position.
+     */
+    private int[] distances = new int[0];
+
+    /**
+     * A circular queue of tiles whose neighbours may be closer through them,
+     * and which tiles are on it.
+     */
+    private int[] queue = new int[0];
+    private boolean[] queued = new boolean[0];
+    private int head, queueSize;
+
+    /**
+     * The tiles cleared by the latest raise, in order of their old distance,
+     * and the raise each tile was last cleared by.
+     */
+    private int[] affected = new int[0];
+    private int[] marks = new int[0];
+    private int epoch;
+
+    /**
+     * The difference in array position to the neighbour in each of STEPS.
+     */
+    private final int[] offsets = new int[STEPS.length];
+
+    private TileGrid levelMap;
+
+    /**
+     * The position of the tile distances should be measured to, and of the
+     * tile they were last searched from.
+     */
+    private int targetIndex = -1;
+    private int fieldIndex = -1;
+
+    /**
+     * Whether the distances have been searched for the current map.
+     */
+    private boolean searched;
+
+    /**
+     * The number of searches of the whole map performed.
+     */
+    public int searches;
+
+    /**
+     * The number of repairs performed, and the number of tiles they visited.
+     */
+    public int repairs;
+    public long visited;
+
+    /**
+     * Sets the map and the tile to measure distances to. Nothing is searched
+     * until a distance or step is next asked for, so levels without chasers
+     * never allocate the field.
+     * @param levelMap The current level map.
+     * @param x The x-coord of the target, normally the player.
+     * @param y The y-coord of the target.
+     */
+    public void target(TileGrid levelMap, int x, int y) {
+        if (levelMap != this.levelMap) {
+            this.levelMap = levelMap;
+            for (int i = 0; i < STEPS.length; i++) {
+                offsets[i] = levelMap.offset(STEPS[i]);
+            }
+            searched = false;
+        }
+        targetIndex = levelMap.index(x, y);
+    }
+
+    /**
+     * Repairs the field after a tile of the map has been set. A tile that has
+     * not changed whether it is walkable costs a single check.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     */
+    public void tileChanged(int x, int y) {
+        if (!searched) {
+            return;
+        }
+        int index = levelMap.index(x, y);
+        boolean walkable = levelMap.isWalkableAt(index);
+        if (walkable && (distances[index] == UNREACHABLE)) {
+            repairs++;
+            if (settle(index)) {
+                push(index);
+                lower();
+            }
+        } else if (!walkable && (distances[index] != UNREACHABLE)) {
+            repairs++;
+            if (index == fieldIndex) {
+                searched = false;
+            } else {
+                raise(index);
+            }
+        }
+    }
+
+    /**
+     * Gets the walking distance from a tile to the target.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return The number of steps to the target, or UNREACHABLE.
+     */
+    public int distance(int x, int y) {
+        update();
+        return distances[levelMap.index(x, y)];
+    }
+
+    /**
+     * Finds the first step of a shortest walk from a tile to the target.
+     * Ties are broken in clockwise order from UP.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return The direction of the step, or null if the tile is the target
+     * or the target cannot be reached from it.
+     */
+    public Direction step(int x, int y) {
+        update();
+        int index = levelMap.index(x, y);
+        int best = distances[index];
+        Direction bestDir = null;
+        for (int i = 0; i < STEPS.length; i++) {
+            int distance = distances[index + offsets[i]];
+            if (distance < best) {
+                best = distance;
+                bestDir = STEPS[i];
+            }
+        }
+        return bestDir;
+    }
+
+    /**
+     * Searches the map again if it is new or the target has moved.
+     */
+    private void update() {
+        if (!searched || (fieldIndex != targetIndex)) {
+            search();
+        }
+    }
+
+    /**
+     * Searches the whole map from the target, reusing the arrays of the
+     * previous search if the map is the same size.
+     */
+    private void search() {
+        searches++;
+        int capacity = levelMap.capacity();
+        if (distances.length != capacity) {
+            distances = new int[capacity];
+            queue = new int[capacity];
+            queued = new boolean[capacity];
+            affected = new int[capacity];
+            marks = new int[capacity];
+            epoch = 0;
+        }
+        Arrays.fill(distances, UNREACHABLE);
+        head = 0;
+        searched = true;
+        fieldIndex = targetIndex;
+        distances[fieldIndex] = 0;
+        push(fieldIndex);
+        lower();
+    }
+
+    /**
+     * Spreads shorter distances outwards from the tiles on the queue until
+     * they stop improving.
+     */
+    private void lower() {
+        while (queueSize > 0) {
+            int index = queue[head];
+            head = (head + 1 == queue.length) ? 0 : head + 1;
+            queueSize--;
+            queued[index] = false;
+            visited++;
+            int next = distances[index] + 1;
+            for (int i = 0; i < STEPS.length; i++) {
+                int neighbour = index + offsets[i];
+                if ((distances[neighbour] > next) && levelMap.isWalkableAt(neighbour)) {
+                    distances[neighbour] = next;
+                    push(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears every tile whose shortest paths all pass through a tile that is
+     * no longer walkable, then fills them in again from the tiles around them.
+     * The cleared tiles are found in order of their old distance, so a tile's
+     * possible parents have all been considered before it is.
+     * @param root The position of the tile.
+     */
+    private void raise(int root) {
+        if (++epoch == 0) {
+            Arrays.fill(marks, 0);
+            epoch = 1;
+        }
+        int count = 0;
+        marks[root] = epoch;
+        affected[count++] = root;
+        for (int k = 0; k < count; k++) {
+            int index = affected[k];
+            int child = distances[index] + 1;
+            for (int i = 0; i < STEPS.length; i++) {
+                int neighbour = index + offsets[i];
+                if ((marks[neighbour] != epoch) && (neighbour != fieldIndex)
+                        && (distances[neighbour] == child) && !supported(neighbour)) {
+                    marks[neighbour] = epoch;
+                    affected[count++] = neighbour;
+                }
+            }
+        }
+        visited += count;
+        for (int k = 0; k < count; k++) {
+            distances[affected[k]] = UNREACHABLE;
+        }
+        for (int k = 0; k < count; k++) {
+            int index = affected[k];
+            if (levelMap.isWalkableAt(index) && settle(index)) {
+                push(index);
+            }
+        }
+        lower();
+    }
+
+    /**
+     * @param index The position of a tile.
+     * @return Whether a neighbour that has not been cleared is one step
+     * closer to the target than the tile.
+     */
+    private boolean supported(int index) {
+        int parent = distances[index] - 1;
+        for (int i = 0; i < STEPS.length; i++) {
+            int neighbour = index + offsets[i];
+            if ((marks[neighbour] != epoch) && (distances[neighbour] == parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets a tile's distance to one more than its closest neighbour's.
+     * @param index The position of the tile.
+     * @return Whether the target can be reached from the tile.
+     */
+    private boolean settle(int index) {
+        int best = UNREACHABLE;
+        for (int i = 0; i < STEPS.length; i++) {
+            best = Math.min(best, distances[index + offsets[i]]);
+        }
+        if (best == UNREACHABLE) {
+            return false;
+        }
+        distances[index] = best + 1;
+        return true;
+    }
+
+    private void push(int index) {
+        if (!queued[index]) {
+            queued[index] = true;
+            int tail = head + queueSize;
+            queue[(tail >= queue.length) ? tail - queue.length : tail] = index;
+            queueSize++;
+        }
+    }
+
+}
@@ -0,0 +1,380 @@
+package demolition;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An alternative to the list of enemy objects for levels with very large
+ * enemy populations. Each enemy is a slot in a set of parallel primitive
+ * arrays holding its type, position, direction and the tick it was created
+ * on, and the update loop reads those arrays directly. Enemies on the same
+ * tile are chained through the next and previous arrays from a per-tile head,
+ * so kill and loss checks look at a single tile. The heads are kept in
+ * TilePages, created as enemies reach them, so a map paged from disk only
+ * costs memory where there are enemies.
+ * Killed enemies are replaced by the last slot, keeping the arrays dense.
+ * <p>
+ * Enemies only act once every MOVEINTERVAL ticks, so rather than visiting
+ * every enemy on every tick, each enemy's next move is held in a TimingWheel
+ * and an update only visits the enemies whose moves are due. Game times are
+ * worked out from the tick each enemy was created on instead of being counted
+ * up, so an update of a level full of idle enemies costs next to nothing.
+ * Enemies that walk into an explosion are killed as they arrive, and a hash
+ * of every enemy is kept up to date as they move, for the same reason.
+ */
+public class EnemyStore {
+
+    public static final byte RED = 0;
+    public static final byte YELLOW = 1;
+    public static final byte CHASER = 2;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int INITIALCAPACITY = 64;
+
+    /**
+     * The number of ticks between an enemy's moves, the same as for the
+     * enemy objects.
+     */
+    public static final int MOVEINTERVAL = Character.MOVEINTERVAL;
+
+    /**
+     * The number of enemies in the store.
+     */
+    public int size;
+
+    /**
+     * The type of each enemy, either RED, YELLOW or CHASER.
+     */
+    public byte[] type;
+
+    /**
+     * The coordinates of each enemy.
+     */
+    public int[] x, y;
+
+    /**
+     * The ordinal of each enemy's current Direction.
+     */
+    public byte[] dir;
+
+    /**
+     * The tick of the store's clock on which each enemy was created.
+     */
+    private int[] created;
+
+    /**
+     * The tick of each enemy's next move, by slot. Its clock counts the
+     * updates since the store was last reset.
+     */
+    private final TimingWheel moves = new TimingWheel(INITIALCAPACITY);
+
+    /**
+     * The neighbouring enemies on the same tile, or -1 if there are none.
+     */
+    private int[] next, previous;
+
+    /**
+     * The division of the current map into pages.
+     */
+    private TilePages tilePages;
+
+    /**
+     * The first enemy on each tile, or -1, by page. A page is null until an
+     * enemy reaches it.
+     */
+    private int[][] heads;
+
+    /**
+     * The map the store was last reset for, used to index tiles.
+     */
+    private TileGrid levelMap;
+
+    /**
+     * The source of randomness for red enemies.
+     */
+    private final Random random;
+
+    /**
+     * The field of walking distances to the player that chasers follow.
+     */
+    public DistanceField distanceField;
+
+    /**
+     * The index of the level's explosions, which kill enemies that walk into
+     * them. Enemies are not killed by moving if it is null.
+     */
+    public OccupancyIndex occupancy;
+
+    /**
+     * The sum of every enemy's hash.
+     */
+    private int stateHash;
+
+    /**
+     * Constructs an empty store.
+     * @param random The source of randomness for red enemies.
+     */
+    public EnemyStore(Random random) {
+        this.random = random;
+        this.type = new byte[INITIALCAPACITY];
+        this.x = new int[INITIALCAPACITY];
+        this.y = new int[INITIALCAPACITY];
+        this.dir = new byte[INITIALCAPACITY];
+        this.created = new int[INITIALCAPACITY];
+        this.next = new int[INITIALCAPACITY];
+        this.previous = new int[INITIALCAPACITY];
+        this.heads = new int[0][];
+    }
+
+    /**
+     * Removes every enemy and prepares the store for a new level map.
+     * @param levelMap The map of the new level.
+     */
+    public void reset(TileGrid levelMap) {
+        this.levelMap = levelMap;
+        this.size = 0;
+        this.stateHash = 0;
+        moves.clear();
+        if ((tilePages == null) || (tilePages.width != levelMap.width) || (tilePages.height != levelMap.height)) {
+            tilePages = new TilePages(levelMap.width, levelMap.height);
+            heads = new int[tilePages.pages][];
+        } else {
+            // keep the pages the last level reached, since the next is the same size
+            for (int[] page : heads) {
+                if (page != null) {
+                    Arrays.fill(page, -1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a new enemy facing down.
+     * @param enemyType The type of the enemy, either RED, YELLOW or CHASER.
+     * @param startX The initial x-coord of the enemy.
+     * @param startY The initial y-coord of the enemy.
+     */
+    public void add(byte enemyType, int startX, int startY) {
+        if (size == type.length) {
+            grow();
+        }
+        type[size] = enemyType;
+        x[size] = startX;
+        y[size] = startY;
+        dir[size] = (byte) Direction.DOWN.ordinal();
+        created[size] = moves.now();
+        // a new enemy moves on its first update, as an object's autoMove does
+        moves.schedule(size, moves.now());
+        link(size);
+        stateHash += hash(size);
+        size++;
+    }
+
+    /**
+     * Updates every enemy by one tick, moving those that are due to move.
+     * This is the equivalent of calling autoMove and tick on each enemy object,
+     * but only the enemies that move are visited. An enemy that moves onto an
+     * explosion is killed.
+     * @param playerX The x-coord of the player.
+     * @param playerY The y-coord of the player.
+     * @return Whether at least one enemy has moved into a tile with the player.
+     */
+    public boolean update(int playerX, int playerY) {
+        int i;
+        while ((i = moves.poll()) != -1) {
+            if (type[i] == RED) {
+                moveRed(i);
+            } else if (type[i] == CHASER) {
+                moveChaser(i);
+            } else {
+                moveYellow(i);
+            }
+            moves.schedule(i, moves.now() + MOVEINTERVAL);
+            if ((x[i] == playerX) && (y[i] == playerY)) {
+                return true;
+            }
+            if ((occupancy != null) && (occupancy.explosionsAt(x[i], y[i]) > 0)) {
+                GameEvents.enemyKill(x[i], y[i], 1);
+                remove(i);
+            }
+        }
+        moves.advance();
+        return false;
+    }
+
+    /**
+     * Checks whether any enemy occupies a tile.
+     * @param tileX The x-coord of the tile.
+     * @param tileY The y-coord of the tile.
+     * @return Whether there is an enemy on the tile.
+     */
+    public boolean anyAt(int tileX, int tileY) {
+        return head(tileX, tileY) != -1;
+    }
+
+    /**
+     * Kills every enemy on a tile.
+     * @param tileX The x-coord of the tile.
+     * @param tileY The y-coord of the tile.
+     * @return The number of enemies killed.
+     */
+    public int killAt(int tileX, int tileY) {
+        int killed = 0;
+        int head;
+        while ((head = head(tileX, tileY)) != -1) {
+            remove(head);
+            killed++;
+        }
+        return killed;
+    }
+
+    /**
+     * @return The sum of a hash of every enemy's type, position, direction
+     * and creation tick, which does not depend on the order of the slots.
+     */
+    public int stateHash() {
+        return stateHash;
+    }
+
+    /**
+     * @param i The slot of an enemy.
+     * @return The enemy's current direction.
+     */
+    public Direction direction(int i) {
+        return DIRECTIONS[dir[i]];
+    }
+
+    /**
+     * @param i The slot of an enemy.
+     * @return The number of ticks since the enemy was created.
+     */
+    public int gameTime(int i) {
+        return moves.now() - created[i];
+    }
+
+    /**
+     * @param i The slot of an enemy.
+     * @return The frame in the animation cycle the enemy is currently on.
+     */
+    public int animationState(int i) {
+        // Character.tick advances the frame every FRAMETICKS ticks
+        return (gameTime(i) / Character.FRAMETICKS) % Character.FRAMES;
+    }
+
+    private void moveRed(int i) {
+        int exits = levelMap.exits(x[i], y[i]);
+        if (TileGrid.hasExit(exits, DIRECTIONS[dir[i]])) {
+            move(i, DIRECTIONS[dir[i]]);
+        } else if (exits != 0) {
+            move(i, TileGrid.nthExit(exits, random.nextInt(Integer.bitCount(exits))));
+        }
+    }
+
+    private void moveChaser(int i) {
+        Direction step = distanceField.step(x[i], y[i]);
+        if (step != null) {
+            move(i, step);
+        }
+    }
+
+    private void moveYellow(int i) {
+        Direction exit = TileGrid.firstExit(levelMap.exits(x[i], y[i]), DIRECTIONS[dir[i]]);
+        if (exit != null) {
+            move(i, exit);
+        }
+    }
+
+    private boolean move(int i, Direction moveDir) {
+        int newX = x[i] + moveDir.getXOffset();
+        int newY = y[i] + moveDir.getYOffset();
+        if (levelMap.isWalkable(newX, newY)) {
+            unlink(i);
+            stateHash -= hash(i);
+            x[i] = newX;
+            y[i] = newY;
+            dir[i] = (byte) moveDir.ordinal();
+            stateHash += hash(i);
+            link(i);
+            levelMap.prefetch(newX, newY);
+            return true;
+        }
+        return false;
+    }
+
+    private void remove(int i) {
+        unlink(i);
+        stateHash -= hash(i);
+        moves.cancel(i);
+        int last = --size;
+        if (i != last) {
+            unlink(last);
+            type[i] = type[last];
+            x[i] = x[last];
+            y[i] = y[last];
+            dir[i] = dir[last];
+            created[i] = created[last];
+            moves.schedule(i, moves.dueTick(last));
+            moves.cancel(last);
+            link(i);
+        }
+    }
+
+    private int hash(int i) {
+        return EntityTimers.mix(x[i], y[i], type[i] * DIRECTIONS.length + dir[i], created[i]);
+    }
+
+    /**
+     * @param tileX The x-coord of a tile.
+     * @param tileY The y-coord of the tile.
+     * @return The first enemy on the tile, or -1.
+     */
+    private int head(int tileX, int tileY) {
+        if (!tilePages.contains(tileX, tileY)) {
+            return -1;
+        }
+        int[] page = heads[tilePages.page(tileX, tileY)];
+        return (page != null) ? page[TilePages.offset(tileX, tileY)] : -1;
+    }
+
+    private void link(int i) {
+        int pageNumber = tilePages.page(x[i], y[i]);
+        int[] page = heads[pageNumber];
+        if (page == null) {
+            page = new int[TilePages.PAGETILES];
+            Arrays.fill(page, -1);
+            heads[pageNumber] = page;
+        }
+        int offset = TilePages.offset(x[i], y[i]);
+        int head = page[offset];
+        previous[i] = -1;
+        next[i] = head;
+        if (head != -1) {
+            previous[head] = i;
+        }
+        page[offset] = i;
+    }
+
+    private void unlink(int i) {
+        if (previous[i] != -1) {
+            next[previous[i]] = next[i];
+        } else {
+            heads[tilePages.page(x[i], y[i])][TilePages.offset(x[i], y[i])] = next[i];
+        }
+        if (next[i] != -1) {
+            previous[next[i]] = previous[i];
+        }
+    }
+
+    private void grow() {
+        int capacity = type.length * 2;
+        type = Arrays.copyOf(type, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        dir = Arrays.copyOf(dir, capacity);
+        created = Arrays.copyOf(created, capacity);
+        moves.ensureCapacity(capacity);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+    }
+
+}
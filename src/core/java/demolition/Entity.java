@@ -0,0 +1,92 @@
+package demolition;
+
+/**
+ * This abstract class is used to store and handle functions common to all entities.
+ * Entities only hold simulation state; the images used to draw them are
+ * chosen by the renderer from the entity's type, direction and animation state.
+ */
+public abstract class Entity {
+
+    /**
+     * The current entity's coordinates.
+     */
+    public int x, y;
+
+    /**
+     * The number of ticks since the entity was created.
+     * <p>
+     * Once an entity is in one of a GameState's lists, its updates are
+     * scheduled by EntityTimers, and this is only brought up to date on the
+     * updates where something happens to it, such as a frame change, a move
+     * or its expiry. Between those updates it holds the value from the last
+     * one, so code outside the update loop should not rely on it. It should
+     * only be set before the entity is added to a list, since the entity's
+     * next event is worked out from it when the entity is picked up, and is
+     * not moved if it is set afterwards.
+     */
+    public int gameTime;
+
+    /**
+     * The entity's handle in the EntityTimers it is scheduled by, or one of
+     * EntityTimers.UNSCHEDULED and EntityTimers.RELEASED.
+     */
+    int timer = EntityTimers.UNSCHEDULED;
+
+    /**
+     * The tick of those timers on which gameTime was last brought up to date.
+     */
+    int synced;
+
+    /**
+     * The frame in the animation cycle it's currently on.
+     */
+    protected int animationState;
+
+    /**
+     * The number of frames in the entity's animation cycle.
+     */
+    protected int frameCount;
+
+    /**
+     * Creates a new entity.
+     * @param frameCount The number of frames in the entity's animation cycle.
+     */
+    public Entity(int frameCount) {
+        this(frameCount, -1, -1);
+    }
+
+    /**
+     * Creates a new entity. This constructor is used when the coordinates are
+     * known at time of initialisation.
+     * @param frameCount The number of frames in the entity's animation cycle.
+     * @param startX The entity's initial x-coord.
+     * @param startY The entity's initial y-coord.
+     */
+    public Entity(int frameCount, int startX, int startY) {
+        this.x = startX;
+        this.y = startY;
+        this.frameCount = frameCount;
+        this.animationState = 0;
+        this.gameTime = 0;
+    }
+
+    /**
+     * Updates the entity by one tick (1/60 of a second) and handles relevant internal events.
+     */
+    public abstract void tick();
+
+    /**
+     * Changes the current frame to the next one in the entity's animation cycle.
+     */
+    public void updateFrame() {
+        this.animationState = (this.animationState + 1) % frameCount;
+    }
+
+    /**
+     * @return The frame in the animation cycle the entity is currently on.
+     */
+    public int getAnimationState() {
+        return animationState;
+    }
+
+}
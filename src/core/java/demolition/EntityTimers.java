@@ -0,0 +1,281 @@
+package demolition;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * Schedules the entities of one list on a TimingWheel, so that an update only
+ * visits the entities that have something to do on the current tick rather
+ * than walking the whole list.
+ * <p>
+ * Entities are picked up from the end of the list as they are added. Each is
+ * given a handle on the wheel and timed by a function that finds, from its
+ * gameTime, the next gameTime on which an update does anything to it, such as
+ * changing its frame, moving or expiring. Between those updates its gameTime
+ * is left as it was; the wheel's clock and the tick it was last brought up to
+ * date on give its real age whenever it is due.
+ * <p>
+ * A hash of every scheduled entity's position, facing and creation tick is
+ * kept up to date as they are scheduled and released, so a checksum of the
+ * game state does not need to walk the list.
+ * @param <T> The type of entity scheduled.
+ */
+public class EntityTimers<T extends Entity> {
+
+    /**
+     * The timer of an entity that has no handle.
+     */
+    public static final int UNSCHEDULED = -1;
+
+    /**
+     * The timer of an entity that has been released but is still in the
+     * list, waiting to be removed by removeReleased.
+     */
+    public static final int RELEASED = -2;
+
+    private static final int INITIALCAPACITY = 64;
+
+    /**
+     * The entity's next event, from its gameTime.
+     */
+    private final IntUnaryOperator nextEvent;
+
+    /**
+     * The direction an entity faces, hashed along with its position.
+     */
+    private final ToIntFunction<? super T> facing;
+
+    /**
+     * The timers of the scheduled entities, by handle. The clock counts the
+     * updates since the timers were last cleared.
+     */
+    private final TimingWheel wheel = new TimingWheel(INITIALCAPACITY);
+
+    /**
+     * The entity holding each handle, or null.
+     */
+    private Entity[] entities = new Entity[INITIALCAPACITY];
+
+    /**
+     * The hash each entity contributed when it was last scheduled, by handle.
+     */
+    private int[] hashes = new int[INITIALCAPACITY];
+
+    /**
+     * The handles that have been released, and the number of them.
+     */
+    private int[] free = new int[INITIALCAPACITY];
+    private int freeCount;
+
+    /**
+     * The number of handles ever given out since the timers were cleared.
+     */
+    private int handles;
+
+    /**
+     * The list being scheduled, and the number of entities at its start that
+     * have been picked up.
+     */
+    private List<T> list;
+    private int registered;
+
+    /**
+     * The sum of every scheduled entity's hash.
+     */
+    private int hash;
+
+    /**
+     * Constructs empty timers.
+     * @param nextEvent Finds the gameTime after the next update that does
+     * anything to an entity, from its gameTime after the current update.
+     * @param facing The direction an entity faces, for the hash.
+     */
+    public EntityTimers(IntUnaryOperator nextEvent, ToIntFunction<? super T> facing) {
+        this.nextEvent = nextEvent;
+        this.facing = facing;
+    }
+
+    /**
+     * Releases every entity and sets the clock back to zero. Entities still
+     * in the list keep the gameTime they were last brought up to date with.
+     */
+    public void clear() {
+        wheel.clear();
+        Arrays.fill(entities, 0, handles, null);
+        handles = 0;
+        freeCount = 0;
+        list = null;
+        registered = 0;
+        hash = 0;
+    }
+
+    /**
+     * Picks up the entities added to the end of a list since it was last
+     * synced, scheduling each from its current gameTime. If the list is not
+     * the one last synced, or has lost entities other than by removeReleased,
+     * every entity is brought up to date and the whole list is picked up again.
+     * @param list The list of entities to schedule.
+     * @return The index of the first entity picked up.
+     */
+    public int sync(List<T> list) {
+        if ((list != this.list) || (list.size() < registered)
+            || ((registered > 0) && !holds(list.get(registered - 1)))) {
+            for (int i = 0; i < list.size(); i++) {
+                T entity = list.get(i);
+                if (holds(entity)) {
+                    entity.gameTime = age(entity);
+                }
+            }
+            clear();
+            this.list = list;
+        }
+        int first = registered;
+        for (int i = first; i < list.size(); i++) {
+            T entity = list.get(i);
+            entity.timer = allocate(entity);
+            schedule(entity);
+        }
+        registered = list.size();
+        return first;
+    }
+
+    /**
+     * Advances the clock to the current update, before polling.
+     */
+    public void advance() {
+        wheel.advance();
+    }
+
+    /**
+     * Takes an entity whose next event is due off the wheel, bringing its
+     * gameTime up to date as of the start of the current update. It must be
+     * either scheduled again or released.
+     * @return The entity, or null if no entity is due.
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        int handle = wheel.poll();
+        if (handle == -1) {
+            return null;
+        }
+        T entity = (T) entities[handle];
+        entity.gameTime = age(entity) - 1;
+        return entity;
+    }
+
+    /**
+     * Schedules an entity's next event, taking its gameTime to be up to date
+     * as of the end of the current update.
+     * @param entity A picked up entity.
+     */
+    public void schedule(T entity) {
+        int handle = entity.timer;
+        entity.synced = wheel.now();
+        hash -= hashes[handle];
+        hashes[handle] = mix(entity.x, entity.y, facing.applyAsInt(entity), entity.synced - entity.gameTime);
+        hash += hashes[handle];
+        wheel.schedule(handle, entity.synced + nextEvent.applyAsInt(entity.gameTime) - entity.gameTime);
+    }
+
+    /**
+     * Releases an entity that is leaving the game, so that it is no longer
+     * scheduled or hashed. It stays in the list until removeReleased is called.
+     * @param entity An entity in the list.
+     */
+    public void release(T entity) {
+        if (holds(entity)) {
+            int handle = entity.timer;
+            wheel.cancel(handle);
+            hash -= hashes[handle];
+            entities[handle] = null;
+            free[freeCount++] = handle;
+        }
+        entity.timer = RELEASED;
+    }
+
+    /**
+     * Removes the released entities from the list by compacting it in place,
+     * keeping the order of the rest.
+     * @param list The list last synced.
+     */
+    public void removeReleased(List<T> list) {
+        int size = list.size();
+        int kept = 0;
+        int keptRegistered = 0;
+        for (int i = 0; i < size; i++) {
+            T entity = list.get(i);
+            if (entity.timer == RELEASED) {
+                entity.timer = UNSCHEDULED;
+            } else {
+                list.set(kept++, entity);
+                if (i < registered) {
+                    keptRegistered++;
+                }
+            }
+        }
+        while (list.size() > kept) {
+            list.remove(list.size() - 1);
+        }
+        if (list == this.list) {
+            registered = keptRegistered;
+        }
+    }
+
+    /**
+     * @return The sum of the hashes of every scheduled entity.
+     */
+    public int hash() {
+        return hash;
+    }
+
+    /**
+     * @param entity An entity.
+     * @return Whether the entity holds a handle of these timers.
+     */
+    private boolean holds(Entity entity) {
+        return (entity.timer >= 0) && (entity.timer < handles) && (entities[entity.timer] == entity);
+    }
+
+    /**
+     * @param entity An entity holding a handle.
+     * @return The entity's gameTime as of the end of the current update.
+     */
+    private int age(Entity entity) {
+        return entity.gameTime + (wheel.now() - entity.synced);
+    }
+
+    private int allocate(Entity entity) {
+        int handle;
+        if (freeCount > 0) {
+            handle = free[--freeCount];
+        } else {
+            handle = handles++;
+            if (handle == entities.length) {
+                int capacity = entities.length * 2;
+                entities = Arrays.copyOf(entities, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                free = Arrays.copyOf(free, capacity);
+                wheel.ensureCapacity(capacity);
+            }
+        }
+        entities[handle] = entity;
+        hashes[handle] = 0;
+        return handle;
+    }
+
+    /**
+     * Mixes an entity's state into a hash whose sum over the entities does
+     * not depend on the order they were added in.
+     */
+    static int mix(int x, int y, int facing, int created) {
+        int h = x;
+        h = 31 * h + y;
+        h = 31 * h + facing;
+        h = 31 * h + created;
+        h *= 0x9E3779B1;
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,54 @@
+package demolition;
+
+/**
+ * This is used to handle functions relevant to a particular explosion.
+ * A single Explosion is defined as the portion of an "explosion" occupying
+ * one tile.
+ */
+public class Explosion extends Entity {
+
+    /**
+     * The explosion disappears once its gameTime is past this many ticks.
+     */
+    public static final int LIFETIME = 120;
+
+    /**
+     * The part of the blast this explosion represents: the centre, an axis
+     * for the middle of a ray, or a direction for the end of a ray.
+     */
+    public final Direction dir;
+
+    /**
+     * Constructs a new, temporary Explosion object that kills Characters.
+     * @param dir The part of the blast this explosion represents.
+     * @param x The x-coord of the explosion.
+     * @param y The y-coord of the explosion.
+     */
+    public Explosion(Direction dir, int x, int y) {
+        super(1, x, y);
+        this.dir = dir;
+    }
+
+    public void tick() {
+        this.gameTime++;
+    }
+
+    /**
+     * Finds the next time an explosion needs to be ticked, when it disappears.
+     * @param gameTime The explosion's current gameTime.
+     * @return The gameTime after the next tick that does anything.
+     */
+    public static int nextEvent(int gameTime) {
+        return Math.max(gameTime + 1, LIFETIME + 1);
+    }
+
+    /**
+     * Checks whether the explosion is ready to disappear. If true, it should be
+     * removed externally.
+     * @return Whether the explosion is ready to disappear.
+     */
+    public boolean checkDisappear() {
+        return (this.gameTime > LIFETIME);
+    }
+
+}
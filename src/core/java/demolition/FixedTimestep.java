@@ -0,0 +1,114 @@
+package demolition;
+
+/**
+ * Runs the simulation at a fixed tick rate, independently of the rate at
+ * which frames are rendered. Elapsed time is accumulated between frames and
+ * spent in whole ticks, so a slow frame is caught up by running several ticks
+ * before the next one is drawn. To stop a long stall from snowballing, at
+ * most maxCatchUp ticks are run per frame and any further backlog is dropped.
+ * A timestep created with an UNCAPPED tick rate ignores the clock altogether
+ * and always runs maxCatchUp ticks, which lets headless runs go as fast as
+ * the machine allows.
+ */
+public class FixedTimestep {
+
+    /**
+     * The tick rate that runs ticks as fast as possible.
+     */
+    public static final int UNCAPPED = 0;
+
+    /**
+     * The default limit on the number of ticks run to catch up in one frame.
+     */
+    public static final int MAXCATCHUP = 5;
+
+    /**
+     * The length of a tick in nanoseconds, or 0 if uncapped.
+     */
+    public final long tickLength;
+
+    /**
+     * The maximum number of ticks run in one frame.
+     */
+    public final int maxCatchUp;
+
+    /**
+     * The time that has passed but not yet been spent on ticks, in nanoseconds.
+     */
+    private long accumulator;
+
+    /**
+     * The time at which the timestep was last advanced, or -1 before the first frame.
+     */
+    private long lastTime;
+
+    /**
+     * Constructs a new timestep.
+     * @param tickRate The number of ticks per second, or UNCAPPED.
+     * @param maxCatchUp The maximum number of ticks run in one frame.
+     */
+    public FixedTimestep(int tickRate, int maxCatchUp) {
+        if (maxCatchUp < 1) {
+            throw new IllegalArgumentException("At least one tick must be allowed per frame");
+        }
+        this.tickLength = (tickRate == UNCAPPED) ? 0 : 1000000000L / tickRate;
+        this.maxCatchUp = maxCatchUp;
+        this.lastTime = -1;
+    }
+
+    /**
+     * Accumulates the time since the last frame and works out how many ticks
+     * are due. The first frame is always given a single tick.
+     * @param now The current time in nanoseconds, as from System.nanoTime.
+     * @return The number of ticks to run this frame.
+     */
+    public int advance(long now) {
+        if (tickLength == 0) {
+            return maxCatchUp;
+        }
+        if (lastTime == -1) {
+            lastTime = now;
+            return 1;
+        }
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        long due = accumulator / tickLength;
+        if (due > maxCatchUp) {
+            // drop the backlog rather than falling further behind
+            accumulator = 0;
+            return maxCatchUp;
+        }
+        accumulator -= due * tickLength;
+        return (int) due;
+    }
+
+    /**
+     * @return How far the simulation is into the next tick, between 0 and 1.
+     */
+    public double alpha() {
+        if (tickLength == 0) {
+            return 0;
+        }
+        return (double) accumulator / tickLength;
+    }
+
+    /**
+     * Runs the ticks due this frame, stopping early if the game ends.
+     * @param gameState The game to tick.
+     * @param config The level configuration of the game.
+     * @param listener The listener notified of resets and the end of the game.
+     * @param now The current time in nanoseconds, as from System.nanoTime.
+     * @return The number of ticks run.
+     */
+    public int run(GameState gameState, GameConfig config, GameListener listener, long now) {
+        int due = advance(now);
+        int ticks = 0;
+        while ((ticks < due) && !gameState.gameEnded) {
+            gameState.tick(config, listener);
+            ticks++;
+        }
+        return ticks;
+    }
+
+}
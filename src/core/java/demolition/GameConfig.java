@@ -0,0 +1,125 @@
+package demolition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+ * Stores the campaign configuration needed by the simulation: the level files
+ * and the time allowed for each of them. The Processing frontend fills this in
+ * from config.json through a LevelCatalog, while headless runs can construct
+ * it directly. A GameConfig owns the catalog it loads, and closing it closes
+ * the config file if the game ends before every entry has been read.
+ */
+public class GameConfig implements Closeable {
+
+    /**
+     * The list of level file names.
+     */
+    public List<String> levelFiles;
+
+    /**
+     * The list of level times, corresponding with the file names.
+     */
+    public List<Integer> levelTimes;
+
+    /**
+     * The declared dimensions of each level, corresponding with the file names.
+     * These lists are optional, and a null entry means the dimensions are
+     * taken from the level file itself.
+     */
+    public List<Integer> levelWidths, levelHeights;
+
+    /**
+     * The catalog the level lists are views of, or null if the lists were
+     * filled in directly.
+     */
+    public LevelCatalog catalog;
+
+    /**
+     * Constructs an empty GameConfig.
+     */
+    public GameConfig() {
+    }
+
+    /**
+     * Constructs a GameConfig from the given levels.
+     * @param levelFiles The list of level file names.
+     * @param levelTimes The list of level times, in seconds.
+     */
+    public GameConfig(List<String> levelFiles, List<Integer> levelTimes) {
+        this.levelFiles = new ArrayList<String>(levelFiles);
+        this.levelTimes = new ArrayList<Integer>(levelTimes);
+    }
+
+    /**
+     * Replaces the level lists with views of a catalog, so that each level's
+     * entry is only read once the game reaches it. The config takes over the
+     * catalog, closing any catalog it had already loaded.
+     * @param catalog The catalog of levels.
+     * @throws IOException If the previous catalog cannot be closed.
+     */
+    public void load(LevelCatalog catalog) throws IOException {
+        close();
+        this.catalog = catalog;
+        this.levelFiles = catalog.files;
+        this.levelTimes = catalog.times;
+        this.levelWidths = catalog.widths;
+        this.levelHeights = catalog.heights;
+    }
+
+    /**
+     * Checks whether a level exists, without reading any later levels from
+     * the catalog.
+     * @param level The index of the level.
+     * @return Whether the level exists.
+     */
+    public boolean hasLevel(int level) {
+        if (catalog != null) {
+            return catalog.resolve(level);
+        }
+        return level < levelFiles.size();
+    }
+
+    /**
+     * @param level The index of the level.
+     * @return The declared width of the level in tiles, or 0 if it is not declared.
+     */
+    public int declaredWidth(int level) {
+        return declared(levelWidths, level);
+    }
+
+    /**
+     * @param level The index of the level.
+     * @return The declared height of the level in tiles, or 0 if it is not declared.
+     */
+    public int declaredHeight(int level) {
+        return declared(levelHeights, level);
+    }
+
+    /**
+     * Closes the catalog's config file, if it is still open. The levels
+     * already read stay available.
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (catalog != null) {
+            catalog.close();
+        }
+    }
+
+    private int declared(List<Integer> sizes, int level) {
+        if (sizes == null) {
+            return 0;
+        }
+        // sizing a catalog's view would read every level
+        boolean listed = (catalog != null) ? catalog.resolve(level) : (level < sizes.size());
+        if (!listed || (sizes.get(level) == null)) {
+            return 0;
+        }
+        return sizes.get(level);
+    }
+
+}
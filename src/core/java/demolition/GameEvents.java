@@ -0,0 +1,246 @@
+package demolition;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the game's lifecycle and hot paths, so that
+ * a recording can line up GC pauses and CPU spikes with what the game was
+ * doing. They appear under "Demolition" in JDK Mission Control. Each event
+ * is only constructed when a running recording has its type enabled, so
+ * without a recording every probe is a single check that allocates nothing.
+ * Timed events are begun by one method, which returns null when the event
+ * is disabled, and committed by another, which accepts that null.
+ */
+public final class GameEvents {
+
+    @Name("demolition.Tick")
+    @Label("Tick")
+    @Category("Demolition")
+    @Description("One fixed-rate tick of the game")
+    @StackTrace(false)
+    public static final class Tick extends Event {
+        @Label("Tick")
+        public int tick;
+        @Label("Level")
+        public int level;
+    }
+
+    @Name("demolition.BombDetonation")
+    @Label("Bomb Detonation")
+    @Category("Demolition")
+    @Description("A bomb exploding")
+    @StackTrace(false)
+    public static final class BombDetonation extends Event {
+        @Label("X")
+        public int x;
+        @Label("Y")
+        public int y;
+        @Label("Blast Size")
+        @Description("The number of tiles covered by the explosion")
+        public int blastSize;
+        @Label("Tiles Destroyed")
+        @Description("The number of broken walls destroyed")
+        public int tilesDestroyed;
+    }
+
+    @Name("demolition.EnemyKill")
+    @Label("Enemy Kill")
+    @Category("Demolition")
+    @Description("Enemies killed by an explosion")
+    @StackTrace(false)
+    public static final class EnemyKill extends Event {
+        @Label("X")
+        public int x;
+        @Label("Y")
+        public int y;
+        @Label("Killed")
+        public int killed;
+    }
+
+    @Name("demolition.LevelReset")
+    @Label("Level Reset")
+    @Category("Demolition")
+    @Description("A level restarting after a loss, or the next level starting after a win")
+    @StackTrace(false)
+    public static final class LevelReset extends Event {
+        @Label("Level")
+        public int level;
+        @Label("Lives")
+        public int lives;
+    }
+
+    @Name("demolition.LevelLoad")
+    @Label("Level Load")
+    @Category("Demolition")
+    @Description("Building a level's map, parsing its file unless it was parsed before")
+    @StackTrace(false)
+    public static final class LevelLoad extends Event {
+        @Label("Level")
+        public int level;
+        @Label("Path")
+        public String path;
+        @Label("Width")
+        public int width;
+        @Label("Height")
+        public int height;
+        @Label("Cached")
+        @Description("Whether the parsed level was reused")
+        public boolean cached;
+    }
+
+    @Name("demolition.AssetLoad")
+    @Label("Asset Load")
+    @Category("Demolition")
+    @Description("Loading an image or font")
+    @StackTrace(false)
+    public static final class AssetLoad extends Event {
+        @Label("Path")
+        public String path;
+    }
+
+    private static final EventType TICK = EventType.getEventType(Tick.class);
+    private static final EventType DETONATION = EventType.getEventType(BombDetonation.class);
+    private static final EventType KILL = EventType.getEventType(EnemyKill.class);
+    private static final EventType RESET = EventType.getEventType(LevelReset.class);
+    private static final EventType LOAD = EventType.getEventType(LevelLoad.class);
+    private static final EventType ASSET = EventType.getEventType(AssetLoad.class);
+
+    private GameEvents() {
+    }
+
+    /**
+     * @return A tick event that has begun, or null if it is disabled.
+     */
+    public static Tick beginTick() {
+        if (!TICK.isEnabled()) {
+            return null;
+        }
+        Tick event = new Tick();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a tick event.
+     * @param event The event returned by beginTick, or null.
+     * @param tick The number of the tick.
+     * @param level The current level.
+     */
+    public static void endTick(Tick event, int tick, int level) {
+        if (event != null) {
+            event.tick = tick;
+            event.level = level;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a bomb exploding.
+     * @param x The x-coord of the bomb.
+     * @param y The y-coord of the bomb.
+     * @param blastSize The number of explosion tiles created.
+     * @param tilesDestroyed The number of broken walls destroyed.
+     */
+    public static void detonation(int x, int y, int blastSize, int tilesDestroyed) {
+        if (DETONATION.isEnabled()) {
+            BombDetonation event = new BombDetonation();
+            event.x = x;
+            event.y = y;
+            event.blastSize = blastSize;
+            event.tilesDestroyed = tilesDestroyed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records enemies killed by an explosion.
+     * @param x The x-coord of the explosion.
+     * @param y The y-coord of the explosion.
+     * @param killed The number of enemies killed.
+     */
+    public static void enemyKill(int x, int y, int killed) {
+        if (KILL.isEnabled()) {
+            EnemyKill event = new EnemyKill();
+            event.x = x;
+            event.y = y;
+            event.killed = killed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a level being reset.
+     * @param level The level being started.
+     * @param lives The player's remaining lives.
+     */
+    public static void levelReset(int level, int lives) {
+        if (RESET.isEnabled()) {
+            LevelReset event = new LevelReset();
+            event.level = level;
+            event.lives = lives;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return A level load event that has begun, or null if it is disabled.
+     */
+    public static LevelLoad beginLevelLoad() {
+        if (!LOAD.isEnabled()) {
+            return null;
+        }
+        LevelLoad event = new LevelLoad();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a level load event.
+     * @param event The event returned by beginLevelLoad, or null.
+     * @param level The level loaded.
+     * @param path The path of the level file.
+     * @param levelMap The new level map.
+     * @param cached Whether the parsed level was reused.
+     */
+    public static void endLevelLoad(LevelLoad event, int level, String path, TileGrid levelMap, boolean cached) {
+        if (event != null) {
+            event.level = level;
+            event.path = path;
+            event.width = levelMap.width;
+            event.height = levelMap.height;
+            event.cached = cached;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return An asset load event that has begun, or null if it is disabled.
+     */
+    public static AssetLoad beginAssetLoad() {
+        if (!ASSET.isEnabled()) {
+            return null;
+        }
+        AssetLoad event = new AssetLoad();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits an asset load event.
+     * @param event The event returned by beginAssetLoad, or null.
+     * @param path The path of the asset.
+     */
+    public static void endAssetLoad(AssetLoad event, String path) {
+        if (event != null) {
+            event.path = path;
+            event.commit();
+        }
+    }
+
+}
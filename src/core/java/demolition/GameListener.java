@@ -0,0 +1,45 @@
+package demolition;
+
+/**
+ * Receives the events of the simulation that a frontend must react to, such
+ * as redrawing the level after a reset. All methods do nothing by default,
+ * so a headless run can use {@link #HEADLESS}.
+ */
+public interface GameListener {
+
+    /**
+     * A listener that ignores every event, used when there is no display.
+     */
+    GameListener HEADLESS = new GameListener() {};
+
+    /**
+     * Called after the level has been reset or a new level has been loaded.
+     * @param gameState The GameState whose level was reset.
+     */
+    default void levelReset(GameState gameState) {
+    }
+
+    /**
+     * Called when a tile of a level map changes after the level has been
+     * loaded, such as a broken wall being destroyed by an explosion. Only
+     * maps whose listener has been set report their changes.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @param tile The new tile.
+     */
+    default void tileChanged(int x, int y, Tile tile) {
+    }
+
+    /**
+     * Called when the player has won the final level.
+     */
+    default void gameWon() {
+    }
+
+    /**
+     * Called when the player has run out of lives.
+     */
+    default void gameLost() {
+    }
+
+}
@@ -0,0 +1,648 @@
+package demolition;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.HashMap;
+import java.util.Map;
+import java.io.IOException;
+
+/**
+ * A helper class used to store and handle all data and functions relevant to
+ * handling the current state of the game. GameState has no dependency on
+ * Processing, so the game can be simulated without a display; frontends are
+ * notified of resets and the end of the game through a GameListener.
+ */
+public class GameState {
+
+    /**
+     * The default map dimensions, used when a level file is missing and no
+     * dimensions are declared for it.
+     */
+    public static final int MAPHEIGHT = 13;
+    public static final int MAPWIDTH = 15;
+    public static final int TICKRATE = 60;
+
+    /**
+     * The current level map.
+     */
+    public TileGrid levelMap;
+
+    /**
+     * The current level in the game.
+     */
+    public int currentLevel;
+
+    /**
+     * The time remaining in the current level (before the player dies).
+     */
+    public int timeLeft;
+
+    /**
+     * The coordinates of the goal in the level map, stored for convenience.
+     */
+    public Coordinates goalCoords;
+
+    /**
+     * Whether the game has been concluded.
+     */
+    public boolean gameEnded;
+
+    /**
+     * List of all enemies. Entities are picked up from the ends of the entity
+     * lists each tick and scheduled on timers, which only visit the entities
+     * that have something to do, so entities should only be added to the end
+     * of a list. The lists are compacted in place as entities leave, so they
+     * should be random-access lists.
+     */
+    public List<Character> enemies;
+
+    /**
+     * List of all bombs.
+     */
+    public List<Bomb> bombs;
+
+    /**
+     * List of all explosions.
+     */
+    public List<Explosion> explosions;
+
+    /**
+     * The Player object.
+     */
+    public Player player;
+
+    /**
+     * The per-tile index of enemies and explosions, used for kill and loss checks.
+     * Enemies and explosions should be added through addEnemy and addExplosion
+     * so that the index stays up to date.
+     */
+    public OccupancyIndex occupancy;
+
+    /**
+     * An optional struct-of-arrays store for the level's enemies, for very
+     * large enemy populations. If this is set before the level is initialised,
+     * enemies from the level file are placed in it instead of the enemies list.
+     */
+    public EnemyStore enemyStore;
+
+    /**
+     * The source of randomness for the game. Enemies loaded from level files
+     * share it, so seeding it before the first level is loaded makes the
+     * whole game reproducible.
+     */
+    public Random random;
+
+    /**
+     * The number of ticks run since the game started.
+     */
+    public int tickCount;
+
+    /**
+     * An optional log that every applied key event and the state checksum
+     * after every tick are recorded to, so that the game can be replayed.
+     */
+    public InputLog recorder;
+
+    /**
+     * The profiler that each phase of a tick is timed with. It is disabled
+     * unless the frontend's performance overlay is in use.
+     */
+    public Profiler profiler = Profiler.DISABLED;
+
+    /**
+     * The walking distance from every tile to the player, shared by every
+     * chasing enemy, retargeted once per tick and repaired as walls are destroyed.
+     */
+    public final DistanceField distanceField;
+
+    /**
+     * The parsed levels, keyed by level file path and declared dimensions.
+     */
+    private final Map<String, LevelTemplate> templates;
+
+    /**
+     * The timers of the bombs, enemies and explosions, each advanced by the
+     * update of its own list.
+     */
+    private final EntityTimers<Bomb> bombTimers = new EntityTimers<Bomb>(Bomb::nextEvent, bomb -> 0);
+    private final EntityTimers<Character> enemyTimers = new EntityTimers<Character>(Character::nextEvent, enemy -> enemy.dir.ordinal());
+    private final EntityTimers<Explosion> explosionTimers = new EntityTimers<Explosion>(Explosion::nextEvent, explosion -> 0);
+
+    /**
+     * Constructs the new GameState object, with a new Player and empty lists
+     * of entities. Sets the current level to 0.
+     */
+    public GameState() {
+        currentLevel = 0;
+        random = new Random();
+        templates = new HashMap<String, LevelTemplate>();
+        distanceField = new DistanceField();
+        player = new Player();
+        enemies = new ArrayList<Character>();
+        bombs = new ArrayList<Bomb>();
+        explosions = new ArrayList<Explosion>();
+    }
+
+    /**
+     * Builds a fresh game on the first level, ready to be ticked.
+     * @param config The level configuration of the game.
+     * @param seed The seed of the game's source of randomness.
+     * @param lives The number of lives the player starts with.
+     * @param filePathExtension A prefix to add to the level file paths.
+     * @return The new GameState.
+     */
+    public static GameState newGame(GameConfig config, long seed, int lives, String filePathExtension) {
+        GameState gameState = new GameState();
+        gameState.random.setSeed(seed);
+        gameState.player.lives = lives;
+        gameState.levelMap = gameState.initialiseLevelMap(config, filePathExtension);
+        return gameState;
+    }
+
+    /**
+     * Initialises the level map. This involves looking up the parsed level
+     * and copying its tiles into a new TileGrid as well as adding to the
+     * Player object and List of enemies already existing in GameState.
+     * Each level file is only read and parsed once, the first time it is
+     * needed; later resets copy the cached LevelTemplate instead.
+     * If the specified level file is not found, an empty map is instead generated.
+     * @param config The level configuration of the game.
+     * @param filePathExtension A prefix to add to the level file path. Only used in testing.
+     * @return A new TileGrid representing a level map.
+     * @throws LevelFormatException If the first level's file is malformed.
+     */
+    public TileGrid initialiseLevelMap(GameConfig config, String filePathExtension) {
+        GameEvents.LevelLoad event = GameEvents.beginLevelLoad();
+        timeLeft = config.levelTimes.get(currentLevel) * TICKRATE;
+        int parsed = templates.size();
+        LevelTemplate template = levelTemplate(config, filePathExtension);
+
+        TileGrid output = template.newMap();
+        if (template.playerX != -1) {
+            player.x = template.playerX;
+            player.y = template.playerY;
+        }
+        if (template.goalCoords != null) {
+            goalCoords = template.goalCoords;
+        }
+
+        if (enemyStore != null) {
+            enemyStore.reset(output);
+            enemyStore.distanceField = distanceField;
+        }
+        for (int i = 0; i < template.enemies(); i++) {
+            int x = template.enemyX(i);
+            int y = template.enemyY(i);
+            if (enemyStore != null) {
+                enemyStore.add(template.enemyType(i), x, y);
+            } else if (template.enemyType(i) == EnemyStore.RED) {
+                enemies.add(new RedEnemy(x, y, random));
+            } else if (template.enemyType(i) == EnemyStore.CHASER) {
+                enemies.add(new ChaserEnemy(x, y, distanceField));
+            } else {
+                enemies.add(new YellowEnemy(x, y));
+            }
+        }
+
+        occupancy = new OccupancyIndex(output.width, output.height);
+        for (Character enemy : enemies) {
+            occupancy.addEnemy(enemy);
+        }
+        if (enemyStore != null) {
+            enemyStore.occupancy = occupancy;
+        }
+
+        GameEvents.endLevelLoad(event, currentLevel, filePathExtension + config.levelFiles.get(currentLevel),
+            output, templates.size() == parsed);
+        return output;
+
+    }
+
+    /**
+     * Returns the parsed template of the current level, reading and parsing
+     * the level file if it has not been cached yet.
+     * The map's dimensions are those declared for the level in the config, or
+     * otherwise the number of lines and the length of the longest line in the
+     * level file. If the level file cannot be read, the template is an empty
+     * map of the declared size, or of the default size if none is declared.
+     * A malformed first level is thrown, since it is parsed at startup. Levels
+     * after the first are parsed when they are reached, mid-game, so a
+     * malformed later level is reported, with the row and column of the
+     * problem, and replaced by an empty map in the same way.
+     * @param config The level configuration of the game.
+     * @param filePathExtension A prefix to add to the level file path. Only used in testing.
+     * @return The template of the current level.
+     * @throws LevelFormatException If the first level's file is malformed.
+     */
+    public LevelTemplate levelTemplate(GameConfig config, String filePathExtension) {
+        int width = config.declaredWidth(currentLevel);
+        int height = config.declaredHeight(currentLevel);
+        String path = filePathExtension + config.levelFiles.get(currentLevel);
+        String key = path + ":" + width + "x" + height;
+
+        LevelTemplate template = templates.get(key);
+        if (template == null) {
+            try {
+                template = LevelTemplate.parse(path, width, height);
+            } catch (IOException e) {
+                template = LevelTemplate.empty((width == 0) ? MAPWIDTH : width, (height == 0) ? MAPHEIGHT : height);
+            } catch (LevelFormatException e) {
+                if (currentLevel == 0) {
+                    throw e;
+                }
+                System.err.println("Warning: " + e.getMessage() + "; using an empty map instead");
+                template = LevelTemplate.empty((width == 0) ? MAPWIDTH : width, (height == 0) ? MAPHEIGHT : height);
+            }
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Adds an enemy to the game and to the occupancy index.
+     * @param enemy The enemy to add.
+     */
+    public void addEnemy(Character enemy) {
+        enemies.add(enemy);
+        getOccupancy().addEnemy(enemy);
+    }
+
+    /**
+     * Adds an explosion to the game and to the occupancy index.
+     * @param explosion The explosion to add.
+     */
+    public void addExplosion(Explosion explosion) {
+        explosions.add(explosion);
+        getOccupancy().addExplosion(explosion);
+    }
+
+    /**
+     * Returns the occupancy index, rebuilding it from the current enemies and
+     * explosions if it does not exist yet or the level map has changed size.
+     * @return The occupancy index for the current level map.
+     */
+    public OccupancyIndex getOccupancy() {
+        if ((occupancy == null) || !occupancy.fits(levelMap)) {
+            rebuildOccupancy();
+        }
+        return occupancy;
+    }
+
+    /**
+     * Rebuilds the occupancy index from scratch. This is needed if enemies or
+     * explosions have been added or moved without going through GameState.
+     */
+    public void rebuildOccupancy() {
+        occupancy = new OccupancyIndex(levelMap.width, levelMap.height);
+        if (enemies != null) {
+            for (Character enemy : enemies) {
+                occupancy.addEnemy(enemy);
+            }
+        }
+        if (explosions != null) {
+            for (Explosion explosion : explosions) {
+                occupancy.addExplosion(explosion);
+            }
+        }
+        if (enemyStore != null) {
+            enemyStore.occupancy = occupancy;
+        }
+    }
+
+    /**
+     * Advances the game by one tick, performing a loss if the player is killed.
+     * This is the entry point for both the Processing frontend and headless runs.
+     * @param config The level configuration of the game.
+     * @param listener The listener notified of resets and the end of the game.
+     * @return Whether the game is still running after the tick.
+     */
+    public boolean tick(GameConfig config, GameListener listener) {
+        if (gameEnded) {
+            return false;
+        }
+        long start = profiler.start();
+        GameEvents.Tick event = GameEvents.beginTick();
+        if (updateAllEntities()) {
+            doLoss(config, listener);
+        }
+        tickCount++;
+        if (recorder != null) {
+            recorder.recordChecksum(checksum());
+        }
+        GameEvents.endTick(event, tickCount, currentLevel);
+        profiler.endTick(start, tickCount);
+        return !gameEnded;
+    }
+
+    /**
+     * Applies a key event from the player between ticks, performing a loss
+     * or win if the press moves the player onto an enemy, explosion or goal.
+     * @param keyHandler The handler tracking which keys are down.
+     * @param keyCode The code of the key.
+     * @param pressed Whether the key was pressed rather than released.
+     * @param config The level configuration of the game.
+     * @param listener The listener notified of resets and the end of the game.
+     * @return Whether the event performed an action.
+     */
+    public boolean applyInput(KeyHandler keyHandler, int keyCode, boolean pressed, GameConfig config, GameListener listener) {
+        if (gameEnded) {
+            return false;
+        }
+        if (recorder != null) {
+            recorder.recordKey(tickCount, keyCode, pressed);
+        }
+        if (!pressed) {
+            return keyHandler.handleRelease(keyCode);
+        }
+        if (keyHandler.handlePress(keyCode, player, bombs, levelMap)) {
+            checkLoss(config, listener);
+            checkWin(config, listener);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Computes a checksum of the game state, covering the level and its
+     * tiles, the timer, and every entity's position and creation tick. Replays
+     * compare it after every tick, so a blast that destroys a different wall
+     * is caught on the tick it happens. The entities are covered by hashes
+     * their timers keep up to date as they change, so the checksum does not
+     * walk the entity lists and costs the same however many there are.
+     * @return The checksum.
+     */
+    public int checksum() {
+        int hash = tickCount;
+        hash = 31 * hash + currentLevel;
+        hash = 31 * hash + levelMap.tileHash();
+        hash = 31 * hash + timeLeft;
+        hash = 31 * hash + player.x;
+        hash = 31 * hash + player.y;
+        hash = 31 * hash + player.lives;
+        hash = 31 * hash + enemyTimers.hash();
+        hash = 31 * hash + bombTimers.hash();
+        hash = 31 * hash + explosionTimers.hash();
+        if (enemyStore != null) {
+            hash = 31 * hash + enemyStore.stateHash();
+        }
+        return hash;
+    }
+
+    /**
+     * Updates all entities in the game.
+     * @return Whether the player now occupies the same tile as an enemy or explosion.
+     */
+    public boolean updateAllEntities() {
+        long time = profiler.start();
+        player.tick();
+        time = profiler.lap(Profiler.PLAYER, time);
+        updateBombs();
+        time = profiler.lap(Profiler.BOMBS, time);
+        boolean killed = updateEnemies();
+        time = profiler.lap(Profiler.ENEMIES, time);
+        if (!killed) {
+            killed = updateExplosions();
+            profiler.lap(Profiler.EXPLOSIONS, time);
+        }
+        if (killed) {
+            return true;
+        }
+        timeLeft--;
+        return false;
+    }
+
+    /**
+     * Updates the enemies in the game that are due to move or change frame.
+     * An enemy that moves onto an explosion is killed.
+     * @return Whether at least one enemy has moved into a tile with the Player.
+     */
+    public boolean updateEnemies() {
+        distanceField.target(levelMap, player.x, player.y);
+        if ((enemyStore != null) && enemyStore.update(player.x, player.y)) {
+            return true;
+        }
+        OccupancyIndex occupancy = getOccupancy();
+        boolean killed = false;
+        // enemies placed on an explosion die as they would walking into it
+        for (int i = enemyTimers.sync(enemies); i < enemies.size(); i++) {
+            Character enemy = enemies.get(i);
+            if (occupancy.explosionsAt(enemy.x, enemy.y) > 0) {
+                killed |= killEnemiesAt(enemy.x, enemy.y) > 0;
+            }
+        }
+        enemyTimers.advance();
+        Character enemy;
+        while ((enemy = enemyTimers.poll()) != null) {
+            if (enemy.autoMove(levelMap)) {
+                if (checkEnemyKill(enemy)) {
+                    // the enemy is left one tick behind, as it is not ticked
+                    enemyTimers.schedule(enemy);
+                    if (killed) {
+                        enemyTimers.removeReleased(enemies);
+                    }
+                    return true;
+                }
+                if (occupancy.explosionsAt(enemy.x, enemy.y) > 0) {
+                    killed |= killEnemiesAt(enemy.x, enemy.y) > 0;
+                    continue;
+                }
+            }
+            enemy.tick();
+            enemyTimers.schedule(enemy);
+        }
+        if (killed) {
+            enemyTimers.removeReleased(enemies);
+        }
+        return false;
+    }
+
+    /**
+     * Updates the bombs in the game that are due to change frame or explode.
+     * Exploded bombs are removed by compacting the list in place.
+     * @return Whether the updating was successful.
+     */
+    public boolean updateBombs() {
+        bombTimers.sync(bombs);
+        bombTimers.advance();
+        boolean exploded = false;
+        Bomb bomb;
+        while ((bomb = bombTimers.poll()) != null) {
+            bomb.tick();
+            int firstExplosion = explosions.size();
+            if (bomb.checkExplode(levelMap, explosions)) {
+                GameEvents.detonation(bomb.x, bomb.y, explosions.size() - firstExplosion, bomb.tilesDestroyed);
+                OccupancyIndex occupancy = getOccupancy();
+                for (int j = firstExplosion; j < explosions.size(); j++) {
+                    Explosion explosion = explosions.get(j);
+                    occupancy.addExplosion(explosion);
+                    // the blast only changes tiles it covers, by destroying broken walls
+                    distanceField.tileChanged(explosion.x, explosion.y);
+                }
+                bombTimers.release(bomb);
+                exploded = true;
+            } else {
+                bombTimers.schedule(bomb);
+            }
+        }
+        if (exploded) {
+            bombTimers.removeReleased(bombs);
+        }
+        return true;
+    }
+
+    /**
+     * Updates the explosions in the game. New explosions kill whatever is on
+     * their tiles, and explosions that have disappeared are removed by
+     * compacting the list in place.
+     * @return Whether a new explosion has killed the Player.
+     */
+    public boolean updateExplosions() {
+        for (int i = explosionTimers.sync(explosions); i < explosions.size(); i++) {
+            if (checkExplosionKill(explosions.get(i))) {
+                return true;
+            }
+        }
+        explosionTimers.advance();
+        boolean disappeared = false;
+        Explosion explosion;
+        while ((explosion = explosionTimers.poll()) != null) {
+            explosion.tick();
+            if (explosion.checkDisappear()) {
+                getOccupancy().removeExplosion(explosion);
+                explosionTimers.release(explosion);
+                disappeared = true;
+            } else {
+                explosionTimers.schedule(explosion);
+            }
+        }
+        if (disappeared) {
+            explosionTimers.removeReleased(explosions);
+        }
+        return false;
+    }
+
+    /**
+     * Handles the collision of an explosion with Characters in order to kill them.
+     * @param explosion The explosion object to be checked.
+     * @return Whether the explosion has killed the Player.
+     */
+    public boolean checkExplosionKill(Explosion explosion) {
+        if ((player.x == explosion.x) && (player.y == explosion.y)) {
+            return true;
+        }
+        if (killEnemiesAt(explosion.x, explosion.y) > 0) {
+            enemyTimers.removeReleased(enemies);
+        }
+        return false;
+    }
+
+    /**
+     * Kills every enemy on a tile, releasing the enemy objects from their
+     * timers. The caller removes them from the enemy list with removeReleased.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return The number of enemies killed.
+     */
+    private int killEnemiesAt(int x, int y) {
+        OccupancyIndex occupancy = getOccupancy();
+        for (Character enemy = occupancy.enemyAt(x, y); enemy != null; enemy = enemy.nextOnTile) {
+            enemyTimers.release(enemy);
+        }
+        int killed = occupancy.killEnemiesAt(x, y);
+        if (enemyStore != null) {
+            killed += enemyStore.killAt(x, y);
+        }
+        if (killed > 0) {
+            GameEvents.enemyKill(x, y, killed);
+        }
+        return killed;
+    }
+
+    /**
+     * Check whether a given enemy has killed the Player.
+     * @param enemy The enemy to check.
+     * @return Whether the enemy occupies the same tile as the Player.
+     */
+    public boolean checkEnemyKill(Character enemy) {
+        return ((player.x == enemy.x) && (player.y == enemy.y));
+    }
+
+    /**
+     * Check whether the player has won a level, and if so, performs the relevant tasks.
+     * @param config The level configuration of the game.
+     * @param listener The listener notified of resets and the end of the game.
+     * @return Whether the final level has been won by the Player.
+     */
+    public boolean checkWin(GameConfig config, GameListener listener) {
+        if ((player.x == goalCoords.x) && (player.y == goalCoords.y)) {
+            currentLevel++;
+            if (!config.hasLevel(currentLevel)) {
+                gameEnded = true;
+                listener.gameWon();
+                return true;
+            } else {
+                resetLevel(config, listener);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resets the level by clearing all entities, then re-initialising the map.
+     * @param config The level configuration of the game.
+     * @param listener The listener notified of resets and the end of the game.
+     */
+    public void resetLevel(GameConfig config, GameListener listener) {
+
+        enemies.clear();
+        bombs.clear();
+        explosions.clear();
+        enemyTimers.clear();
+        bombTimers.clear();
+        explosionTimers.clear();
+
+        if (levelMap != null) {
+            levelMap.close();
+        }
+        levelMap = initialiseLevelMap(config, "");
+        GameEvents.levelReset(currentLevel, player.lives);
+        listener.levelReset(this);
+
+    }
+
+    /**
+     * Checks whether the player has lost, and if so, performs the relevant tasks.
+     * @param config The level configuration of the game.
+     * @param listener The listener notified of resets and the end of the game.
+     * @return Whether the level has been lost.
+     */
+    public boolean checkLoss(GameConfig config, GameListener listener) {
+        OccupancyIndex occupancy = getOccupancy();
+        if ((occupancy.explosionsAt(player.x, player.y) > 0) || (occupancy.enemyAt(player.x, player.y) != null)
+            || ((enemyStore != null) && enemyStore.anyAt(player.x, player.y))) {
+            doLoss(config, listener);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Performs the loss, either by resetting the level or displaying a game over.
+     * @param config The level configuration of the game.
+     * @param listener The listener notified of resets and the end of the game.
+     * @return Whether the player has run out of lives, resulting in a game over.
+     */
+    public boolean doLoss(GameConfig config, GameListener listener) {
+        player.lives--;
+        if (player.lives <= 0) {
+            gameEnded = true;
+            listener.gameLost();
+            return true;
+        } else {
+            resetLevel(config, listener);
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,230 @@
+package demolition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A recording of a game session that is enough to re-execute it exactly: the
+ * level configuration, the player's starting lives, the seed of the game's
+ * random number generator, every key event with the tick at which it was
+ * applied, and a checksum of the game state after every tick. Key events are
+ * stored as the tick and the key code, negated for releases.
+ * The log is written in a compact binary format.
+ * <p>
+ * The log is held in memory until it is written, and grows by a 4-byte
+ * checksum every tick plus 8 bytes for each key event: about 14 KB for every
+ * minute of play at 60 ticks a second, or under 1 MB an hour. The
+ * frontend records every session, so very long sessions keep a log of that
+ * size in memory.
+ */
+public class InputLog {
+
+    /**
+     * The first bytes of every log file, "DMRP".
+     */
+    public static final int MAGIC = 0x444D5250;
+    public static final int VERSION = 1;
+
+    /**
+     * The seed of the game's random number generator.
+     */
+    public final long seed;
+
+    /**
+     * The number of lives the player started with.
+     */
+    public final int lives;
+
+    /**
+     * The level configuration the session was played with.
+     */
+    public final GameConfig config;
+
+    /**
+     * The ticks at which key events were applied, and their codes.
+     */
+    private int[] eventTicks, eventKeys;
+    private int eventCount;
+
+    /**
+     * The checksum of the game state after each tick.
+     */
+    private int[] checksums;
+    private int tickCount;
+
+    /**
+     * Constructs an empty log for a new session.
+     * @param seed The seed of the game's random number generator.
+     * @param lives The number of lives the player starts with.
+     * @param config The level configuration of the game.
+     */
+    public InputLog(long seed, int lives, GameConfig config) {
+        this.seed = seed;
+        this.lives = lives;
+        this.config = config;
+        this.eventTicks = new int[64];
+        this.eventKeys = new int[64];
+        this.checksums = new int[1024];
+    }
+
+    /**
+     * Records a key event.
+     * @param tick The number of ticks run before the event was applied.
+     * @param keyCode The code of the key.
+     * @param pressed Whether the key was pressed rather than released.
+     */
+    public void recordKey(int tick, int keyCode, boolean pressed) {
+        if (eventCount == eventTicks.length) {
+            eventTicks = Arrays.copyOf(eventTicks, 2 * eventCount);
+            eventKeys = Arrays.copyOf(eventKeys, 2 * eventCount);
+        }
+        eventTicks[eventCount] = tick;
+        eventKeys[eventCount] = pressed ? keyCode : -keyCode;
+        eventCount++;
+    }
+
+    /**
+     * Records the checksum of the game state after the next tick.
+     * @param checksum The checksum of the game state.
+     */
+    public void recordChecksum(int checksum) {
+        if (tickCount == checksums.length) {
+            checksums = Arrays.copyOf(checksums, 2 * tickCount);
+        }
+        checksums[tickCount++] = checksum;
+    }
+
+    /**
+     * @return The number of key events recorded.
+     */
+    public int events() {
+        return eventCount;
+    }
+
+    /**
+     * @param i The position of a key event.
+     * @return The number of ticks run before the event was applied.
+     */
+    public int eventTick(int i) {
+        return eventTicks[i];
+    }
+
+    /**
+     * @param i The position of a key event.
+     * @return The code of the event's key.
+     */
+    public int eventKey(int i) {
+        return Math.abs(eventKeys[i]);
+    }
+
+    /**
+     * @param i The position of a key event.
+     * @return Whether the key was pressed rather than released.
+     */
+    public boolean eventPressed(int i) {
+        return eventKeys[i] > 0;
+    }
+
+    /**
+     * @return The number of ticks recorded.
+     */
+    public int ticks() {
+        return tickCount;
+    }
+
+    /**
+     * @param tick A recorded tick, counting from 0.
+     * @return The checksum of the game state after the tick.
+     */
+    public int checksum(int tick) {
+        return checksums[tick];
+    }
+
+    /**
+     * Writes the log in its binary format.
+     * @param out The stream to write to, which is not closed.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(seed);
+        data.writeInt(lives);
+
+        data.writeInt(config.levelFiles.size());
+        for (int i = 0; i < config.levelFiles.size(); i++) {
+            data.writeUTF(config.levelFiles.get(i));
+            data.writeInt(config.levelTimes.get(i));
+            data.writeInt(config.declaredWidth(i));
+            data.writeInt(config.declaredHeight(i));
+        }
+
+        data.writeInt(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            data.writeInt(eventTicks[i]);
+            data.writeShort(eventKeys[i]);
+        }
+
+        data.writeInt(tickCount);
+        for (int i = 0; i < tickCount; i++) {
+            data.writeInt(checksums[i]);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a log written by write.
+     * @param in The stream to read from, which is not closed.
+     * @return The log.
+     * @throws IOException If the stream cannot be read or does not hold a log.
+     */
+    public static InputLog read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        long seed = data.readLong();
+        int lives = data.readInt();
+
+        int levels = data.readInt();
+        GameConfig config = new GameConfig(new ArrayList<String>(), new ArrayList<Integer>());
+        config.levelWidths = new ArrayList<Integer>();
+        config.levelHeights = new ArrayList<Integer>();
+        for (int i = 0; i < levels; i++) {
+            config.levelFiles.add(data.readUTF());
+            config.levelTimes.add(data.readInt());
+            config.levelWidths.add(declared(data.readInt()));
+            config.levelHeights.add(declared(data.readInt()));
+        }
+
+        InputLog log = new InputLog(seed, lives, config);
+        int events = data.readInt();
+        for (int i = 0; i < events; i++) {
+            int tick = data.readInt();
+            int key = data.readShort();
+            log.recordKey(tick, Math.abs(key), key > 0);
+        }
+        int ticks = data.readInt();
+        for (int i = 0; i < ticks; i++) {
+            log.recordChecksum(data.readInt());
+        }
+        return log;
+    }
+
+    private static Integer declared(int size) {
+        return (size == 0) ? null : size;
+    }
+
+}
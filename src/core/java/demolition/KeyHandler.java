@@ -1,17 +1,6 @@
 package demolition;
 
-import processing.core.*;
-import processing.data.*;
-import processing.event.*;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Scanner;
-import java.util.Stack;
-import java.util.Map;
-import java.util.HashMap;
-import java.io.File;
-import java.io.FileNotFoundException;
 
 /**
  * A helper class for handling keyboard input by the player.
@@ -39,11 +28,10 @@ public class KeyHandler {
      * @param keyCode The JS code of the key being pressed.
      * @param player The Player object.
      * @param bombs The List of current bombs.
-     * @param graphicsHandler The GraphicsHandler object used in the app.
      * @param levelMap The current level map.
      * @return Whether the press successfully performed an action.
      */
-    public boolean handlePress(int keyCode, Player player, List<Bomb> bombs, GraphicsHandler graphicsHandler, Tile[][] levelMap) {
+    public boolean handlePress(int keyCode, Player player, List<Bomb> bombs, TileGrid levelMap) {
         // space - 32
         // left - 37
         // up - 38
@@ -92,7 +80,7 @@ public class KeyHandler {
 
         } else if (keyCode == 32 && !spaceDown) {
             spaceDown = true;
-            player.dropBomb(bombs, graphicsHandler);
+            player.dropBomb(bombs);
             return true;
         }
 
@@ -0,0 +1,102 @@
+package demolition;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of durations in nanoseconds, for reporting percentiles of
+ * tick and frame times. Each power of two is split into SUBBUCKETS linear
+ * buckets, so every value is recorded to within about 6% using a fixed array
+ * of counts; recording is a few arithmetic operations and never allocates.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of linear buckets in each power of two, as a power of two.
+     */
+    public static final int SUBBITS = 4;
+    public static final int SUBBUCKETS = 1 << SUBBITS;
+
+    private final long[] counts = new long[(64 - SUBBITS) * SUBBUCKETS];
+
+    /**
+     * The number of values recorded.
+     */
+    public long count;
+
+    /**
+     * The largest value recorded.
+     */
+    public long max;
+
+    /**
+     * Records a duration. Negative durations are recorded as zero.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[index(value)]++;
+        count++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations.
+     * @param percentile The percentile, from 0 to 100.
+     * @return The largest value in the bucket holding the percentile, or 0 if
+     * nothing has been recorded.
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, lowerBound(i + 1) - 1);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Records every value recorded by another histogram.
+     * @param other The histogram to add.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Discards every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+    }
+
+    private static int index(long value) {
+        if (value < SUBBUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUBBITS;
+        return (shift + 1) * SUBBUCKETS + (int) ((value >>> shift) & (SUBBUCKETS - 1));
+    }
+
+    private static long lowerBound(int index) {
+        if (index < SUBBUCKETS) {
+            return index;
+        }
+        int shift = index / SUBBUCKETS - 1;
+        return (long) (SUBBUCKETS + index % SUBBUCKETS) << shift;
+    }
+
+}
@@ -0,0 +1,216 @@
+package demolition;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The campaign of levels listed in a config file, read lazily. Opening the
+ * catalog only reads the player's lives; each level's entry is read from the
+ * levels array the first time that level, or a later one, is asked for. As
+ * the game moves through the levels in order, startup takes the same time
+ * however long the campaign is. The entries read so far are kept, and are
+ * exposed as lists which read further entries as they are indexed.
+ */
+public class LevelCatalog implements Closeable {
+
+    /**
+     * The number of lives the player starts with.
+     */
+    public final int lives;
+
+    /**
+     * Views of each level's file name, time, and declared width and height,
+     * which may be null. Indexing a view reads entries up to that level, and
+     * taking its size reads every entry.
+     */
+    public final List<String> files;
+    public final List<Integer> times, widths, heights;
+
+    private final List<String> fileEntries = new ArrayList<String>();
+    private final List<Integer> timeEntries = new ArrayList<Integer>();
+    private final List<Integer> widthEntries = new ArrayList<Integer>();
+    private final List<Integer> heightEntries = new ArrayList<Integer>();
+
+    /**
+     * The name of the config file, used in error messages.
+     */
+    private final String source;
+
+    /**
+     * The reader positioned within the levels array, or null once every
+     * entry has been read.
+     */
+    private ConfigReader levels;
+
+    /**
+     * A view of the entries read so far, which reads further entries as
+     * they are indexed.
+     */
+    private final class Column<T> extends AbstractList<T> {
+
+        private final List<T> entries;
+
+        Column(List<T> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public T get(int level) {
+            if (!resolve(level)) {
+                throw new IndexOutOfBoundsException(String.format("There is no level %d", level));
+            }
+            return entries.get(level);
+        }
+
+        @Override
+        public int size() {
+            while (readEntry()) {
+            }
+            return entries.size();
+        }
+
+    }
+
+    private LevelCatalog(int lives, ConfigReader levels, String source) {
+        this.lives = lives;
+        this.levels = levels;
+        this.source = source;
+        this.files = new Column<String>(fileEntries);
+        this.times = new Column<Integer>(timeEntries);
+        this.widths = new Column<Integer>(widthEntries);
+        this.heights = new Column<Integer>(heightEntries);
+    }
+
+    /**
+     * Opens the catalog of a config file, reading only the player's lives.
+     * If the lives come after the levels in the file, the levels are skipped
+     * over without being built.
+     * @param path The path of the config file.
+     * @return The catalog, with none of its levels read yet.
+     * @throws FileNotFoundException If the config file does not exist.
+     * @throws IOException If the config file cannot be read.
+     * @throws IllegalArgumentException If the config file is malformed or has no lives or levels.
+     */
+    public static LevelCatalog open(String path) throws IOException {
+        Integer lives = null;
+        try (ConfigReader reader = ConfigReader.open(path)) {
+            reader.beginObject();
+            while ((lives == null) && reader.hasNext()) {
+                if (reader.nextName().equals("lives")) {
+                    lives = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        if (lives == null) {
+            throw new IllegalArgumentException(String.format("%s has no lives", path));
+        }
+
+        ConfigReader levels = ConfigReader.open(path);
+        try {
+            levels.beginObject();
+            while (true) {
+                if (!levels.hasNext()) {
+                    throw new IllegalArgumentException(String.format("%s has no levels", path));
+                } else if (levels.nextName().equals("levels")) {
+                    levels.beginArray();
+                    return new LevelCatalog(lives, levels, path);
+                }
+                levels.skipValue();
+            }
+        } catch (IOException | RuntimeException e) {
+            levels.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads entries up to the given level, if they have not been read already.
+     * @param level The index of the level.
+     * @return Whether the level exists.
+     * @throws UncheckedIOException If the config file cannot be read.
+     * @throws IllegalArgumentException If an entry is malformed.
+     */
+    public boolean resolve(int level) {
+        while (fileEntries.size() <= level) {
+            if (!readEntry()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of level entries read so far.
+     */
+    public int resolved() {
+        return fileEntries.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (levels != null) {
+            levels.close();
+            levels = null;
+        }
+    }
+
+    /**
+     * Reads the next level entry.
+     * @return Whether there was another entry.
+     */
+    private boolean readEntry() {
+        if (levels == null) {
+            return false;
+        }
+        try {
+            if (!levels.hasNext()) {
+                levels.endArray();
+                close();
+                return false;
+            }
+            String path = null;
+            Integer time = null;
+            Integer width = null;
+            Integer height = null;
+            levels.beginObject();
+            while (levels.hasNext()) {
+                switch (levels.nextName()) {
+                    case "path":
+                        path = levels.nextString();
+                        break;
+                    case "time":
+                        time = levels.nextInt();
+                        break;
+                    case "width":
+                        width = levels.nextInt();
+                        break;
+                    case "height":
+                        height = levels.nextInt();
+                        break;
+                    default:
+                        levels.skipValue();
+                }
+            }
+            levels.endObject();
+            if ((path == null) || (time == null)) {
+                throw new IllegalArgumentException(String.format("%s: level %d has no %s",
+                    source, fileEntries.size() + 1, (path == null) ? "path" : "time"));
+            }
+            fileEntries.add(path);
+            timeEntries.add(time);
+            widthEntries.add(width);
+            heightEntries.add(height);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package demolition;
+
+/**
+ * Thrown when a level file cannot be parsed. The position of the problem is
+ * given as it would be shown in a text editor, counting rows and columns from 1.
+ */
+public class LevelFormatException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The row and column of the problem in the level file.
+     */
+    public final int row, column;
+
+    /**
+     * Constructs a new LevelFormatException.
+     * @param path The path of the level file.
+     * @param row The row of the problem, counting from 1.
+     * @param column The column of the problem, counting from 1.
+     * @param message A description of the problem.
+     */
+    public LevelFormatException(String path, int row, int column, String message) {
+        super(String.format("Level file %s, row %d, column %d: %s", path, row, column, message));
+        this.row = row;
+        this.column = column;
+    }
+
+}
@@ -0,0 +1,329 @@
+package demolition;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A level as parsed from its level file: the tiles, the player's spawn point,
+ * the goal and the enemies' spawn points. Templates are immutable, so a level
+ * only needs to be read and parsed once; every time it is started or reset,
+ * a fresh map is bulk-copied from its template.
+ */
+public class LevelTemplate {
+
+    /**
+     * The number of bytes of a level file scanned at a time.
+     */
+    private static final int BLOCKSIZE = 1 << 16;
+
+    /**
+     * The number of tiles above which a level is paged from disk by a
+     * ChunkedTileGrid rather than held in memory.
+     */
+    public static final long CHUNKEDTILES = 1L << 26;
+
+    /**
+     * The tile each character of a level file stands for, or null for
+     * characters that are not allowed. Entities stand on empty tiles.
+     */
+    private static final Tile[] DECODE = new Tile[128];
+    static {
+        DECODE[' '] = Tile.EMPTY;
+        DECODE['P'] = Tile.EMPTY;
+        DECODE['R'] = Tile.EMPTY;
+        DECODE['Y'] = Tile.EMPTY;
+        DECODE['C'] = Tile.EMPTY;
+        DECODE['W'] = Tile.SOLID;
+        DECODE['B'] = Tile.BROKEN;
+        DECODE['G'] = Tile.GOAL;
+    }
+
+    /**
+     * The ordinal of the tile each allowed character stands for, and whether
+     * the character also places an entity or the goal.
+     */
+    private static final byte[] ORDINALS = new byte[128];
+    private static final boolean[] ENTITIES = new boolean[128];
+    static {
+        for (int i = 0; i < DECODE.length; i++) {
+            if (DECODE[i] != null) {
+                ORDINALS[i] = (byte) DECODE[i].ordinal();
+            }
+        }
+        ENTITIES['G'] = true;
+        ENTITIES['P'] = true;
+        ENTITIES['R'] = true;
+        ENTITIES['Y'] = true;
+        ENTITIES['C'] = true;
+    }
+
+    /**
+     * The spawn point of the player, or -1 if the level file has none.
+     */
+    public final int playerX, playerY;
+
+    /**
+     * The coordinates of the goal, or null if the level file has none.
+     */
+    public final Coordinates goalCoords;
+
+    /**
+     * The tiles of the level, which are never modified.
+     */
+    private final TileGrid tiles;
+
+    /**
+     * The type of each enemy, either EnemyStore.RED, YELLOW or CHASER, and its spawn point.
+     */
+    private final byte[] enemyTypes;
+    private final int[] enemyXs, enemyYs;
+
+    private LevelTemplate(TileGrid tiles, int playerX, int playerY, Coordinates goalCoords,
+                          byte[] enemyTypes, int[] enemyXs, int[] enemyYs) {
+        this.tiles = tiles;
+        this.playerX = playerX;
+        this.playerY = playerY;
+        this.goalCoords = goalCoords;
+        this.enemyTypes = enemyTypes;
+        this.enemyXs = enemyXs;
+        this.enemyYs = enemyYs;
+    }
+
+    /**
+     * Reads and parses a level file. The file is memory-mapped and decoded
+     * straight from its bytes into the grid in two passes: the first finds the
+     * dimensions and checks every character, and the second fills in the
+     * tiles. The mapped bytes are copied out a block at a time into a reused
+     * array, which is much faster to scan than reading them one at a time.
+     * Lines may end with LF, CRLF or CR.
+     * The map's dimensions are those declared for the level in the config, or
+     * otherwise the number of lines and the length of the longest line in the
+     * level file. Short lines are padded with empty tiles. Levels with more
+     * than CHUNKEDTILES tiles are paged from disk.
+     * @param path The path of the level file.
+     * @param width The declared width of the level, or 0 if it is not declared.
+     * @param height The declared height of the level, or 0 if it is not declared.
+     * @return The parsed level.
+     * @throws FileNotFoundException If the level file does not exist or is empty.
+     * @throws IOException If the level file cannot be read.
+     * @throws LevelFormatException If the level file has an unknown character
+     * or is larger than its declared size.
+     */
+    public static LevelTemplate parse(String path, int width, int height) throws IOException {
+        return parse(path, width, height, false);
+    }
+
+    /**
+     * Reads and parses a level file, as described above.
+     * @param path The path of the level file.
+     * @param width The declared width of the level, or 0 if it is not declared.
+     * @param height The declared height of the level, or 0 if it is not declared.
+     * @param chunked Whether to page the level from disk whatever its size.
+     * @return The parsed level.
+     * @throws FileNotFoundException If the level file does not exist or is empty.
+     * @throws IOException If the level file cannot be read.
+     * @throws LevelFormatException If the level file has an unknown character
+     * or is larger than its declared size.
+     */
+    public static LevelTemplate parse(String path, int width, int height, boolean chunked) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new LevelFormatException(path, 1, 1, "the file is too large to load");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(path);
+        }
+        int limit = buffer.limit();
+        byte[] block = new byte[Math.min(BLOCKSIZE, limit)];
+
+        // first pass: measure the rows and check every character
+        int rows = 0;
+        int longestLine = 0;
+        int column = 0;
+        boolean afterCR = false;
+        for (int start = 0; start < limit; start += block.length) {
+            int length = Math.min(block.length, limit - start);
+            buffer.get(start, block, 0, length);
+            for (int i = 0; i < length; i++) {
+                byte b = block[i];
+                if ((b == '\n') || (b == '\r')) {
+                    if (!afterCR || (b == '\r')) {
+                        longestLine = Math.max(longestLine, column);
+                        rows++;
+                        column = 0;
+                    }
+                    afterCR = (b == '\r');
+                    continue;
+                }
+                afterCR = false;
+                if ((b < 0) || (DECODE[b] == null)) {
+                    throw new LevelFormatException(path, rows + 1, column + 1,
+                        String.format("unexpected character 0x%02x", b & 0xff));
+                }
+                column++;
+                if ((width != 0) && (column > width)) {
+                    throw new LevelFormatException(path, rows + 1, column,
+                        String.format("the row is wider than the declared width of %d", width));
+                }
+            }
+        }
+        if (column > 0) {
+            // the last line has no line break
+            longestLine = Math.max(longestLine, column);
+            rows++;
+        }
+
+        if (width == 0) {
+            width = longestLine;
+        }
+        if (height == 0) {
+            height = rows;
+        }
+        if (rows > height) {
+            throw new LevelFormatException(path, height + 1, 1,
+                String.format("the file has more rows than the declared height of %d", height));
+        }
+        if ((width == 0) || (height == 0)) {
+            throw new FileNotFoundException("Level file is empty");
+        }
+
+        // second pass: decode the tiles
+        TileGrid tiles;
+        if (chunked || ((long) width * height > CHUNKEDTILES)) {
+            tiles = new ChunkedTileGrid(width, height);
+        } else {
+            tiles = new TileGrid(width, height);
+        }
+        int playerX = -1;
+        int playerY = -1;
+        Coordinates goalCoords = null;
+        byte[] enemyTypes = new byte[16];
+        int[] enemyXs = new int[16];
+        int[] enemyYs = new int[16];
+        int enemyCount = 0;
+
+        // each block is decoded in place into tile ordinals, and every run of
+        // a row within it is copied into the grid at once
+        int x = 0;
+        int y = 0;
+        afterCR = false;
+        for (int start = 0; start < limit; start += block.length) {
+            int length = Math.min(block.length, limit - start);
+            buffer.get(start, block, 0, length);
+            int runStart = 0;
+            for (int i = 0; i < length; i++) {
+                byte b = block[i];
+                if ((b == '\n') || (b == '\r')) {
+                    tiles.setOrdinals(tiles.index(x, y), block, runStart, i - runStart);
+                    if (!afterCR || (b == '\r')) {
+                        x = 0;
+                        y++;
+                    }
+                    afterCR = (b == '\r');
+                    runStart = i + 1;
+                    continue;
+                }
+                afterCR = false;
+
+                if (ENTITIES[b]) {
+                    int tileX = x + i - runStart;
+                    if (b == 'G') {
+                        goalCoords = new Coordinates(tileX, y);
+                    } else if (b == 'P') {
+                        playerX = tileX;
+                        playerY = y;
+                    } else {
+                        if (enemyCount == enemyTypes.length) {
+                            enemyTypes = Arrays.copyOf(enemyTypes, 2 * enemyCount);
+                            enemyXs = Arrays.copyOf(enemyXs, 2 * enemyCount);
+                            enemyYs = Arrays.copyOf(enemyYs, 2 * enemyCount);
+                        }
+                        enemyTypes[enemyCount] = (b == 'R') ? EnemyStore.RED : (b == 'C') ? EnemyStore.CHASER : EnemyStore.YELLOW;
+                        enemyXs[enemyCount] = tileX;
+                        enemyYs[enemyCount] = y;
+                        enemyCount++;
+                    }
+                }
+                block[i] = ORDINALS[b];
+            }
+            tiles.setOrdinals(tiles.index(x, y), block, runStart, length - runStart);
+            x += length - runStart;
+        }
+
+        return new LevelTemplate(tiles, playerX, playerY, goalCoords, Arrays.copyOf(enemyTypes, enemyCount),
+            Arrays.copyOf(enemyXs, enemyCount), Arrays.copyOf(enemyYs, enemyCount));
+    }
+
+    /**
+     * Creates an empty level, with the player in the top-left corner and the
+     * goal in the bottom-right corner.
+     * @param width The width of the level in tiles.
+     * @param height The height of the level in tiles.
+     * @return The empty level.
+     */
+    public static LevelTemplate empty(int width, int height) {
+        return new LevelTemplate(new TileGrid(width, height), 0, 0, new Coordinates(width-1, height-1),
+            new byte[0], new int[0], new int[0]);
+    }
+
+    /**
+     * @return A new copy of the level's tiles, which may be freely modified.
+     */
+    public TileGrid newMap() {
+        return tiles.copy();
+    }
+
+    /**
+     * @return The width of the level in tiles.
+     */
+    public int width() {
+        return tiles.width;
+    }
+
+    /**
+     * @return The height of the level in tiles.
+     */
+    public int height() {
+        return tiles.height;
+    }
+
+    /**
+     * @return The number of enemies in the level.
+     */
+    public int enemies() {
+        return enemyTypes.length;
+    }
+
+    /**
+     * @param i The position of an enemy, in the order they appear in the level file.
+     * @return The enemy's type, either EnemyStore.RED, YELLOW or CHASER.
+     */
+    public byte enemyType(int i) {
+        return enemyTypes[i];
+    }
+
+    /**
+     * @param i The position of an enemy, in the order they appear in the level file.
+     * @return The x-coord of the enemy's spawn point.
+     */
+    public int enemyX(int i) {
+        return enemyXs[i];
+    }
+
+    /**
+     * @param i The position of an enemy, in the order they appear in the level file.
+     * @return The y-coord of the enemy's spawn point.
+     */
+    public int enemyY(int i) {
+        return enemyYs[i];
+    }
+
+}
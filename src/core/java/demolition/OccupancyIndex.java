@@ -0,0 +1,203 @@
+package demolition;
+
+/**
+ * A per-tile index of the enemies and explosions in the level, so that kill
+ * and loss checks only need to look at a single tile. Enemies on the same
+ * tile are kept in an intrusive doubly linked list through their
+ * nextOnTile and previousOnTile fields, and explosions are counted per tile.
+ * Enemies keep the index up to date as they move; positions outside the map
+ * are not indexed. The index is split into TilePages, so a page's arrays are
+ * only created once an enemy or explosion reaches it, and the index of a map
+ * paged from disk costs nothing for the parts no entity has been to.
+ */
+public class OccupancyIndex {
+
+    /**
+     * The dimensions of the indexed map.
+     */
+    public final int width, height;
+
+    /**
+     * The division of the map into pages.
+     */
+    private final TilePages tilePages;
+
+    /**
+     * The first enemy on each tile, or null if there is none, by page. A page
+     * is null until an enemy reaches it.
+     */
+    private final Character[][] enemyHeads;
+
+    /**
+     * The number of explosions on each tile, by page. A page is null until an
+     * explosion reaches it.
+     */
+    private final int[][] explosionCounts;
+
+    /**
+     * Constructs an empty index for a map of the given size.
+     * @param width The width of the map in tiles.
+     * @param height The height of the map in tiles.
+     */
+    public OccupancyIndex(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tilePages = new TilePages(width, height);
+        this.enemyHeads = new Character[tilePages.pages][];
+        this.explosionCounts = new int[tilePages.pages][];
+    }
+
+    /**
+     * Checks whether the index has the same dimensions as a level map.
+     * @param levelMap The level map to compare against.
+     * @return Whether the index can be used with the level map.
+     */
+    public boolean fits(TileGrid levelMap) {
+        return levelMap.height == height && levelMap.width == width;
+    }
+
+    /**
+     * Checks whether a tile lies within the indexed map.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return Whether the tile is indexed.
+     */
+    public boolean contains(int x, int y) {
+        return tilePages.contains(x, y);
+    }
+
+    /**
+     * Adds an enemy to the index at its current position. The enemy will
+     * update the index itself whenever it moves.
+     * @param enemy The enemy to add.
+     */
+    public void addEnemy(Character enemy) {
+        enemy.occupancy = this;
+        link(enemy, enemy.x, enemy.y);
+    }
+
+    /**
+     * Moves an enemy to its new position in the index.
+     * @param enemy The enemy that has moved.
+     * @param oldX The x-coord the enemy moved from.
+     * @param oldY The y-coord the enemy moved from.
+     */
+    public void moveEnemy(Character enemy, int oldX, int oldY) {
+        unlink(enemy, oldX, oldY);
+        link(enemy, enemy.x, enemy.y);
+    }
+
+    /**
+     * Returns the first enemy on a tile.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return An enemy on the tile, or null if there is none.
+     */
+    public Character enemyAt(int x, int y) {
+        if (!contains(x, y)) {
+            return null;
+        }
+        Character[] page = enemyHeads[tilePages.page(x, y)];
+        return (page != null) ? page[TilePages.offset(x, y)] : null;
+    }
+
+    /**
+     * Kills every enemy on a tile by marking it as killed and removing it from
+     * the index. Killed enemies must be removed from the enemy list externally.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return The number of enemies killed.
+     */
+    public int killEnemiesAt(int x, int y) {
+        int killed = 0;
+        Character enemy = enemyAt(x, y);
+        while (enemy != null) {
+            Character next = enemy.nextOnTile;
+            enemy.killed = true;
+            enemy.occupancy = null;
+            enemy.nextOnTile = null;
+            enemy.previousOnTile = null;
+            enemy = next;
+            killed++;
+        }
+        if (killed > 0) {
+            enemyHeads[tilePages.page(x, y)][TilePages.offset(x, y)] = null;
+        }
+        return killed;
+    }
+
+    /**
+     * Records a new explosion on its tile.
+     * @param explosion The explosion that has been created.
+     */
+    public void addExplosion(Explosion explosion) {
+        if (contains(explosion.x, explosion.y)) {
+            int page = tilePages.page(explosion.x, explosion.y);
+            if (explosionCounts[page] == null) {
+                explosionCounts[page] = new int[TilePages.PAGETILES];
+            }
+            explosionCounts[page][TilePages.offset(explosion.x, explosion.y)]++;
+        }
+    }
+
+    /**
+     * Removes an expired explosion from its tile.
+     * @param explosion The explosion that has disappeared.
+     */
+    public void removeExplosion(Explosion explosion) {
+        if (contains(explosion.x, explosion.y)) {
+            explosionCounts[tilePages.page(explosion.x, explosion.y)][TilePages.offset(explosion.x, explosion.y)]--;
+        }
+    }
+
+    /**
+     * Returns the number of explosions on a tile.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return The number of explosions on the tile.
+     */
+    public int explosionsAt(int x, int y) {
+        if (!contains(x, y)) {
+            return 0;
+        }
+        int[] page = explosionCounts[tilePages.page(x, y)];
+        return (page != null) ? page[TilePages.offset(x, y)] : 0;
+    }
+
+    private void link(Character enemy, int x, int y) {
+        if (!contains(x, y)) {
+            return;
+        }
+        int pageNumber = tilePages.page(x, y);
+        Character[] page = enemyHeads[pageNumber];
+        if (page == null) {
+            page = new Character[TilePages.PAGETILES];
+            enemyHeads[pageNumber] = page;
+        }
+        int offset = TilePages.offset(x, y);
+        Character head = page[offset];
+        enemy.previousOnTile = null;
+        enemy.nextOnTile = head;
+        if (head != null) {
+            head.previousOnTile = enemy;
+        }
+        page[offset] = enemy;
+    }
+
+    private void unlink(Character enemy, int x, int y) {
+        if (!contains(x, y)) {
+            return;
+        }
+        if (enemy.previousOnTile != null) {
+            enemy.previousOnTile.nextOnTile = enemy.nextOnTile;
+        } else {
+            enemyHeads[tilePages.page(x, y)][TilePages.offset(x, y)] = enemy.nextOnTile;
+        }
+        if (enemy.nextOnTile != null) {
+            enemy.nextOnTile.previousOnTile = enemy.previousOnTile;
+        }
+        enemy.nextOnTile = null;
+        enemy.previousOnTile = null;
+    }
+
+}
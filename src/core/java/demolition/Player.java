@@ -0,0 +1,35 @@
+package demolition;
+
+import java.util.List;
+
+/**
+ * Stores all information and handles all functions relevant to a particular
+ * instance of the Player.
+ */
+public class Player extends Character {
+
+    /**
+     * The Player's current remaining lives.
+     */
+    public int lives;
+
+    /*
+     * Constructs the Player object.
+     */
+    public Player() {
+        super();
+    }
+
+    public boolean autoMove(TileGrid levelMap) {
+        return false;
+    }
+
+    /**
+     * Makes the player drop a new bomb.
+     * @param bombs The List of bombs to which the new bomb is added.
+     */
+    public void dropBomb(List<Bomb> bombs) {
+        bombs.add(new Bomb(this.x, this.y));
+    }
+
+}
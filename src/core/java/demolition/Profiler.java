@@ -0,0 +1,176 @@
+package demolition;
+
+/**
+ * Times each phase of the tick and of drawing a frame into a
+ * LatencyHistogram, for the frontend's performance overlay. Probes take a
+ * start time and then lap each phase in turn, so consecutive phases share
+ * one clock read. A disabled profiler never reads the clock, which keeps the
+ * probes almost free when nobody is looking. Ticks that take longer than the
+ * frame budget are counted, and reported at most once a second.
+ * <p>
+ * The histograms cover the current window, which the overlay starts afresh
+ * every second; each window is added to the totals when the next begins, so
+ * the report covers everything the profiler has recorded.
+ */
+public class Profiler {
+
+    /**
+     * The phases of a tick, as timed by GameState.
+     */
+    public static final int PLAYER = 0;
+    public static final int BOMBS = 1;
+    public static final int ENEMIES = 2;
+    public static final int EXPLOSIONS = 3;
+    public static final int TICK = 4;
+
+    /**
+     * The phases of drawing a frame, as timed by GraphicsHandler.
+     */
+    public static final int CAMERA = 5;
+    public static final int REDRAW = 6;
+    public static final int DRAWPLAYER = 7;
+    public static final int DRAWENEMIES = 8;
+    public static final int DRAWBOMBS = 9;
+    public static final int DRAWEXPLOSIONS = 10;
+    public static final int DRAWTIME = 11;
+    public static final int FRAME = 12;
+
+    /**
+     * The name of each phase, by index.
+     */
+    public static final String[] PHASES = {"player.tick", "updateBombs", "updateEnemies", "updateExplosions",
+        "tick", "updateCamera", "redrawTiles", "drawPlayer", "drawEnemies", "drawBombs", "drawExplosions",
+        "drawTime", "frame"};
+
+    /**
+     * A profiler that records nothing, used when profiling is off.
+     */
+    public static final Profiler DISABLED = new Profiler(false, 0);
+
+    /**
+     * Whether the probes record anything.
+     */
+    public final boolean enabled;
+
+    /**
+     * The longest a tick can take without slowing the game, in nanoseconds.
+     */
+    public final long budgetNanos;
+
+    /**
+     * The number of ticks that have taken longer than the budget.
+     */
+    public long overBudget;
+
+    private final LatencyHistogram[] histograms;
+    private final LatencyHistogram[] totals;
+    private long ticksSinceWarning = GameState.TICKRATE;
+
+    /**
+     * Constructs a new profiler.
+     * @param enabled Whether the probes record anything.
+     * @param budgetNanos The longest a tick can take without slowing the game, in nanoseconds.
+     */
+    public Profiler(boolean enabled, long budgetNanos) {
+        this.enabled = enabled;
+        this.budgetNanos = budgetNanos;
+        this.histograms = new LatencyHistogram[enabled ? PHASES.length : 0];
+        this.totals = new LatencyHistogram[histograms.length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+            totals[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Constructs an enabled profiler whose budget is one tick at the game's tick rate.
+     */
+    public Profiler() {
+        this(true, 1_000_000_000L / GameState.TICKRATE);
+    }
+
+    /**
+     * @return The current time to lap the first phase from, or 0 if disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time taken by a phase.
+     * @param phase The index of the phase.
+     * @param since The time the phase started, as returned by start or the previous lap.
+     * @return The current time, to lap the next phase from, or 0 if disabled.
+     */
+    public long lap(int phase, long since) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        histograms[phase].record(now - since);
+        return now;
+    }
+
+    /**
+     * Records the time taken by a whole tick, warning if it was over budget.
+     * @param since The time the tick started, as returned by start.
+     * @param tickCount The number of the tick, for the warning.
+     */
+    public void endTick(long since, int tickCount) {
+        if (!enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - since;
+        histograms[TICK].record(nanos);
+        ticksSinceWarning++;
+        if (nanos > budgetNanos) {
+            overBudget++;
+            if (ticksSinceWarning >= GameState.TICKRATE) {
+                ticksSinceWarning = 0;
+                System.err.printf("Warning: tick %d took %.2f ms, over the %.2f ms budget (%d slow ticks so far)%n",
+                    tickCount, nanos / 1e6, budgetNanos / 1e6, overBudget);
+            }
+        }
+    }
+
+    /**
+     * @param phase The index of the phase.
+     * @return The histogram of the phase's times in the current window, which
+     * is empty if disabled.
+     */
+    public LatencyHistogram histogram(int phase) {
+        return enabled ? histograms[phase] : new LatencyHistogram();
+    }
+
+    /**
+     * Starts a new window, so that the histograms cover only what follows.
+     * The times recorded so far are kept in the totals for the report.
+     */
+    public void newWindow() {
+        for (int i = 0; i < histograms.length; i++) {
+            totals[i].add(histograms[i]);
+            histograms[i].reset();
+        }
+    }
+
+    /**
+     * Describes the median, 99th percentile and maximum time of every phase,
+     * over every window.
+     * @return The report, one line per phase.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < PHASES.length; i++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            if (enabled) {
+                histogram.add(totals[i]);
+                histogram.add(histograms[i]);
+            }
+            report.append(String.format("%-16s p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms  (%d samples)%n",
+                PHASES[i], histogram.percentile(50) / 1e6, histogram.percentile(99) / 1e6,
+                histogram.max / 1e6, histogram.count));
+        }
+        return report.toString();
+    }
+
+}
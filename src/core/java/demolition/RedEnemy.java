@@ -0,0 +1,54 @@
+package demolition;
+
+import java.util.Random;
+
+/**
+ * Handles all information and functionality relevant to a single Red Enemy.
+ */
+public class RedEnemy extends Character {
+
+    /**
+     * The source of randomness shared by enemies created without one.
+     */
+    private static final Random SHAREDRANDOM = new Random();
+
+    /**
+     * The source of randomness used to pick new directions.
+     */
+    private final Random random;
+
+    /**
+     * Constructs a new RedEnemy that draws on a shared, unseeded source of randomness.
+     * @param x The initial x-coord of the enemy.
+     * @param y The initial y-coord of the enemy.
+     */
+    public RedEnemy(int x, int y) {
+        this(x, y, SHAREDRANDOM);
+    }
+
+    /**
+     * Constructs a new RedEnemy.
+     * @param x The initial x-coord of the enemy.
+     * @param y The initial y-coord of the enemy.
+     * @param random The source of randomness for the enemy's moves.
+     */
+    public RedEnemy(int x, int y, Random random) {
+        super(x, y);
+        this.random = random;
+    }
+
+    public boolean autoMove(TileGrid levelMap) {
+        if (this.gameTime % MOVEINTERVAL == 0) {
+            int exits = levelMap.exits(this.x, this.y);
+            if (TileGrid.hasExit(exits, this.dir)) {
+                this.move(this.dir, levelMap);
+            } else if (exits != 0) {
+                // blocked ahead, so take any of the open exits at random
+                this.move(TileGrid.nthExit(exits, this.random.nextInt(Integer.bitCount(exits))), levelMap);
+            }
+            return true;
+        }
+        return false;
+    }
+
+}
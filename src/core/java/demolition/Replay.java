@@ -0,0 +1,79 @@
+package demolition;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Re-executes a recorded session headlessly, as fast as possible. Key events
+ * are applied at the same tick boundaries as when they were recorded, and the
+ * game state is checked against the recorded checksum after every tick, so a
+ * replay either reproduces the session exactly or reports the first tick at
+ * which it diverged.
+ */
+public class Replay {
+
+    /**
+     * Builds a fresh game for replaying a log, ready to be ticked.
+     * @param log The recorded session.
+     * @param filePathExtension A prefix to add to the level file paths.
+     * @return The new GameState.
+     */
+    public static GameState newGame(InputLog log, String filePathExtension) {
+        return GameState.newGame(log.config, log.seed, log.lives, filePathExtension);
+    }
+
+    /**
+     * Replays a recorded session.
+     * @param log The recorded session.
+     * @param gameState A fresh game built by newGame, or set up the same way.
+     * @param listener The listener notified of resets and the end of the game.
+     * @return The number of ticks replayed.
+     * @throws IllegalStateException If the game state diverges from the recording.
+     */
+    public static int run(InputLog log, GameState gameState, GameListener listener) {
+        KeyHandler keyHandler = new KeyHandler();
+        int event = 0;
+        for (int tick = 0; tick < log.ticks(); tick++) {
+            while ((event < log.events()) && (log.eventTick(event) == tick)) {
+                gameState.applyInput(keyHandler, log.eventKey(event), log.eventPressed(event), log.config, listener);
+                event++;
+            }
+            gameState.tick(log.config, listener);
+            if (gameState.checksum() != log.checksum(tick)) {
+                throw new IllegalStateException(String.format("Replay diverged from the recording at tick %d", tick));
+            }
+        }
+        // events after the last tick, such as the press that won the game
+        while (event < log.events()) {
+            gameState.applyInput(keyHandler, log.eventKey(event), log.eventPressed(event), log.config, listener);
+            event++;
+        }
+        return log.ticks();
+    }
+
+    /**
+     * Replays a recorded session from a file and reports how long it took.
+     * @param args The path of the replay file, and optionally a prefix to add
+     * to the level file paths.
+     * @throws IOException If the replay file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: Replay <replay file> [level path prefix]");
+            System.exit(2);
+        }
+        InputLog log;
+        try (InputStream in = new FileInputStream(args[0])) {
+            log = InputLog.read(in);
+        }
+        GameState gameState = newGame(log, (args.length > 1) ? args[1] : "");
+
+        long start = System.nanoTime();
+        int ticks = run(log, gameState, GameListener.HEADLESS);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Replayed %d ticks and %d key events in %.1f ms (%.0f ticks/s)%n",
+            ticks, log.events(), elapsed / 1e6, ticks / (elapsed / 1e9));
+    }
+
+}
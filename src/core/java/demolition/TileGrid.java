@@ -0,0 +1,504 @@
+package demolition;
+
+import java.util.Arrays;
+
+/**
+ * A level map stored as one byte per tile in a single flat array, in
+ * row-major order. The map is surrounded by a border of solid sentinel tiles,
+ * so looking one tile past any edge is always safe and always finds a wall;
+ * movement and blast code therefore needs no bounds checks. Coordinates
+ * passed to the accessors must lie on the map or its border. Changes made
+ * through the setters are reported to the map's listener, if it has one.
+ * Maps too large to hold in memory are stored by the ChunkedTileGrid
+ * subclass instead, which overrides every accessor.
+ * <p>
+ * Alongside the tiles, the solid and broken walls are kept as bitboards: one
+ * bit per tile, packed into longs along each row and again down each column,
+ * and updated by every setter. Blast rays find the first wall in their path
+ * with a single numberOfTrailingZeros or numberOfLeadingZeros per 64 tiles
+ * rather than by looking at each tile in turn.
+ * <p>
+ * Each tile also keeps a mask of its exits: which of its four neighbours can
+ * be walked onto, as one bit per direction in the clockwise order of EXITS.
+ * A tile's mask only changes when one of its neighbours does, so the setters
+ * update the masks around a changed tile, and enemies choose their moves
+ * from a single lookup rather than by trying each direction in turn.
+ */
+public class TileGrid {
+
+    private static final Tile[] TILES = Tile.values();
+
+    /**
+     * The directions of the bits of an exit mask, in clockwise order from
+     * the lowest bit.
+     */
+    public static final Direction[] EXITS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
+    /**
+     * The bit of each direction in an exit mask, by the direction's ordinal.
+     */
+    private static final int[] EXITBITS = new int[Direction.values().length];
+
+    static {
+        for (int i = 0; i < EXITS.length; i++) {
+            EXITBITS[EXITS[i].ordinal()] = i;
+        }
+    }
+
+    /**
+     * The dimensions of the map in tiles, excluding the sentinel border.
+     */
+    public final int width, height;
+
+    /**
+     * The distance in the array between vertically adjacent tiles.
+     */
+    private final int stride;
+
+    /**
+     * The tiles, stored as the ordinals of the Tile enumerator, or null if
+     * they are stored by a subclass.
+     */
+    private final byte[] cells;
+
+    /**
+     * The number of longs in each row's and each column's bitboard.
+     */
+    private final int rowWords, columnWords;
+
+    /**
+     * Bitboards of the SOLID and BROKEN tiles, including the border. Bit
+     * x + 1 of row y + 1 and bit y + 1 of column x + 1 are both set for a
+     * wall at (x, y). They are null if the tiles are stored by a subclass.
+     */
+    private final long[] solidRows, brokenRows, solidColumns, brokenColumns;
+
+    /**
+     * The exit mask of each tile, by array position. Walls keep their masks
+     * up to date too, ready for when they are destroyed; the masks of the
+     * border tiles are never read. This is null if the tiles are stored by a
+     * subclass.
+     */
+    private final byte[] exits;
+
+    /**
+     * The listener notified whenever a tile is set, or null.
+     */
+    public GameListener listener;
+
+    /**
+     * A hash of the map's tiles, relative to a new map of the same size.
+     * Each tile contributes a mix of its position and ordinal, so the setters
+     * can update the hash as tiles change rather than reading every tile.
+     */
+    protected int tileHash;
+
+    /**
+     * Constructs a new map of empty tiles surrounded by the sentinel border.
+     * @param width The width of the map in tiles.
+     * @param height The height of the map in tiles.
+     */
+    public TileGrid(int width, int height) {
+        this(width, height, true);
+    }
+
+    /**
+     * Constructs a new map, optionally without allocating its tiles, as
+     * called by subclasses that store the tiles themselves.
+     * @param width The width of the map in tiles.
+     * @param height The height of the map in tiles.
+     * @param allocate Whether to allocate the tiles in memory.
+     */
+    protected TileGrid(int width, int height, boolean allocate) {
+        if ((long) (width + 2) * (height + 2) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("A %dx%d map is too large to index", width, height));
+        }
+        this.width = width;
+        this.height = height;
+        this.stride = width + 2;
+        this.rowWords = (stride + 63) >>> 6;
+        this.columnWords = (height + 2 + 63) >>> 6;
+        if (!allocate) {
+            this.cells = null;
+            this.solidRows = this.brokenRows = this.solidColumns = this.brokenColumns = null;
+            this.exits = null;
+            return;
+        }
+        this.cells = new byte[stride * (height + 2)];
+        this.solidRows = new long[rowWords * (height + 2)];
+        this.brokenRows = new long[rowWords * (height + 2)];
+        this.solidColumns = new long[columnWords * stride];
+        this.brokenColumns = new long[columnWords * stride];
+        this.exits = new byte[cells.length];
+        Arrays.fill(cells, (byte) Tile.SOLID.ordinal());
+        for (int y = 0; y < height; y++) {
+            Arrays.fill(cells, index(0, y), index(width, y), (byte) Tile.EMPTY.ordinal());
+        }
+        for (int column = 0; column < stride; column++) {
+            markWall(column, 0, Tile.SOLID);
+            markWall(column, height + 1, Tile.SOLID);
+        }
+        for (int row = 1; row <= height; row++) {
+            markWall(0, row, Tile.SOLID);
+            markWall(stride - 1, row, Tile.SOLID);
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int index = index(x, y);
+                for (int i = 0; i < EXITS.length; i++) {
+                    if (isWalkableAt(index + offset(EXITS[i]))) {
+                        exits[index] |= 1 << i;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the tile at the given coordinates.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return The tile, which is SOLID on the sentinel border.
+     */
+    public Tile get(int x, int y) {
+        return TILES[cells[index(x, y)]];
+    }
+
+    /**
+     * Sets the tile at the given coordinates, which must lie on the map.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @param tile The new tile.
+     */
+    public void set(int x, int y, Tile tile) {
+        int index = index(x, y);
+        if (cells[index] != (byte) tile.ordinal()) {
+            tileHash += mixTile(index, tile.ordinal()) - mixTile(index, cells[index]);
+            cells[index] = (byte) tile.ordinal();
+            markWall(x + 1, y + 1, tile);
+            markExits(index, tile);
+        }
+        if (listener != null) {
+            listener.tileChanged(x, y, tile);
+        }
+    }
+
+    /**
+     * Checks whether a character can stand on the given tile.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return Whether the tile is EMPTY or GOAL.
+     */
+    public boolean isWalkable(int x, int y) {
+        // EMPTY and GOAL are the last two constants of Tile
+        return cells[index(x, y)] >= Tile.EMPTY.ordinal();
+    }
+
+    /**
+     * Checks whether a character can stand on a tile, by its position in the
+     * underlying array.
+     * @param index The position of the tile.
+     * @return Whether the tile is EMPTY or GOAL.
+     */
+    public boolean isWalkableAt(int index) {
+        return cells[index] >= Tile.EMPTY.ordinal();
+    }
+
+    /**
+     * @param x The x-coord of a tile.
+     * @param y The y-coord of a tile.
+     * @return The position of the tile in the underlying array.
+     */
+    public int index(int x, int y) {
+        return (y + 1) * stride + x + 1;
+    }
+
+    /**
+     * @return The number of tiles in the underlying array, including the border.
+     */
+    public int capacity() {
+        return stride * (height + 2);
+    }
+
+    /**
+     * @param dir A direction of movement.
+     * @return The difference in array position between a tile and its neighbour in that direction.
+     */
+    public int offset(Direction dir) {
+        return dir.getYOffset() * stride + dir.getXOffset();
+    }
+
+    /**
+     * Gets a tile by its position in the underlying array.
+     * @param index The position of the tile.
+     * @return The tile.
+     */
+    public Tile getAt(int index) {
+        return TILES[cells[index]];
+    }
+
+    /**
+     * Sets a tile by its position in the underlying array.
+     * @param index The position of the tile, which must not be on the border.
+     * @param tile The new tile.
+     */
+    public void setAt(int index, Tile tile) {
+        if (cells[index] != (byte) tile.ordinal()) {
+            tileHash += mixTile(index, tile.ordinal()) - mixTile(index, cells[index]);
+            cells[index] = (byte) tile.ordinal();
+            markWall(index % stride, index / stride, tile);
+            markExits(index, tile);
+        }
+        if (listener != null) {
+            listener.tileChanged(index % stride - 1, index / stride - 1, tile);
+        }
+    }
+
+    /**
+     * Copies a run of tiles, given as ordinals of the Tile enumerator, into
+     * consecutive positions of the underlying array. The listener is not
+     * notified, so this is only meant for filling in a newly loaded map.
+     * @param index The position of the first tile, which must not be on the border.
+     * @param ordinals The ordinals of the tiles.
+     * @param from The position of the first ordinal to copy.
+     * @param length The number of tiles to copy, which must fit within the row.
+     */
+    void setOrdinals(int index, byte[] ordinals, int from, int length) {
+        for (int i = 0; i < length; i++) {
+            if (cells[index + i] != ordinals[from + i]) {
+                tileHash += mixTile(index + i, ordinals[from + i]) - mixTile(index + i, cells[index + i]);
+                markWall((index + i) % stride, (index + i) / stride, TILES[ordinals[from + i]]);
+                markExits(index + i, TILES[ordinals[from + i]]);
+            }
+        }
+        System.arraycopy(ordinals, from, cells, index, length);
+    }
+
+    /**
+     * @return A copy of this map, without its listener.
+     */
+    public TileGrid copy() {
+        TileGrid copy = new TileGrid(width, height);
+        System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+        System.arraycopy(solidRows, 0, copy.solidRows, 0, solidRows.length);
+        System.arraycopy(brokenRows, 0, copy.brokenRows, 0, brokenRows.length);
+        System.arraycopy(solidColumns, 0, copy.solidColumns, 0, solidColumns.length);
+        System.arraycopy(brokenColumns, 0, copy.brokenColumns, 0, brokenColumns.length);
+        System.arraycopy(exits, 0, copy.exits, 0, exits.length);
+        copy.tileHash = tileHash;
+        return copy;
+    }
+
+    /**
+     * @return A hash of every tile on the map, which changes whenever a tile does.
+     */
+    public int tileHash() {
+        return tileHash;
+    }
+
+    /**
+     * @param index The position of a tile.
+     * @param ordinal The ordinal of the tile.
+     * @return The tile's contribution to the map's hash.
+     */
+    protected static int mixTile(int index, int ordinal) {
+        int hash = (index * 4 + ordinal) * 0x9E3779B1;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Gets the exit mask of a tile.
+     * @param x The x-coord of the tile, which must lie on the map.
+     * @param y The y-coord of the tile.
+     * @return A bit for each walkable neighbour, in the order of EXITS.
+     */
+    public int exits(int x, int y) {
+        return exits[index(x, y)];
+    }
+
+    /**
+     * Finds the first exit clockwise from a direction, the direction itself
+     * included.
+     * @param exits An exit mask.
+     * @param from The direction to start from, which must be UP, DOWN, LEFT or RIGHT.
+     * @return The direction of the exit, or null if the mask is empty.
+     */
+    public static Direction firstExit(int exits, Direction from) {
+        if (exits == 0) {
+            return null;
+        }
+        int start = EXITBITS[from.ordinal()];
+        int rotated = ((exits >>> start) | (exits << (EXITS.length - start))) & 0xF;
+        return EXITS[(start + Integer.numberOfTrailingZeros(rotated)) & 3];
+    }
+
+    /**
+     * @param exits An exit mask.
+     * @param dir A direction, which must be UP, DOWN, LEFT or RIGHT.
+     * @return Whether the mask has an exit in that direction.
+     */
+    public static boolean hasExit(int exits, Direction dir) {
+        return (exits & (1 << EXITBITS[dir.ordinal()])) != 0;
+    }
+
+    /**
+     * Picks one of the exits of a mask.
+     * @param exits An exit mask.
+     * @param n Which of the mask's exits to pick, counting from zero in the
+     * order of EXITS. It must be less than Integer.bitCount(exits).
+     * @return The direction of the exit.
+     */
+    public static Direction nthExit(int exits, int n) {
+        for (int i = 0; i < n; i++) {
+            exits &= exits - 1;
+        }
+        return EXITS[Integer.numberOfTrailingZeros(exits)];
+    }
+
+    /**
+     * Finds how far a blast travels from a tile before it meets a wall.
+     * @param x The x-coord of the blast's origin.
+     * @param y The y-coord of the blast's origin.
+     * @param dir The direction of the blast, which must be UP, DOWN, LEFT or RIGHT.
+     * @param range The furthest the blast can travel.
+     * @return The distance to the first SOLID or BROKEN tile in that direction,
+     * or range + 1 if there is none within range.
+     */
+    public int blastReach(int x, int y, Direction dir, int range) {
+        if (solidRows == null) {
+            for (int distance = 1; distance <= range; distance++) {
+                if (!isWalkable(x + dir.getXOffset() * distance, y + dir.getYOffset() * distance)) {
+                    return distance;
+                }
+            }
+            return range + 1;
+        }
+        int wall;
+        int from;
+        if (dir.getYOffset() == 0) {
+            int base = (y + 1) * rowWords;
+            from = x + 1;
+            wall = (dir.getXOffset() > 0)
+                ? firstWall(solidRows, brokenRows, base, from + 1, (int) Math.min((long) from + range, stride - 1))
+                : lastWall(solidRows, brokenRows, base, from - 1, (int) Math.max((long) from - range, 0));
+        } else {
+            int base = (x + 1) * columnWords;
+            from = y + 1;
+            wall = (dir.getYOffset() > 0)
+                ? firstWall(solidColumns, brokenColumns, base, from + 1, (int) Math.min((long) from + range, height + 1))
+                : lastWall(solidColumns, brokenColumns, base, from - 1, (int) Math.max((long) from - range, 0));
+        }
+        return (wall < 0) ? range + 1 : Math.abs(wall - from);
+    }
+
+    /**
+     * Scans a row or column of bitboards forwards for a wall.
+     * @param solid The bitboards of solid walls.
+     * @param broken The bitboards of broken walls.
+     * @param base The position of the row's or column's first long.
+     * @param from The first bit to look at.
+     * @param to The last bit to look at, which must lie within the row or column.
+     * @return The position of the first wall between from and to, or -1.
+     */
+    private static int firstWall(long[] solid, long[] broken, int base, int from, int to) {
+        if (from > to) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = (solid[base + word] | broken[base + word]) & (-1L << from);
+        while (bits == 0) {
+            if (++word > (to >>> 6)) {
+                return -1;
+            }
+            bits = solid[base + word] | broken[base + word];
+        }
+        int wall = (word << 6) + Long.numberOfTrailingZeros(bits);
+        return (wall <= to) ? wall : -1;
+    }
+
+    /**
+     * Scans a row or column of bitboards backwards for a wall.
+     * @param solid The bitboards of solid walls.
+     * @param broken The bitboards of broken walls.
+     * @param base The position of the row's or column's first long.
+     * @param from The first bit to look at.
+     * @param to The last bit to look at, which must not be negative.
+     * @return The position of the first wall between from and to, or -1.
+     */
+    private static int lastWall(long[] solid, long[] broken, int base, int from, int to) {
+        if (from < to) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = (solid[base + word] | broken[base + word]) & (-1L >>> (63 - (from & 63)));
+        while (bits == 0) {
+            if (--word < (to >>> 6)) {
+                return -1;
+            }
+            bits = solid[base + word] | broken[base + word];
+        }
+        int wall = (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+        return (wall >= to) ? wall : -1;
+    }
+
+    /**
+     * Updates the bitboards for a tile that has changed.
+     * @param column The tile's column of the underlying array, which is one more than its x-coord.
+     * @param row The tile's row of the underlying array, which is one more than its y-coord.
+     * @param tile The new tile.
+     */
+    private void markWall(int column, int row, Tile tile) {
+        int rowWord = row * rowWords + (column >>> 6);
+        int columnWord = column * columnWords + (row >>> 6);
+        long rowBit = 1L << column;
+        long columnBit = 1L << row;
+        if (tile == Tile.SOLID) {
+            solidRows[rowWord] |= rowBit;
+            solidColumns[columnWord] |= columnBit;
+        } else {
+            solidRows[rowWord] &= ~rowBit;
+            solidColumns[columnWord] &= ~columnBit;
+        }
+        if (tile == Tile.BROKEN) {
+            brokenRows[rowWord] |= rowBit;
+            brokenColumns[columnWord] |= columnBit;
+        } else {
+            brokenRows[rowWord] &= ~rowBit;
+            brokenColumns[columnWord] &= ~columnBit;
+        }
+    }
+
+    /**
+     * Updates the exit masks of the neighbours of a tile that has changed.
+     * @param index The position of the tile, which must not be on the border.
+     * @param tile The new tile.
+     */
+    private void markExits(int index, Tile tile) {
+        // EMPTY and GOAL are the last two constants of Tile
+        boolean walkable = tile.ordinal() >= Tile.EMPTY.ordinal();
+        for (int i = 0; i < EXITS.length; i++) {
+            int neighbour = index + offset(EXITS[i]);
+            // the neighbour's exit back onto this tile is the opposite direction
+            int bit = 1 << ((i + 2) & 3);
+            exits[neighbour] = (byte) (walkable ? (exits[neighbour] | bit) : (exits[neighbour] & ~bit));
+        }
+    }
+
+    /**
+     * Hints that the player or an entity has moved to a position, so the
+     * parts of the map around it may be needed soon. Maps held in memory
+     * ignore the hint.
+     * @param x The x-coord of the position.
+     * @param y The y-coord of the position.
+     */
+    public void prefetch(int x, int y) {
+    }
+
+    /**
+     * Releases any resources held by the map once it is no longer needed.
+     * Maps held in memory have nothing to release.
+     */
+    public void close() {
+    }
+
+}
@@ -0,0 +1,79 @@
+package demolition;
+
+/**
+ * Divides a map into square pages of PAGESIZE tiles, for per-tile structures
+ * that are only needed where something is happening. Such a structure keeps
+ * one array per page, created the first time anything is stored on the page,
+ * so its memory grows with the area the entities have reached rather than
+ * with the size of the map, and no tile position is ever multiplied out to a
+ * single index that could overflow an int.
+ */
+public class TilePages {
+
+    /**
+     * The width and height of a page in tiles, as a power of two.
+     */
+    public static final int PAGESHIFT = 6;
+    public static final int PAGESIZE = 1 << PAGESHIFT;
+
+    /**
+     * The number of tiles on a page.
+     */
+    public static final int PAGETILES = PAGESIZE * PAGESIZE;
+
+    /**
+     * The dimensions of the map in tiles.
+     */
+    public final int width, height;
+
+    /**
+     * The number of pages in each row of the map, and in the whole map.
+     */
+    public final int pagesAcross, pages;
+
+    /**
+     * Divides a map into pages.
+     * @param width The width of the map in tiles.
+     * @param height The height of the map in tiles.
+     * @throws IllegalArgumentException If the map has too many pages to number with an int.
+     */
+    public TilePages(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pagesAcross = (int) (((long) width + PAGESIZE - 1) >> PAGESHIFT);
+        long pagesDown = ((long) height + PAGESIZE - 1) >> PAGESHIFT;
+        if (pagesAcross * pagesDown > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(String.format("A %dx%d map has too many pages", width, height));
+        }
+        this.pages = (int) (pagesAcross * pagesDown);
+    }
+
+    /**
+     * Checks whether a tile lies within the map.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return Whether the tile is on a page.
+     */
+    public boolean contains(int x, int y) {
+        return (0 <= x) && (x < width) && (0 <= y) && (y < height);
+    }
+
+    /**
+     * @param x The x-coord of a tile on the map.
+     * @param y The y-coord of the tile.
+     * @return The number of the page holding the tile.
+     */
+    public int page(int x, int y) {
+        return (y >> PAGESHIFT) * pagesAcross + (x >> PAGESHIFT);
+    }
+
+    /**
+     * @param x The x-coord of a tile on the map.
+     * @param y The y-coord of the tile.
+     * @return The position of the tile within its page, in row-major order.
+     */
+    public static int offset(int x, int y) {
+        return ((y & (PAGESIZE - 1)) << PAGESHIFT) | (x & (PAGESIZE - 1));
+    }
+
+}
@@ -0,0 +1,219 @@
+package demolition;
+
+import java.util.Arrays;
+
+/**
+ * A hierarchical timing wheel, which holds timers for a set of handles
+ * numbered from zero and hands back the handles whose timers are due as the
+ * clock advances one tick at a time.
+ * <p>
+ * Timers are kept in LEVELS wheels of SLOTS buckets. A timer goes into the
+ * wheel of the highest base-SLOTS digit in which its tick differs from the
+ * current tick, in the bucket of that digit, so the lowest wheel holds the
+ * timers due within the current turn of 64 ticks and each wheel above it
+ * covers 64 times as long. Whenever the digits below a wheel roll over to
+ * zero, the bucket for the new digit of that wheel is emptied into the
+ * wheels below it, and the lowest wheel's bucket for the new tick is moved
+ * onto the due list. The cost of advancing a tick therefore depends on the
+ * number of timers that fall due rather than the number waiting.
+ * <p>
+ * Each handle is in at most one bucket at once, linked through arrays
+ * indexed by handle, so scheduling, cancelling and advancing allocate
+ * nothing once the wheel is large enough.
+ */
+public class TimingWheel {
+
+    /**
+     * The number of bits of the tick covered by each wheel, and the number
+     * of buckets in each wheel.
+     */
+    public static final int SLOTBITS = 6;
+    public static final int SLOTS = 1 << SLOTBITS;
+
+    /**
+     * The number of wheels, which between them cover every int tick.
+     */
+    public static final int LEVELS = (32 + SLOTBITS - 1) / SLOTBITS;
+
+    /**
+     * The bucket of the due list, after every wheel's buckets.
+     */
+    private static final int DUE = LEVELS * SLOTS;
+
+    /**
+     * The current tick.
+     */
+    private int now;
+
+    /**
+     * The first handle in each bucket, or -1.
+     */
+    private final int[] heads = new int[DUE + 1];
+
+    /**
+     * The neighbouring handles in each handle's bucket, the bucket each
+     * handle is in or -1, and the tick each handle is due.
+     */
+    private int[] next, previous, buckets, due;
+
+    /**
+     * Constructs an empty wheel at tick zero.
+     * @param capacity The number of handles to make room for.
+     */
+    public TimingWheel(int capacity) {
+        next = new int[capacity];
+        previous = new int[capacity];
+        buckets = new int[capacity];
+        due = new int[capacity];
+        clear();
+    }
+
+    /**
+     * Cancels every timer and sets the clock back to tick zero.
+     */
+    public void clear() {
+        now = 0;
+        Arrays.fill(heads, -1);
+        Arrays.fill(buckets, -1);
+    }
+
+    /**
+     * @return The current tick.
+     */
+    public int now() {
+        return now;
+    }
+
+    /**
+     * Makes room for more handles.
+     * @param capacity The number of handles to make room for.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > buckets.length) {
+            int oldCapacity = buckets.length;
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+            due = Arrays.copyOf(due, capacity);
+            Arrays.fill(buckets, oldCapacity, capacity, -1);
+        }
+    }
+
+    /**
+     * Sets a handle's timer, replacing any timer it already has.
+     * @param handle The handle.
+     * @param tick The tick the handle is due. A tick that is not after the
+     * current tick puts the handle straight on the due list.
+     */
+    public void schedule(int handle, int tick) {
+        cancel(handle);
+        due[handle] = tick;
+        insert(handle);
+    }
+
+    /**
+     * Cancels a handle's timer, if it has one.
+     * @param handle The handle.
+     */
+    public void cancel(int handle) {
+        int bucket = buckets[handle];
+        if (bucket == -1) {
+            return;
+        }
+        if (previous[handle] != -1) {
+            next[previous[handle]] = next[handle];
+        } else {
+            heads[bucket] = next[handle];
+        }
+        if (next[handle] != -1) {
+            previous[next[handle]] = previous[handle];
+        }
+        buckets[handle] = -1;
+    }
+
+    /**
+     * @param handle A handle.
+     * @return Whether the handle has a timer, including one that is due.
+     */
+    public boolean isScheduled(int handle) {
+        return buckets[handle] != -1;
+    }
+
+    /**
+     * @param handle A handle that has a timer.
+     * @return The tick the handle is due.
+     */
+    public int dueTick(int handle) {
+        return due[handle];
+    }
+
+    /**
+     * Takes a handle off the due list. Its timer is cancelled, so it must be
+     * scheduled again to be handed back again.
+     * @return The handle, or -1 if no handle is due.
+     */
+    public int poll() {
+        int handle = heads[DUE];
+        if (handle != -1) {
+            cancel(handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Advances the clock by one tick, moving the handles that fall due onto
+     * the due list. Handles still on the due list stay there.
+     */
+    public void advance() {
+        now++;
+        // higher wheels first, so their timers can land in the lower buckets emptied next
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = level * SLOTBITS;
+            if ((now & ((1 << shift) - 1)) == 0) {
+                cascade(level * SLOTS + ((now >>> shift) & (SLOTS - 1)));
+            }
+        }
+        cascade(now & (SLOTS - 1));
+    }
+
+    /**
+     * Empties a bucket, putting each of its handles back into the wheel
+     * relative to the current tick.
+     * @param bucket The bucket.
+     */
+    private void cascade(int bucket) {
+        int handle = heads[bucket];
+        heads[bucket] = -1;
+        while (handle != -1) {
+            int following = next[handle];
+            buckets[handle] = -1;
+            insert(handle);
+            handle = following;
+        }
+    }
+
+    /**
+     * Puts a handle with no bucket into the bucket for its due tick.
+     * @param handle The handle.
+     */
+    private void insert(int handle) {
+        int tick = due[handle];
+        int bucket;
+        if (tick - now <= 0) {
+            bucket = DUE;
+        } else {
+            // the highest digit in which the tick differs from now picks the wheel
+            int level = (31 - Integer.numberOfLeadingZeros(tick ^ now)) / SLOTBITS;
+            bucket = level * SLOTS + ((tick >>> (level * SLOTBITS)) & (SLOTS - 1));
+        }
+        int head = heads[bucket];
+        previous[handle] = -1;
+        next[handle] = head;
+        if (head != -1) {
+            previous[head] = handle;
+        }
+        heads[bucket] = handle;
+        buckets[handle] = bucket;
+    }
+
+}
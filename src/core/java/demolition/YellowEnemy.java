@@ -0,0 +1,29 @@
+package demolition;
+
+/**
+ * Handles all information and functionality relevant to a single Yellow Enemy.
+ */
+public class YellowEnemy extends Character {
+
+    /**
+     * Constructs a new YellowEnemy object.
+     * @param x The initial x-coord of the enemy.
+     * @param y The initial y-coord of the enemy.
+     */
+    public YellowEnemy(int x, int y) {
+        super(x, y);
+    }
+
+    public boolean autoMove(TileGrid levelMap) {
+        if (this.gameTime % MOVEINTERVAL == 0) {
+            // the first exit clockwise from the current direction, which may be straight ahead
+            Direction exit = TileGrid.firstExit(levelMap.exits(this.x, this.y), this.dir);
+            if (exit != null) {
+                this.move(exit, levelMap);
+            }
+            return true;
+        }
+        return false;
+    }
+
+}
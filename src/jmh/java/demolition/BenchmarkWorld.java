@@ -0,0 +1,109 @@
+package demolition;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Builds reproducible game states for the benchmarks. The map is a square
+ * arena with a solid border and the usual pillar grid, with broken walls
+ * scattered over the remaining tiles. Enemies, bombs and explosions are placed
+ * on random empty tiles other than the player's, all drawn from a fixed seed.
+ * The same enemies are also held in a separate EnemyStore, which the game
+ * state does not use unless a benchmark installs it.
+ */
+public class BenchmarkWorld {
+
+    public static final long SEED = 42;
+
+    /**
+     * The proportion of free tiles that start as broken walls.
+     */
+    public static final double BROKENDENSITY = 0.2;
+
+    public final GameState gameState;
+    public final GameConfig config;
+    public final TileGrid template;
+    public final EnemyStore enemyStore;
+    public final Random random;
+
+    /**
+     * Builds a new world.
+     * @param mapSize The width and height of the map in tiles.
+     * @param enemyCount The number of enemies, alternating red and yellow.
+     * @param bombCount The number of bombs, and also of explosions.
+     */
+    public BenchmarkWorld(int mapSize, int enemyCount, int bombCount) {
+        random = new Random(SEED);
+        template = buildMap(mapSize, random);
+
+        gameState = new GameState();
+        gameState.levelMap = template.copy();
+        gameState.player.lives = Integer.MAX_VALUE;
+        gameState.timeLeft = Integer.MAX_VALUE;
+
+        int[] spawn = randomEmptyTile();
+        gameState.player.x = spawn[0];
+        gameState.player.y = spawn[1];
+        gameState.goalCoords = new Coordinates(-1, -1);
+
+        enemyStore = new EnemyStore(new Random(SEED));
+        enemyStore.reset(gameState.levelMap);
+        for (int i = 0; i < enemyCount; i++) {
+            int[] tile = randomEmptyTile();
+            gameState.enemies.add(i % 2 == 0 ? new RedEnemy(tile[0], tile[1]) : new YellowEnemy(tile[0], tile[1]));
+            enemyStore.add(i % 2 == 0 ? EnemyStore.RED : EnemyStore.YELLOW, tile[0], tile[1]);
+        }
+
+        for (int i = 0; i < bombCount; i++) {
+            int[] tile = randomEmptyTile();
+            Bomb bomb = new Bomb(tile[0], tile[1]);
+            // stagger the fuses so that bombs explode steadily rather than all at once
+            bomb.gameTime = random.nextInt(121);
+            gameState.bombs.add(bomb);
+
+            tile = randomEmptyTile();
+            Explosion explosion = new Explosion(Direction.CENTRE, tile[0], tile[1]);
+            explosion.gameTime = random.nextInt(121);
+            gameState.explosions.add(explosion);
+        }
+
+        gameState.rebuildOccupancy();
+        config = new GameConfig(new ArrayList<String>(), new ArrayList<Integer>());
+    }
+
+    /**
+     * @return The coordinates of a random tile that is empty in the template
+     * and not occupied by the player.
+     */
+    public int[] randomEmptyTile() {
+        int size = template.width;
+        while (true) {
+            int x = 1 + random.nextInt(size - 2);
+            int y = 1 + random.nextInt(size - 2);
+            if (template.get(x, y) == Tile.EMPTY && (gameState.player.x != x || gameState.player.y != y)) {
+                return new int[] {x, y};
+            }
+        }
+    }
+
+    /**
+     * Builds a square arena map.
+     * @param mapSize The width and height of the map in tiles.
+     * @param random The source of randomness for broken walls.
+     * @return The new map.
+     */
+    public static TileGrid buildMap(int mapSize, Random random) {
+        TileGrid map = new TileGrid(mapSize, mapSize);
+        for (int i = 0; i < mapSize; i++) {
+            for (int j = 0; j < mapSize; j++) {
+                if (i == 0 || j == 0 || i == mapSize - 1 || j == mapSize - 1 || (i % 2 == 0 && j % 2 == 0)) {
+                    map.set(j, i, Tile.SOLID);
+                } else if (random.nextDouble() < BROKENDENSITY) {
+                    map.set(j, i, Tile.BROKEN);
+                }
+            }
+        }
+        return map;
+    }
+
+}
@@ -0,0 +1,35 @@
+package demolition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the blast ray casts of bombs. Every bomb is primed to explode,
+ * and the walls each blast destroys are restored from the template afterwards
+ * so that every invocation casts the same rays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BombBenchmark {
+
+    @Benchmark
+    public void checkExplode(WorldState state, Blackhole blackhole) {
+        TileGrid levelMap = state.world.gameState.levelMap;
+        TileGrid template = state.world.template;
+        for (Bomb bomb : state.world.gameState.bombs) {
+            bomb.gameTime = 121;
+            List<Explosion> explosions = bomb.checkExplode(levelMap);
+            for (Explosion explosion : explosions) {
+                levelMap.set(explosion.x, explosion.y, template.get(explosion.x, explosion.y));
+            }
+            blackhole.consume(explosions);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package demolition;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+// the explicit import takes precedence over demolition.Setup
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks the distance field chasers follow on a large arena: searching
+ * the whole map afresh, repairing it after a broken wall is destroyed and
+ * rebuilt, and searching it again with its arrays reused after the player
+ * steps back and forth between two tiles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceFieldBenchmark {
+
+    @State(Scope.Thread)
+    public static class FieldState {
+
+        @Param({"1000"})
+        public int mapSize;
+
+        TileGrid levelMap;
+        DistanceField field;
+        int wallX, wallY;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            levelMap = BenchmarkWorld.buildMap(mapSize, new Random(BenchmarkWorld.SEED));
+            levelMap.set(1, 1, Tile.EMPTY);
+            levelMap.set(2, 1, Tile.EMPTY);
+            // a broken wall deep in the map, between two pillars
+            wallX = mapSize / 2 + 1;
+            wallY = mapSize / 2;
+            levelMap.set(wallX, wallY, Tile.BROKEN);
+            field = new DistanceField();
+            field.target(levelMap, 1, 1);
+            field.distance(1, 1);
+        }
+
+    }
+
+    @Benchmark
+    public int search(FieldState state) {
+        DistanceField field = new DistanceField();
+        field.target(state.levelMap, 1, 1);
+        return field.distance(state.wallX, state.wallY);
+    }
+
+    @Benchmark
+    public int destroyWall(FieldState state) {
+        state.levelMap.set(state.wallX, state.wallY, Tile.EMPTY);
+        state.field.tileChanged(state.wallX, state.wallY);
+        int distance = state.field.distance(state.wallX, state.wallY);
+        state.levelMap.set(state.wallX, state.wallY, Tile.BROKEN);
+        state.field.tileChanged(state.wallX, state.wallY);
+        return distance;
+    }
+
+    @Benchmark
+    public int playerStep(FieldState state) {
+        state.field.target(state.levelMap, 2, 1);
+        int distance = state.field.distance(state.wallX, state.wallY);
+        state.field.target(state.levelMap, 1, 1);
+        return distance + state.field.distance(state.wallX, state.wallY);
+    }
+
+}
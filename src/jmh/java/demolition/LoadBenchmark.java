@@ -0,0 +1,54 @@
+package demolition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+// the explicit import takes precedence over demolition.Setup
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Benchmarks parsing a level file of the arena map used by the other
+ * benchmarks, written to a temporary file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    @Param({"15", "256", "4096"})
+    public int mapSize;
+
+    private Path level;
+
+    @Setup(Level.Trial)
+    public void writeLevel() throws IOException {
+        TileGrid map = BenchmarkWorld.buildMap(mapSize, new Random(BenchmarkWorld.SEED));
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < mapSize; i++) {
+            for (int j = 0; j < mapSize; j++) {
+                Tile tile = map.get(j, i);
+                text.append((tile == Tile.SOLID) ? 'W' : (tile == Tile.BROKEN) ? 'B' : ' ');
+            }
+            text.append('\n');
+        }
+        level = Files.createTempFile("level", ".txt");
+        Files.write(level, text.toString().getBytes("US-ASCII"));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLevel() throws IOException {
+        Files.delete(level);
+    }
+
+    @Benchmark
+    public LevelTemplate parse() throws IOException {
+        return LevelTemplate.parse(level.toString(), 0, 0);
+    }
+
+}
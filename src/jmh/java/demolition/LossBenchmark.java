@@ -0,0 +1,23 @@
+package demolition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks the check for whether the player has been killed, in the common
+ * case where it has not: every enemy and explosion has to be examined.
+ * BenchmarkWorld never spawns anything on the player's tile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LossBenchmark {
+
+    @Benchmark
+    public boolean checkLoss(WorldState state) {
+        return state.world.gameState.checkLoss(state.world.config, GameListener.HEADLESS);
+    }
+
+}
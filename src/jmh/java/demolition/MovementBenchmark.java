@@ -0,0 +1,64 @@
+package demolition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks character movement: a single step of the player, and the
+ * automatic moves of every enemy on the tick on which they move as objects,
+ * and a whole move interval of ticks of an EnemyStore, in which every enemy
+ * moves once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+
+    @Benchmark
+    public boolean move(WorldState state) {
+        Player player = state.world.gameState.player;
+        TileGrid levelMap = state.world.gameState.levelMap;
+        // step back and forth so the player stays in place between invocations
+        Direction dir = player.dir.rotateClockwise();
+        if (player.move(dir, levelMap)) {
+            return player.move(dir.rotateClockwise().rotateClockwise(), levelMap);
+        }
+        return false;
+    }
+
+    @Benchmark
+    public int redAutoMove(WorldState state) {
+        return autoMove(state, RedEnemy.class);
+    }
+
+    @Benchmark
+    public int yellowAutoMove(WorldState state) {
+        return autoMove(state, YellowEnemy.class);
+    }
+
+    @Benchmark
+    public int storeAutoMove(WorldState state) {
+        EnemyStore enemyStore = state.world.enemyStore;
+        for (int i = 0; i < EnemyStore.MOVEINTERVAL; i++) {
+            enemyStore.update(-1, -1);
+        }
+        return enemyStore.size;
+    }
+
+    private static int autoMove(WorldState state, Class<? extends Character> type) {
+        TileGrid levelMap = state.world.gameState.levelMap;
+        int moved = 0;
+        for (Character enemy : state.world.gameState.enemies) {
+            if (enemy.getClass() == type) {
+                enemy.gameTime = 60;
+                if (enemy.autoMove(levelMap)) {
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+}
@@ -0,0 +1,81 @@
+package demolition;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+// the explicit import takes precedence over demolition.Setup
+import org.openjdk.jmh.annotations.Setup;
+import processing.awt.PGraphicsJava2D;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+/**
+ * Benchmarks the per-frame tile redraw. Every entity marks the tiles it is
+ * drawn over, exactly as handleAllGraphics does, and they are copied from the
+ * background layer onto an offscreen Java2D surface so the benchmark runs
+ * without a display.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RedrawBenchmark {
+
+    private GraphicsHandler graphicsHandler;
+    private PGraphics surface;
+
+    @Setup(Level.Iteration)
+    public void attachSurface(WorldState state) {
+        App app = new App() {
+            public PGraphics createGraphics(int w, int h) {
+                return offscreen(this, w, h);
+            }
+        };
+        int size = state.mapSize * App.TILESIZE;
+
+        surface = offscreen(app, size, size + App.UPPEROFFSET);
+        surface.beginDraw();
+        app.g = surface;
+
+        graphicsHandler = new GraphicsHandler(app);
+        graphicsHandler.tileImages = new java.util.HashMap<Tile, PImage>();
+        for (Tile tile : Tile.values()) {
+            graphicsHandler.tileImages.put(tile, new PImage(App.TILESIZE, App.TILESIZE, PConstants.ARGB));
+        }
+    }
+
+    private static PGraphics offscreen(App app, int w, int h) {
+        PGraphics graphics = new PGraphicsJava2D();
+        graphics.setParent(app);
+        graphics.setPrimary(false);
+        graphics.setSize(w, h);
+        // PGraphicsJava2D would otherwise ask the screen device for its image
+        graphics.image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        return graphics;
+    }
+
+    @TearDown(Level.Iteration)
+    public void detachSurface() {
+        surface.endDraw();
+    }
+
+    @Benchmark
+    public void redrawTiles(WorldState state) {
+        GameState gameState = state.world.gameState;
+        graphicsHandler.addCharRedraw(gameState.player.x, gameState.player.y);
+        for (Character enemy : gameState.enemies) {
+            graphicsHandler.addCharRedraw(enemy.x, enemy.y);
+        }
+        for (Bomb bomb : gameState.bombs) {
+            graphicsHandler.addRedraw(bomb.x, bomb.y);
+        }
+        for (Explosion explosion : gameState.explosions) {
+            graphicsHandler.addRedraw(explosion.x, explosion.y);
+        }
+        graphicsHandler.redrawTiles(gameState.levelMap);
+    }
+
+}
@@ -0,0 +1,23 @@
+package demolition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks whole ticks of the simulation. Each measured iteration plays the
+ * first ten seconds of a freshly built world, so every iteration simulates
+ * exactly the same sequence of events.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = 600)
+@Measurement(iterations = 10, batchSize = 600)
+@Fork(1)
+public class TickBenchmark {
+
+    @Benchmark
+    public boolean updateAllEntities(WorldState state) {
+        return state.world.gameState.updateAllEntities();
+    }
+
+}
@@ -0,0 +1,30 @@
+package demolition;
+
+import org.openjdk.jmh.annotations.*;
+// the explicit import takes precedence over demolition.Setup
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * The JMH state shared by the benchmarks: a freshly built world for every
+ * combination of map size, enemy count and bomb/explosion count.
+ */
+@State(Scope.Thread)
+public class WorldState {
+
+    @Param({"15", "64", "256"})
+    public int mapSize;
+
+    @Param({"10", "100", "1000"})
+    public int enemyCount;
+
+    @Param({"1", "10", "100"})
+    public int bombCount;
+
+    public BenchmarkWorld world;
+
+    @Setup(Level.Iteration)
+    public void buildWorld() {
+        world = new BenchmarkWorld(mapSize, enemyCount, bombCount);
+    }
+
+}
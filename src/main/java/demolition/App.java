@@ -5,6 +5,7 @@ import processing.data.*;
 import processing.event.*;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Scanner;
 import java.util.Stack;
@@ -12,6 +13,9 @@ import java.util.Map;
 import java.util.HashMap;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * The App class implements the methods for setting up and drawing the game
@@ -22,18 +26,54 @@ public class App extends PApplet {
 
     public static final int WIDTH = 480;
     public static final int HEIGHT = 480;
-    public static final int MAPHEIGHT = 13;
-    public static final int MAPWIDTH = 15;
+    public static final int MAPHEIGHT = GameState.MAPHEIGHT;
+    public static final int MAPWIDTH = GameState.MAPWIDTH;
     public static final int CHARHEIGHT = 48;
     public static final int UPPEROFFSET = 64;
     public static final int TILESIZE = 32;
     public static final int FONTSIZE = 16;
-    public static final int FPS = 60;
+    public static final int FPS = GameState.TICKRATE;
+
+    /**
+     * The file the session's input log is saved to when the app exits.
+     */
+    public static final String REPLAYFILE = "last.replay";
+
+    /**
+     * The key that shows and hides the performance overlay (F3).
+     */
+    public static final int OVERLAYKEY = java.awt.event.KeyEvent.VK_F3;
 
     private Setup setup;
     private KeyHandler keyHandler;
     private GraphicsHandler graphicsHandler;
     private GameState gameState;
+    private FixedTimestep timestep;
+    private InputLog inputLog;
+
+    /**
+     * Key events received since the last frame, as key codes, with releases
+     * stored as their bitwise complement. They are applied together before
+     * the next tick so that replays see them at the same tick.
+     */
+    private int[] pendingKeys = new int[16];
+    private int pendingCount;
+
+    /**
+     * The number of images, rectangles and text drawn so far this frame.
+     */
+    public int drawCalls;
+
+    /**
+     * Whether the performance overlay is shown.
+     */
+    private boolean overlay;
+
+    /**
+     * The profiler the game is timed with while the overlay is shown, kept
+     * across toggles for the report on exit, or null if it has never been shown.
+     */
+    private Profiler profiler;
 
     public App() {
     }
@@ -57,61 +97,175 @@ public class App extends PApplet {
         keyHandler = new KeyHandler();
         graphicsHandler = new GraphicsHandler(this);
         gameState = new GameState();
+        timestep = new FixedTimestep(GameState.TICKRATE, FixedTimestep.MAXCATCHUP);
 
-        gameState.player = setup.player(this);
-        gameState.enemies = setup.enemies(this, graphicsHandler);
-        gameState.bombs = setup.bombs(this, graphicsHandler);
-        gameState.explosions = setup.explosions(this, graphicsHandler);
+        // decode every image and the font concurrently while the config is read
+        AssetLoader loader = new AssetLoader(this, AssetLoader.THREADS);
+        loader.cache(new PixelCache(PixelCache.CACHEPATH));
+        loader.atlas(Setup.ATLASPATH);
+        gameState.player = setup.player(graphicsHandler, loader);
+        gameState.enemies = setup.enemies(graphicsHandler, loader);
+        gameState.bombs = setup.bombs(graphicsHandler, loader);
+        gameState.explosions = setup.explosions(graphicsHandler, loader);
+        setup.loadImages(graphicsHandler, loader);
 
         frameRate(FPS);
         background(GraphicsHandler.ORANGE[0], GraphicsHandler.ORANGE[1], GraphicsHandler.ORANGE[2]);
         setup.parseJSON(gameState.player, "");
 
-        textFont(setup.loadImages(this, graphicsHandler));
+        loader.join();
+        System.out.println(loader.report());
+        textFont(setup.font);
+
+        long seed = System.nanoTime();
+        gameState.random.setSeed(seed);
+        // the whole session is recorded in memory, at about 14 KB a minute
+        inputLog = new InputLog(seed, gameState.player.lives, setup);
+        gameState.recorder = inputLog;
 
-        gameState.levelMap = gameState.initialiseLevelMap(setup, graphicsHandler, "");
+        gameState.levelMap = gameState.initialiseLevelMap(setup, "");
         graphicsHandler.drawLevel(gameState.levelMap, gameState.player);
 
     }
 
     /**
      * Calls methods in GraphicsHandler and GameState in order to draw and
-     * update all entities in the game.
+     * update all entities in the game. The game is ticked at a fixed rate
+     * regardless of the frame rate, so a slow frame is followed by extra ticks.
      */
     public void draw() {
         if (gameState.gameEnded) {
             return;
         }
+        drawCalls = 0;
         graphicsHandler.handleAllGraphics(gameState);
-        if (gameState.updateAllEntities()) {
-            gameState.doLoss(setup, graphicsHandler);
+        if (overlay) {
+            graphicsHandler.drawOverlay(gameState, drawCalls);
+        }
+        for (int i = 0; i < pendingCount; i++) {
+            int key = pendingKeys[i];
+            gameState.applyInput(keyHandler, (key < 0) ? ~key : key, key >= 0, setup, graphicsHandler);
         }
+        pendingCount = 0;
+        timestep.run(gameState, setup, graphicsHandler, System.nanoTime());
     }
 
     /**
-     * Calls methods in KeyHandler and GameState in order to handle input
-     * from the player.
+     * Queues a key press from the player, to be handled by KeyHandler and
+     * GameState before the next tick. The overlay key is handled here instead,
+     * so it is not recorded in the input log, and switches profiling on only
+     * while the overlay is shown.
      * @param k A KeyEvent passed in by processing.
      */
     public void keyPressed(KeyEvent k) {
-        if (gameState.gameEnded) {
+        if (k.getKeyCode() == OVERLAYKEY) {
+            overlay = !overlay;
+            if (overlay) {
+                if (profiler == null) {
+                    profiler = new Profiler();
+                }
+                gameState.profiler = profiler;
+            } else {
+                gameState.profiler = Profiler.DISABLED;
+                graphicsHandler.clearOverlay();
+            }
             return;
         }
-        if (keyHandler.handlePress(k.getKeyCode(), gameState.player, gameState.bombs, graphicsHandler, gameState.levelMap)) {
-            gameState.checkLoss(setup, graphicsHandler);
-            gameState.checkWin(setup, graphicsHandler);
-        }
+        queueKey(k.getKeyCode());
     }
 
     /**
-     * Calls methods in KeyHandler to reflect that the player has released a key.
+     * Queues a key release from the player, to be handled by KeyHandler
+     * before the next tick.
      * @param k A KeyEvent passed in by processing.
      */
     public void keyReleased(KeyEvent k) {
+        if (k.getKeyCode() != OVERLAYKEY) {
+            queueKey(~k.getKeyCode());
+        }
+    }
+
+    private void queueKey(int key) {
         if (gameState.gameEnded) {
             return;
         }
-        keyHandler.handleRelease(k.getKeyCode());
+        if (pendingCount == pendingKeys.length) {
+            pendingKeys = Arrays.copyOf(pendingKeys, 2 * pendingCount);
+        }
+        pendingKeys[pendingCount++] = key;
+    }
+
+    public void image(PImage img, float a, float b) {
+        drawCalls++;
+        super.image(img, a, b);
+    }
+
+    public void image(PImage img, float a, float b, float c, float d, int u1, int v1, int u2, int v2) {
+        drawCalls++;
+        super.image(img, a, b, c, d, u1, v1, u2, v2);
+    }
+
+    public void rect(float a, float b, float c, float d) {
+        drawCalls++;
+        super.rect(a, b, c, d);
+    }
+
+    public void text(String str, float x, float y) {
+        drawCalls++;
+        super.text(str, x, y);
+    }
+
+    public void text(int num, float x, float y) {
+        drawCalls++;
+        super.text(num, x, y);
+    }
+
+    public void text(char[] chars, int start, int stop, float x, float y) {
+        drawCalls++;
+        super.text(chars, start, stop, x, y);
+    }
+
+    /**
+     * Saves the session's input log so that it can be replayed, closes the
+     * level map and the config file, and if the overlay was shown, prints the
+     * time taken by each phase of the tick and frame while it was, then closes
+     * the app.
+     */
+    public void dispose() {
+        saveReplay(REPLAYFILE);
+        if ((gameState != null) && (gameState.levelMap != null)) {
+            gameState.levelMap.close();
+        }
+        if (setup != null) {
+            try {
+                setup.close();
+            } catch (IOException e) {
+                System.err.println("Warning: could not close the config file: " + e.getMessage());
+            }
+        }
+        if (profiler != null) {
+            System.out.print(profiler.report());
+        }
+        super.dispose();
+    }
+
+    /**
+     * Saves the session's input log, printing a warning if it cannot be
+     * written.
+     * @param path The file to save the log to.
+     * @return Whether the log was saved successfully.
+     */
+    public boolean saveReplay(String path) {
+        if (inputLog == null) {
+            return false;
+        }
+        try (OutputStream out = new FileOutputStream(path)) {
+            inputLog.write(out);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Warning: could not save the replay to " + path + ": " + e.getMessage());
+            return false;
+        }
     }
 
     /**
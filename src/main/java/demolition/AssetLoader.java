@@ -0,0 +1,270 @@
+package demolition;
+
+import processing.core.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * Loads the game's images and font concurrently on a pool of threads, as
+ * Processing's own requestImage does. Each asset is queued with a target
+ * that receives it; join waits for every asset to finish decoding and then
+ * hands them to their targets on the calling thread, in the order they were
+ * queued, so the targets can fill in ordinary lists and maps. The time taken
+ * to decode each asset is recorded for the load report, and as a flight
+ * recorder event. Sprites are taken from the SpriteAtlas when one has been
+ * built, so that the frames packed into it cost a single decode, and images
+ * can be read from a PixelCache of previously decoded pixels instead of
+ * being decoded at all.
+ */
+public class AssetLoader {
+
+    /**
+     * The default number of loading threads.
+     */
+    public static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * An asset being loaded, and where to deliver it.
+     */
+    private static final class Asset<T> {
+
+        final String path;
+        final FutureTask<T> task;
+        final Consumer<T> target;
+
+        /**
+         * The time taken to load the asset, in nanoseconds, or -1 if it has not finished.
+         */
+        volatile long nanos = -1;
+
+        Asset(String path, Callable<T> load, Consumer<T> target) {
+            this.path = path;
+            this.target = target;
+            this.task = new FutureTask<T>(() -> {
+                long start = System.nanoTime();
+                GameEvents.AssetLoad event = GameEvents.beginAssetLoad();
+                try {
+                    return load.call();
+                } finally {
+                    nanos = System.nanoTime() - start;
+                    GameEvents.endAssetLoad(event, path);
+                }
+            });
+        }
+
+        void deliver() throws InterruptedException, ExecutionException {
+            target.accept(task.get());
+        }
+
+    }
+
+    /**
+     * Hands a loaded asset to its target.
+     */
+    private interface Delivery {
+        void deliver() throws InterruptedException, ExecutionException;
+    }
+
+    private final PApplet app;
+    private final ExecutorService pool;
+    private final Executor executor;
+    private final List<Asset<?>> assets = new ArrayList<Asset<?>>();
+    private final List<Delivery> deliveries = new ArrayList<Delivery>();
+    private final long start;
+
+    /**
+     * The atlas sprites are taken from, or null if there is none.
+     */
+    private SpriteAtlas atlas;
+
+    /**
+     * The cache of decoded images, or null if every image is decoded.
+     */
+    private PixelCache cache;
+
+    /**
+     * The time from constructing the loader until every asset was delivered,
+     * in nanoseconds, or -1 until join has returned.
+     */
+    public long totalNanos = -1;
+
+    /**
+     * Constructs a new loader.
+     * @param app The app object, used to decode the assets.
+     * @param threads The number of loading threads, or 0 to load each asset
+     * on the calling thread as soon as it is queued.
+     */
+    public AssetLoader(PApplet app, int threads) {
+        this.app = app;
+        if (threads > 0) {
+            this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "asset-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = pool;
+        } else {
+            this.pool = null;
+            this.executor = Runnable::run;
+        }
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Queues an image to be loaded.
+     * @param path The path of the image file.
+     * @param target Receives the image, or null if it could not be loaded, when join is called.
+     */
+    public void image(String path, Consumer<PImage> target) {
+        PixelCache pixels = cache;
+        queue(new Asset<PImage>(path, () -> (pixels != null) ? pixels.load(app, path) : app.loadImage(path), target));
+    }
+
+    /**
+     * Loads images queued afterwards through a cache of decoded pixels.
+     * @param cache The cache.
+     */
+    public void cache(PixelCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Looks for a sprite atlas in a directory, and if there is one, queues
+     * its image to be loaded. Sprites queued afterwards are taken from the
+     * atlas where it has them.
+     * @param resourcePath The directory the atlas was written to.
+     * @return Whether an atlas was found.
+     * @throws UncheckedIOException If the atlas index cannot be read.
+     */
+    public boolean atlas(String resourcePath) {
+        try {
+            atlas = SpriteAtlas.read(resourcePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (atlas == null) {
+            return false;
+        }
+        SpriteAtlas loading = atlas;
+        image(resourcePath + "/" + SpriteAtlas.IMAGE, image -> loading.image = image);
+        return true;
+    }
+
+    /**
+     * Queues a sprite to be loaded, from the atlas if it has the sprite, or
+     * otherwise from its own image file.
+     * @param resourcePath The resources directory.
+     * @param name The path of the sprite's image file within the resources directory.
+     * @param target Receives the sprite when join is called.
+     * @throws IllegalStateException From join, if the image could not be loaded.
+     */
+    public void sprite(String resourcePath, String name, Consumer<Sprite> target) {
+        if ((atlas != null) && atlas.contains(name)) {
+            SpriteAtlas packed = atlas;
+            String path = resourcePath + "/" + SpriteAtlas.IMAGE;
+            // the atlas image is queued first, so it has been delivered by now
+            deliveries.add(() -> {
+                checkLoaded(packed.image, path);
+                target.accept(packed.sprite(name));
+            });
+        } else {
+            String path = resourcePath + "/" + name;
+            image(path, image -> target.accept(new Sprite(checkLoaded(image, path))));
+        }
+    }
+
+    /**
+     * @param image An image, or null if it could not be loaded.
+     * @param path The path it was loaded from.
+     * @return The image.
+     * @throws IllegalStateException If the image could not be loaded.
+     */
+    private static PImage checkLoaded(PImage image, String path) {
+        if (image == null) {
+            throw new IllegalStateException("Could not load the image " + path);
+        }
+        return image;
+    }
+
+    /**
+     * Queues a font to be loaded.
+     * @param path The path of the font file.
+     * @param size The size of the font.
+     * @param target Receives the font when join is called.
+     */
+    public void font(String path, int size, Consumer<PFont> target) {
+        queue(new Asset<PFont>(path, () -> app.createFont(path, size), target));
+    }
+
+    /**
+     * Waits for every queued asset to load, then delivers each to its target
+     * in the order they were queued. The loading threads are shut down, so
+     * no more assets can be queued afterwards.
+     * @throws RuntimeException If an asset could not be loaded.
+     */
+    public void join() {
+        try {
+            for (Delivery delivery : deliveries) {
+                delivery.deliver();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading assets", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to load an asset", e.getCause());
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        totalNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * @return The number of assets queued.
+     */
+    public int size() {
+        return assets.size();
+    }
+
+    /**
+     * @param i The index of an asset, in the order they were queued.
+     * @return The time taken to load the asset in nanoseconds, or -1 if it has not finished.
+     */
+    public long nanos(int i) {
+        return assets.get(i).nanos;
+    }
+
+    /**
+     * Describes the time taken to load each asset and in total. Because the
+     * assets load concurrently, the total is usually less than the sum.
+     * @return The report, one line per asset followed by the totals.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        long sum = 0;
+        for (Asset<?> asset : assets) {
+            sum += Math.max(asset.nanos, 0);
+            report.append(String.format("%8.1f ms  %s%n", asset.nanos / 1e6, asset.path));
+        }
+        report.append(String.format("Loaded %d assets in %.1f ms (%.1f ms of decoding)",
+            assets.size(), totalNanos / 1e6, sum / 1e6));
+        return report.toString();
+    }
+
+    private void queue(Asset<?> asset) {
+        assets.add(asset);
+        deliveries.add(asset::deliver);
+        executor.execute(asset.task);
+    }
+
+}
@@ -0,0 +1,110 @@
+package demolition;
+
+/**
+ * A set of tiles that need to be redrawn, over a fixed rectangle of tiles.
+ * Membership is kept in a bitset so that a tile marked several times in a
+ * frame is only redrawn once, and the marked tiles are also listed in the
+ * order they were first marked, so that iterating and clearing the set only
+ * touches those tiles. Nothing is allocated after construction.
+ */
+public class DirtyTiles {
+
+    /**
+     * The dimensions of the rectangle of tiles covered by the set.
+     */
+    public final int width, height;
+
+    /**
+     * One bit per tile, in row-major order, set if the tile is marked.
+     */
+    private final long[] bits;
+
+    /**
+     * The row-major positions of the marked tiles.
+     */
+    private final int[] tiles;
+
+    /**
+     * The number of marked tiles.
+     */
+    private int count;
+
+    /**
+     * Constructs an empty set.
+     * @param width The width of the rectangle in tiles.
+     * @param height The height of the rectangle in tiles.
+     */
+    public DirtyTiles(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(width * height + 63) / 64];
+        this.tiles = new int[width * height];
+    }
+
+    /**
+     * Marks a tile to be redrawn. Tiles outside the rectangle are ignored.
+     * @param x The x-coord of the tile within the rectangle.
+     * @param y The y-coord of the tile within the rectangle.
+     * @return Whether the tile was newly marked.
+     */
+    public boolean mark(int x, int y) {
+        if ((x < 0) || (x >= width) || (y < 0) || (y >= height)) {
+            return false;
+        }
+        int tile = y * width + x;
+        long bit = 1L << tile;
+        if ((bits[tile >>> 6] & bit) != 0) {
+            return false;
+        }
+        bits[tile >>> 6] |= bit;
+        tiles[count++] = tile;
+        return true;
+    }
+
+    /**
+     * @param x The x-coord of a tile within the rectangle.
+     * @param y The y-coord of a tile within the rectangle.
+     * @return Whether the tile is marked.
+     */
+    public boolean isMarked(int x, int y) {
+        if ((x < 0) || (x >= width) || (y < 0) || (y >= height)) {
+            return false;
+        }
+        int tile = y * width + x;
+        return (bits[tile >>> 6] & (1L << tile)) != 0;
+    }
+
+    /**
+     * @return The number of marked tiles.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param i The position of a marked tile in the order it was marked.
+     * @return The x-coord of the tile.
+     */
+    public int x(int i) {
+        return tiles[i] % width;
+    }
+
+    /**
+     * @param i The position of a marked tile in the order it was marked.
+     * @return The y-coord of the tile.
+     */
+    public int y(int i) {
+        return tiles[i] / width;
+    }
+
+    /**
+     * Unmarks every tile.
+     */
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            bits[tiles[i] >>> 6] = 0;
+        }
+        count = 0;
+    }
+
+}
@@ -5,6 +5,7 @@ import processing.data.*;
 import processing.event.*;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Scanner;
 import java.util.Stack;
@@ -14,24 +15,51 @@ import java.io.File;
 import java.io.FileNotFoundException;
 
 /**
- * A helper class for handling graphics. This includes storing and drawing images.
+ * A helper class for handling graphics. This includes storing and drawing
+ * images. GraphicsHandler is the renderer on top of the headless GameState:
+ * it picks each entity's image from its type, direction and animation state.
  */
-public class GraphicsHandler {
+public class GraphicsHandler implements GameListener {
 
     public static final int[] ORANGE = {239, 129, 0};
     public static final int[] GREEN = {75, 105, 47};
 
+    /**
+     * The number of tiles that fit on the screen below the UI.
+     */
+    public static final int VIEWWIDTH = App.WIDTH / App.TILESIZE;
+    public static final int VIEWHEIGHT = (App.HEIGHT - App.UPPEROFFSET) / App.TILESIZE;
+
+    /**
+     * The number of dirty tiles above which the whole view is redrawn at once
+     * instead of tile by tile.
+     */
+    public static final int FULLREDRAW = VIEWWIDTH * VIEWHEIGHT / 2;
+
+    /**
+     * The size of the performance overlay in the bottom left of the view, in
+     * tiles, and the size of its text.
+     */
+    public static final int OVERLAYWIDTH = 10;
+    public static final int OVERLAYHEIGHT = 2;
+    public static final int OVERLAYTEXT = 8;
+
     public App app;
 
+    /**
+     * A map of the animation cycles of the player.
+     */
+    public Map<Direction, ArrayList<Sprite>> playerFrames;
+
     /**
      * Maps of the animation cycles of each enemy type.
      */
-    public Map<Direction, ArrayList<PImage>> redFrames, yellowFrames;
+    public Map<Direction, ArrayList<Sprite>> redFrames, yellowFrames;
 
     /**
      * The animation cycle for bombs.
      */
-    public List<PImage> bombFrames;
+    public List<Sprite> bombFrames;
 
     /**
      * A map of all tile images.
@@ -41,7 +69,7 @@ public class GraphicsHandler {
     /**
      * A map of all explosion images.
      */
-    public Map<Direction, PImage> explosionFrames;
+    public Map<Direction, Sprite> explosionFrames;
 
     /**
      * Icons for the UI at the top of the screen.
@@ -54,17 +82,52 @@ public class GraphicsHandler {
     public Coordinates timeCoords;
 
     /**
-     * A stack used for storing the coordinates of tiles that need to be redrawn.
+     * The tiles on the screen that need to be redrawn, relative to the camera.
+     * The first row is the strip of the UI above the view, which the tops of
+     * character sprites on the top row of the view cover.
      */
-    public Stack<Coordinates> redrawTiles;
+    private final DirtyTiles dirtyTiles;
 
     /**
-     * Constructs the GraphicsHandler object. Initialises a new redrawTiles stack.
+     * The tiles within the camera's view, pre-rendered offscreen. Sprites are
+     * erased by copying regions of this layer, which is only re-rendered when
+     * the camera moves or the level changes, and is patched one tile at a
+     * time when a broken wall is destroyed.
+     */
+    public PGraphics backgroundLayer;
+
+    /**
+     * The level map and camera position the background layer was rendered for.
+     */
+    private TileGrid backgroundMap;
+    private int backgroundX, backgroundY;
+
+    /**
+     * The digits of the time drawn at the top of the screen, filled from the end.
+     */
+    private final char[] timeDigits = new char[11];
+
+    /**
+     * The map coordinates of the top-left tile on the screen. Maps larger than
+     * the screen are shown one screen at a time, flipping to the next screen
+     * when the player walks off the current one.
+     */
+    public int cameraX, cameraY;
+
+    /**
+     * The lines of the performance overlay, rebuilt once a second so that
+     * the figures are readable and cost no allocation on other frames.
+     */
+    private final String[] overlayLines = new String[4];
+    private int overlayFrames;
+
+    /**
+     * Constructs the GraphicsHandler object. Initialises a new set of dirty tiles.
      * @param app The app object.
      */
     public GraphicsHandler(App app) {
         this.app = app;
-        redrawTiles = new Stack<Coordinates>();
+        dirtyTiles = new DirtyTiles(VIEWWIDTH, VIEWHEIGHT + 1);
     }
 
     /**
@@ -72,15 +135,15 @@ public class GraphicsHandler {
      * @param levelMap The current level map.
      * @param player The Player object.
      */
-    public void drawLevel(Tile[][] levelMap, Player player) {
+    public void drawLevel(TileGrid levelMap, Player player) {
+
+        updateCamera(levelMap, player);
 
         app.fill(ORANGE[0], ORANGE[1], ORANGE[2]);
         app.stroke(ORANGE[0], ORANGE[1], ORANGE[2]);
         app.rect(0, 0, App.WIDTH, App.HEIGHT);
 
-        for (int i = 0; i < levelMap.length; i++)
-            for (int j = 0; j < levelMap[0].length; j++)
-                app.image(tileImages.get(levelMap[i][j]), j*App.TILESIZE, i*App.TILESIZE + App.UPPEROFFSET);
+        drawView(levelMap);
 
         // do upper ui
 
@@ -103,42 +166,220 @@ public class GraphicsHandler {
      * @param gameState The GameState object used in the app.
      */
     public void handleAllGraphics(GameState gameState) {
+        Profiler profiler = gameState.profiler;
+        long start = profiler.start();
+        if (updateCamera(gameState.levelMap, gameState.player)) {
+            dirtyTiles.clear();
+            drawLevel(gameState.levelMap, gameState.player);
+        }
+        long time = profiler.lap(Profiler.CAMERA, start);
         redrawTiles(gameState.levelMap);
+        time = profiler.lap(Profiler.REDRAW, time);
         drawPlayer(gameState.player);
+        time = profiler.lap(Profiler.DRAWPLAYER, time);
         drawEnemies(gameState.enemies);
+        if (gameState.enemyStore != null) {
+            drawEnemies(gameState.enemyStore);
+        }
+        time = profiler.lap(Profiler.DRAWENEMIES, time);
         drawBombs(gameState.bombs);
+        time = profiler.lap(Profiler.DRAWBOMBS, time);
         drawExplosions(gameState.explosions);
+        time = profiler.lap(Profiler.DRAWEXPLOSIONS, time);
         drawTime(gameState.timeLeft);
+        profiler.lap(Profiler.DRAWTIME, time);
+        profiler.lap(Profiler.FRAME, start);
+    }
+
+    /**
+     * Draws the performance overlay over the bottom left of the view: the
+     * median and 99th percentile tick and frame times, the draw calls in the
+     * frame, the number of slow ticks and the number of each entity. The
+     * figures are refreshed once a second from the profiler, which then
+     * starts a new window so that they cover only the last second. The tiles
+     * beneath the overlay are marked dirty, so it disappears when no longer
+     * drawn.
+     * @param gameState The GameState object used in the app.
+     * @param drawCalls The number of draw calls made for the frame.
+     */
+    public void drawOverlay(GameState gameState, int drawCalls) {
+        if (overlayFrames++ % App.FPS == 0) {
+            Profiler profiler = gameState.profiler;
+            LatencyHistogram tick = profiler.histogram(Profiler.TICK);
+            LatencyHistogram frame = profiler.histogram(Profiler.FRAME);
+            int enemies = gameState.enemies.size() + ((gameState.enemyStore != null) ? gameState.enemyStore.size : 0);
+            overlayLines[0] = String.format("tick  p50 %.3f p99 %.3f ms", tick.percentile(50) / 1e6, tick.percentile(99) / 1e6);
+            overlayLines[1] = String.format("frame p50 %.3f p99 %.3f ms", frame.percentile(50) / 1e6, frame.percentile(99) / 1e6);
+            overlayLines[2] = String.format("draws %d  slow ticks %d", drawCalls, profiler.overBudget);
+            overlayLines[3] = String.format("enemies %d bombs %d expl %d", enemies, gameState.bombs.size(), gameState.explosions.size());
+            profiler.newWindow();
+        }
+        int top = App.HEIGHT - OVERLAYHEIGHT * App.TILESIZE;
+        app.fill(0, 0, 0);
+        app.stroke(0, 0, 0);
+        app.rect(0, top, OVERLAYWIDTH * App.TILESIZE, OVERLAYHEIGHT * App.TILESIZE);
+        app.fill(255, 255, 255);
+        app.textSize(OVERLAYTEXT);
+        for (int i = 0; i < overlayLines.length; i++) {
+            app.text(overlayLines[i], 4, top + (i + 1) * (OVERLAYTEXT + 6));
+        }
+        app.textSize(App.FONTSIZE);
+        clearOverlay();
+    }
+
+    /**
+     * Marks the tiles beneath the performance overlay to be redrawn.
+     */
+    public void clearOverlay() {
+        for (int i = VIEWHEIGHT - OVERLAYHEIGHT; i < VIEWHEIGHT; i++)
+            for (int j = 0; j < OVERLAYWIDTH; j++)
+                addRedraw(cameraX + j, cameraY + i);
     }
 
     /**
-     * Based on the redrawTiles stack, redraws tiles that were previously covered by entities.
+     * Based on the set of dirty tiles, redraws tiles that were previously
+     * covered by entities by copying them from the background layer. Each
+     * tile is redrawn at most once, and if most of the view is dirty the
+     * whole layer is drawn at once.
      * @param levelMap The current level map.
      */
-    public void redrawTiles(Tile[][] levelMap) {
+    public void redrawTiles(TileGrid levelMap) {
 
         app.fill(ORANGE[0], ORANGE[1], ORANGE[2]);
         app.stroke(ORANGE[0], ORANGE[1], ORANGE[2]);
 
-        Coordinates tempCoords;
-        while (redrawTiles.size() > 0) {
-            tempCoords = redrawTiles.pop();
+        boolean fullRedraw = dirtyTiles.size() > FULLREDRAW;
+        if (fullRedraw) {
+            drawView(levelMap);
+        } else {
+            updateBackground(levelMap);
+        }
 
-            if (tempCoords.y < 0) {
-                app.rect(tempCoords.x * App.TILESIZE, tempCoords.y * App.TILESIZE + App.UPPEROFFSET, App.TILESIZE, App.TILESIZE);
-            } else {
-                app.image(tileImages.get(levelMap[tempCoords.y][tempCoords.x]), tempCoords.x * App.TILESIZE, tempCoords.y * App.TILESIZE + App.UPPEROFFSET);
+        for (int i = 0; i < dirtyTiles.size(); i++) {
+            int x = cameraX + dirtyTiles.x(i);
+            int y = cameraY - 1 + dirtyTiles.y(i);
+
+            if (y == cameraY - 1) {
+                // the top of a character sprite that covered the UI
+                app.rect(screenX(x), screenY(y), App.TILESIZE, App.TILESIZE);
+            } else if (!fullRedraw) {
+                int u = (x - cameraX) * App.TILESIZE;
+                int v = (y - cameraY) * App.TILESIZE;
+                app.image(backgroundLayer, screenX(x), screenY(y), App.TILESIZE, App.TILESIZE,
+                    u, v, u + App.TILESIZE, v + App.TILESIZE);
             }
         }
+        dirtyTiles.clear();
 
     }
 
+    /**
+     * Draws every tile of the level map within the camera's view, as a single
+     * image from the background layer.
+     * @param levelMap The current level map.
+     */
+    public void drawView(TileGrid levelMap) {
+        updateBackground(levelMap);
+        app.image(backgroundLayer, 0, App.UPPEROFFSET);
+    }
+
+    /**
+     * Renders the tiles within the camera's view into the background layer,
+     * unless it is already up to date. This also registers the handler to be
+     * notified of changes to the level map.
+     * @param levelMap The current level map.
+     */
+    public void updateBackground(TileGrid levelMap) {
+        if (backgroundLayer == null) {
+            backgroundLayer = app.createGraphics(VIEWWIDTH * App.TILESIZE, VIEWHEIGHT * App.TILESIZE);
+        } else if ((levelMap == backgroundMap) && (cameraX == backgroundX) && (cameraY == backgroundY)) {
+            return;
+        }
+        backgroundMap = levelMap;
+        backgroundX = cameraX;
+        backgroundY = cameraY;
+        levelMap.listener = this;
+
+        backgroundLayer.beginDraw();
+        backgroundLayer.background(ORANGE[0], ORANGE[1], ORANGE[2]);
+        int rows = Math.min(levelMap.height, cameraY + VIEWHEIGHT);
+        int columns = Math.min(levelMap.width, cameraX + VIEWWIDTH);
+        for (int i = cameraY; i < rows; i++)
+            for (int j = cameraX; j < columns; j++)
+                backgroundLayer.image(tileImages.get(levelMap.get(j, i)), (j - cameraX) * App.TILESIZE, (i - cameraY) * App.TILESIZE);
+        backgroundLayer.endDraw();
+    }
+
+    /**
+     * Marks a tile to be redrawn at the start of the next frame. Tiles off
+     * the screen are ignored, and marking a tile twice has no further effect.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     */
+    public void addRedraw(int x, int y) {
+        dirtyTiles.mark(x - cameraX, y - cameraY + 1);
+    }
+
+    /**
+     * @return The number of distinct tiles waiting to be redrawn.
+     */
+    public int pendingRedraws() {
+        return dirtyTiles.size();
+    }
+
+    /**
+     * Moves the camera to the screen containing the player.
+     * @param levelMap The current level map.
+     * @param player The Player object.
+     * @return Whether the camera has moved.
+     */
+    public boolean updateCamera(TileGrid levelMap, Player player) {
+        int newX = cameraPosition(player.x, levelMap.width, VIEWWIDTH);
+        int newY = cameraPosition(player.y, levelMap.height, VIEWHEIGHT);
+        boolean moved = (newX != cameraX) || (newY != cameraY);
+        cameraX = newX;
+        cameraY = newY;
+        return moved;
+    }
+
+    private static int cameraPosition(int position, int mapSize, int viewSize) {
+        int page = (Math.max(position, 0) / viewSize) * viewSize;
+        return Math.max(0, Math.min(page, mapSize - viewSize));
+    }
+
+    /**
+     * Checks whether a tile is on the screen.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @return Whether the tile is within the camera's view.
+     */
+    public boolean inView(int x, int y) {
+        return (cameraX <= x) && (x < cameraX + VIEWWIDTH) && (cameraY <= y) && (y < cameraY + VIEWHEIGHT);
+    }
+
+    /**
+     * @param x The x-coord of a tile.
+     * @return The x pixel at which the tile is drawn on the screen.
+     */
+    public int screenX(int x) {
+        return (x - cameraX) * App.TILESIZE;
+    }
+
+    /**
+     * @param y The y-coord of a tile.
+     * @return The y pixel at which the tile is drawn on the screen.
+     */
+    public int screenY(int y) {
+        return (y - cameraY) * App.TILESIZE + App.UPPEROFFSET;
+    }
+
     /**
      * Draws the player.
      * @param player The Player object.
      */
     public void drawPlayer(Player player) {
-        addCharRedraw(player.draw(app));
+        drawCharacter(player, playerFrames);
+        addCharRedraw(player.x, player.y);
     }
 
     /**
@@ -146,8 +387,23 @@ public class GraphicsHandler {
      * @param enemies The List of enemies currently in the game.
      */
     public void drawEnemies(List<Character> enemies) {
-        for (Character enemy : enemies) {
-            addCharRedraw(enemy.draw(app));
+        for (int i = 0; i < enemies.size(); i++) {
+            Character enemy = enemies.get(i);
+            drawCharacter(enemy, enemyFrames(enemy));
+            addCharRedraw(enemy.x, enemy.y);
+        }
+    }
+
+    /**
+     * Draws the enemies held in a struct-of-arrays store.
+     * @param enemyStore The store of enemies currently in the game.
+     */
+    public void drawEnemies(EnemyStore enemyStore) {
+        for (int i = 0; i < enemyStore.size; i++) {
+            Map<Direction, ArrayList<Sprite>> frames = (enemyStore.type[i] == EnemyStore.YELLOW) ? yellowFrames : redFrames;
+            Sprite frame = frames.get(enemyStore.direction(i)).get(enemyStore.animationState(i));
+            drawCharacter(frame, enemyStore.x[i], enemyStore.y[i]);
+            addCharRedraw(enemyStore.x[i], enemyStore.y[i]);
         }
     }
 
@@ -156,8 +412,10 @@ public class GraphicsHandler {
      * @param bombs The List of bombs currently in the game.
      */
     public void drawBombs(List<Bomb> bombs) {
-        for (Bomb bomb : bombs) {
-            redrawTiles.push(bomb.draw(app));
+        for (int i = 0; i < bombs.size(); i++) {
+            Bomb bomb = bombs.get(i);
+            drawEntity(bombFrames.get(bomb.getAnimationState()), bomb);
+            addRedraw(bomb.x, bomb.y);
         }
     }
 
@@ -166,32 +424,128 @@ public class GraphicsHandler {
      * @param explosions The List of explosions currently in the game.
      */
     public void drawExplosions(List<Explosion> explosions) {
-        for (Explosion explosion : explosions) {
-            redrawTiles.push(explosion.draw(app));
+        for (int i = 0; i < explosions.size(); i++) {
+            Explosion explosion = explosions.get(i);
+            drawEntity(explosionFrames.get(explosion.dir), explosion);
+            addRedraw(explosion.x, explosion.y);
         }
     }
 
     /**
-     * Draws the new time to the top of the screen.
+     * Draws a single-tile entity's sprite at its current position.
+     * @param sprite The sprite to draw.
+     * @param entity The entity being drawn.
+     */
+    public void drawEntity(Sprite sprite, Entity entity) {
+        if (inView(entity.x, entity.y)) {
+            sprite.draw(app, screenX(entity.x), screenY(entity.y));
+        }
+    }
+
+    /**
+     * Draws a character's current frame at its current position. Character
+     * sprites are taller than a tile, so they extend into the tile above.
+     * @param character The character being drawn.
+     * @param frames The animation cycles of the character's type.
+     */
+    public void drawCharacter(Character character, Map<Direction, ArrayList<Sprite>> frames) {
+        drawCharacter(frames.get(character.dir).get(character.getAnimationState()), character.x, character.y);
+    }
+
+    /**
+     * Draws a character sprite standing on the given tile.
+     * @param frame The frame to draw.
+     * @param x The x-coord of the character.
+     * @param y The y-coord of the character.
+     */
+    public void drawCharacter(Sprite frame, int x, int y) {
+        if (inView(x, y)) {
+            frame.draw(app, screenX(x), screenY(y + 1) - App.CHARHEIGHT);
+        }
+    }
+
+    /**
+     * @param enemy An enemy in the game.
+     * @return The animation cycles used to draw the enemy's type.
+     */
+    public Map<Direction, ArrayList<Sprite>> enemyFrames(Character enemy) {
+        if (enemy instanceof YellowEnemy) {
+            return yellowFrames;
+        }
+        return redFrames;
+    }
+
+    /**
+     * Draws the new time to the top of the screen. The digits are written
+     * into a reused buffer rather than a new String every frame.
      * @param timeLeft The current time remaining.
      */
     public void drawTime(int timeLeft) {
+        int seconds = Math.max((int) (timeLeft/60), 0);
+        int start = timeDigits.length;
+        do {
+            timeDigits[--start] = (char) ('0' + seconds % 10);
+            seconds /= 10;
+        } while (seconds > 0);
         app.fill(ORANGE[0], ORANGE[1], ORANGE[2]);
         app.stroke(ORANGE[0], ORANGE[1], ORANGE[2]);
         app.rect(timeCoords.x, timeCoords.y - App.FONTSIZE, App.WIDTH, App.FONTSIZE);
         app.fill(0, 0, 0);
-        app.text((int) (timeLeft/60), timeCoords.x, timeCoords.y);
+        app.text(timeDigits, start, timeDigits.length, timeCoords.x, timeCoords.y);
     }
 
     /**
      * Used when the tiles beneath a character need to be redrawn, to account
      * for the additional height of character sprites that occupies another tile.
-     * @param coords The coordinates of the relevant character.
+     * @param x The x-coord of the relevant character.
+     * @param y The y-coord of the relevant character.
+     */
+    public void addCharRedraw(int x, int y) {
+        addRedraw(x, y);
+        addRedraw(x, y-1);
+    }
+
+    /**
+     * Redraws a tile that has changed, into the cached background layer if
+     * the tile is in view of it, and marks it dirty.
+     * @param x The x-coord of the tile.
+     * @param y The y-coord of the tile.
+     * @param tile The new tile.
+     */
+    @Override
+    public void tileChanged(int x, int y, Tile tile) {
+        if ((backgroundLayer != null) && (cameraX == backgroundX) && (cameraY == backgroundY) && inView(x, y)) {
+            backgroundLayer.beginDraw();
+            backgroundLayer.image(tileImages.get(tile), (x - cameraX) * App.TILESIZE, (y - cameraY) * App.TILESIZE);
+            backgroundLayer.endDraw();
+        }
+        addRedraw(x, y);
+    }
+
+    /**
+     * Discards the dirty tiles and draws the new level in full.
+     * @param gameState The GameState whose level was reset.
+     */
+    @Override
+    public void levelReset(GameState gameState) {
+        dirtyTiles.clear();
+        drawLevel(gameState.levelMap, gameState.player);
+    }
+
+    /**
+     * Displays the win screen once the final level is won.
+     */
+    @Override
+    public void gameWon() {
+        displayWin();
+    }
+
+    /**
+     * Displays the loss screen once the player runs out of lives.
      */
-    public void addCharRedraw(Coordinates coords) {
-        redrawTiles.push(coords);
-        Coordinates upperCoords = new Coordinates(coords.x, coords.y-1);
-        redrawTiles.push(upperCoords);
+    @Override
+    public void gameLost() {
+        displayLoss();
     }
 
     /**
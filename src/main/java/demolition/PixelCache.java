@@ -0,0 +1,164 @@
+package demolition;
+
+import processing.core.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * An on-disk cache of decoded images, so that later launches skip PNG
+ * decoding. Each entry holds an image's raw ARGB pixels in the machine's
+ * native byte order, behind a short header, and is named after the SHA-256
+ * hash of the source file's contents. Loading an image hashes its file and
+ * maps the matching entry straight into the image's pixel array; if there is
+ * no entry, the image is decoded as usual and an entry is written for next
+ * time. A changed file has a different hash, so stale entries are never
+ * used. The cache is only an optimisation, so entries that cannot be read
+ * or written are ignored. It is safe to use from several threads at once.
+ */
+public class PixelCache {
+
+    /**
+     * The default cache directory, relative to the working directory.
+     */
+    public static final String CACHEPATH = ".sprite-cache";
+
+    /**
+     * Identifies an entry, and in which byte order it was written.
+     */
+    public static final int MAGIC = 0x44504958;
+
+    /**
+     * The size of an entry's header: the magic number, width, height and format.
+     */
+    private static final int HEADER = 16;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * The cache directory.
+     */
+    public final Path directory;
+
+    /**
+     * Constructs a cache in the given directory, which is created when the
+     * first entry is written.
+     * @param directory The cache directory.
+     */
+    public PixelCache(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Loads an image, from the cache if it holds the file's current contents,
+     * or otherwise by decoding it and adding it to the cache.
+     * @param app The app object, used to decode images that are not cached.
+     * @param path The path of the image file.
+     * @return The image, or null if it could not be loaded.
+     */
+    public PImage load(PApplet app, String path) {
+        Path entry;
+        try {
+            entry = entry(path);
+        } catch (IOException e) {
+            return app.loadImage(path);
+        }
+        PImage image = read(entry);
+        if (image != null) {
+            return image;
+        }
+        image = app.loadImage(path);
+        if ((image != null) && (image.width > 0)) {
+            write(entry, image);
+        }
+        return image;
+    }
+
+    /**
+     * Finds the entry for an image file's current contents.
+     * @param path The path of the image file.
+     * @return The path of the entry, which may not exist yet.
+     * @throws IOException If the image file cannot be read.
+     */
+    public Path entry(String path) throws IOException {
+        byte[] contents = Files.readAllBytes(Paths.get(path));
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(contents);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        char[] name = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            name[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+            name[2 * i + 1] = HEX[hash[i] & 0xf];
+        }
+        return directory.resolve(new String(name) + ".argb");
+    }
+
+    /**
+     * Reads an entry by mapping it into memory.
+     * @param entry The path of the entry.
+     * @return The cached image, or null if the entry is missing or invalid.
+     */
+    private static PImage read(Path entry) {
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            int width = buffer.getInt(4);
+            int height = buffer.getInt(8);
+            if ((buffer.getInt(0) != MAGIC) || (width <= 0) || (height <= 0)
+                || (size != HEADER + 4L * width * height)) {
+                return null;
+            }
+            PImage image = new PImage(width, height, buffer.getInt(12));
+            buffer.position(HEADER);
+            IntBuffer pixels = buffer.slice().order(ByteOrder.nativeOrder()).asIntBuffer();
+            pixels.get(image.pixels);
+            return image;
+        } catch (IOException e) {
+            // a missing or unreadable entry is decoded again
+            return null;
+        }
+    }
+
+    /**
+     * Writes an entry, replacing it atomically so that readers never see a
+     * partial entry.
+     * @param entry The path of the entry.
+     * @param image The decoded image.
+     */
+    private void write(Path entry, PImage image) {
+        image.loadPixels();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + 4 * image.pixels.length).order(ByteOrder.nativeOrder());
+        buffer.putInt(MAGIC).putInt(image.width).putInt(image.height).putInt(image.format);
+        buffer.asIntBuffer().put(image.pixels);
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+            try {
+                Files.write(temporary, buffer.array());
+                Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            // the image is simply decoded again next time
+        }
+    }
+
+}
@@ -6,28 +6,21 @@ import processing.event.*;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.LinkedList;
-import java.util.Scanner;
 import java.util.Stack;
 import java.util.Map;
 import java.util.HashMap;
-import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * A helper class for setting up the game, including loading images and the
- * config file.
+ * config file. The level configuration parsed from the config file is
+ * inherited from GameConfig, so Setup can be passed straight to GameState.
+ * Each set of images can be loaded straight away, or queued on an
+ * AssetLoader so that every image is decoded concurrently.
  */
-public class Setup {
-
-    /**
-     * The list of level file names.
-     */
-    public List<String> levelFiles;
-
-    /**
-     * The list of level times, corresponding with the file names.
-     */
-    public List<Integer> levelTimes;
+public class Setup extends GameConfig {
 
     /**
      * The font used in the game.
@@ -36,33 +29,54 @@ public class Setup {
 
     public static final String RESOURCEPATH = "src/main/resources";
 
+    /**
+     * The directory the Gradle atlas task writes the sprite atlas to. Like
+     * RESOURCEPATH, it is relative to the project directory the game is run from.
+     */
+    public static final String ATLASPATH = "build/generated-resources";
+
     public Setup() {
     }
 
     /**
      * Sets up the player, including loading the image files.
      * @param app The app object.
+     * @param graphicsHandler The GraphicsHandler object used in the app.
      * @return The initialised Player object.
      */
-    public Player player(App app) {
+    public Player player(App app, GraphicsHandler graphicsHandler) {
+        AssetLoader loader = new AssetLoader(app, 0);
+        Player player = player(graphicsHandler, loader);
+        loader.join();
+        return player;
+    }
 
-        Map<Direction, ArrayList<PImage>> frames = new HashMap<Direction, ArrayList<PImage>>();
+    /**
+     * Sets up the player, queueing the image files to be loaded.
+     * @param graphicsHandler The GraphicsHandler object used in the app.
+     * @param loader The loader the images are queued on.
+     * @return The initialised Player object.
+     */
+    public Player player(GraphicsHandler graphicsHandler, AssetLoader loader) {
 
-        frames.put(Direction.UP, new ArrayList<PImage>());
-        frames.put(Direction.DOWN, new ArrayList<PImage>());
-        frames.put(Direction.LEFT, new ArrayList<PImage>());
-        frames.put(Direction.RIGHT, new ArrayList<PImage>());
+        Map<Direction, ArrayList<Sprite>> frames = new HashMap<Direction, ArrayList<Sprite>>();
 
-        String path = RESOURCEPATH + "/player/player";
+        frames.put(Direction.UP, new ArrayList<Sprite>());
+        frames.put(Direction.DOWN, new ArrayList<Sprite>());
+        frames.put(Direction.LEFT, new ArrayList<Sprite>());
+        frames.put(Direction.RIGHT, new ArrayList<Sprite>());
+
+        String path = "player/player";
 
         for (int i = 1; i < 5; i++) {
-            frames.get(Direction.UP).add(app.loadImage(String.format("%s_up%d.png", path, i)));
-            frames.get(Direction.DOWN).add(app.loadImage(String.format("%s%d.png", path, i)));
-            frames.get(Direction.LEFT).add(app.loadImage(String.format("%s_left%d.png", path, i)));
-            frames.get(Direction.RIGHT).add(app.loadImage(String.format("%s_right%d.png", path, i)));
+            loader.sprite(RESOURCEPATH, String.format("%s_up%d.png", path, i), frames.get(Direction.UP)::add);
+            loader.sprite(RESOURCEPATH, String.format("%s%d.png", path, i), frames.get(Direction.DOWN)::add);
+            loader.sprite(RESOURCEPATH, String.format("%s_left%d.png", path, i), frames.get(Direction.LEFT)::add);
+            loader.sprite(RESOURCEPATH, String.format("%s_right%d.png", path, i), frames.get(Direction.RIGHT)::add);
         }
 
-        return new Player(frames);
+        graphicsHandler.playerFrames = frames;
+        return new Player();
 
     }
 
@@ -73,32 +87,45 @@ public class Setup {
      * @return A new, empty list used for enemies.
      */
     public List<Character> enemies(App app, GraphicsHandler graphicsHandler) {
+        AssetLoader loader = new AssetLoader(app, 0);
+        List<Character> enemies = enemies(graphicsHandler, loader);
+        loader.join();
+        return enemies;
+    }
 
-        graphicsHandler.redFrames = new HashMap<Direction, ArrayList<PImage>>();
-        graphicsHandler.yellowFrames = new HashMap<Direction, ArrayList<PImage>>();
+    /**
+     * Sets up the enemy animation frames, queueing the image files to be loaded.
+     * @param graphicsHandler The GraphicsHandler object used in the app.
+     * @param loader The loader the images are queued on.
+     * @return A new, empty list used for enemies.
+     */
+    public List<Character> enemies(GraphicsHandler graphicsHandler, AssetLoader loader) {
 
-        graphicsHandler.redFrames.put(Direction.UP, new ArrayList<PImage>());
-        graphicsHandler.redFrames.put(Direction.DOWN, new ArrayList<PImage>());
-        graphicsHandler.redFrames.put(Direction.LEFT, new ArrayList<PImage>());
-        graphicsHandler.redFrames.put(Direction.RIGHT, new ArrayList<PImage>());
+        graphicsHandler.redFrames = new HashMap<Direction, ArrayList<Sprite>>();
+        graphicsHandler.yellowFrames = new HashMap<Direction, ArrayList<Sprite>>();
 
-        graphicsHandler.yellowFrames.put(Direction.UP, new ArrayList<PImage>());
-        graphicsHandler.yellowFrames.put(Direction.DOWN, new ArrayList<PImage>());
-        graphicsHandler.yellowFrames.put(Direction.LEFT, new ArrayList<PImage>());
-        graphicsHandler.yellowFrames.put(Direction.RIGHT, new ArrayList<PImage>());
+        graphicsHandler.redFrames.put(Direction.UP, new ArrayList<Sprite>());
+        graphicsHandler.redFrames.put(Direction.DOWN, new ArrayList<Sprite>());
+        graphicsHandler.redFrames.put(Direction.LEFT, new ArrayList<Sprite>());
+        graphicsHandler.redFrames.put(Direction.RIGHT, new ArrayList<Sprite>());
 
-        String redPath = RESOURCEPATH + "/red_enemy/red_";
-        String yellowPath = RESOURCEPATH + "/yellow_enemy/yellow_";
+        graphicsHandler.yellowFrames.put(Direction.UP, new ArrayList<Sprite>());
+        graphicsHandler.yellowFrames.put(Direction.DOWN, new ArrayList<Sprite>());
+        graphicsHandler.yellowFrames.put(Direction.LEFT, new ArrayList<Sprite>());
+        graphicsHandler.yellowFrames.put(Direction.RIGHT, new ArrayList<Sprite>());
+
+        String redPath = "red_enemy/red_";
+        String yellowPath = "yellow_enemy/yellow_";
 
         for (int i = 1; i < 5; i++) {
-            graphicsHandler.redFrames.get(Direction.UP).add(app.loadImage(String.format("%sup%d.png", redPath, i)));
-            graphicsHandler.redFrames.get(Direction.DOWN).add(app.loadImage(String.format("%sdown%d.png", redPath, i)));
-            graphicsHandler.redFrames.get(Direction.LEFT).add(app.loadImage(String.format("%sleft%d.png", redPath, i)));
-            graphicsHandler.redFrames.get(Direction.RIGHT).add(app.loadImage(String.format("%sright%d.png", redPath, i)));
-            graphicsHandler.yellowFrames.get(Direction.UP).add(app.loadImage(String.format("%sup%d.png", yellowPath, i)));
-            graphicsHandler.yellowFrames.get(Direction.DOWN).add(app.loadImage(String.format("%sdown%d.png", yellowPath, i)));
-            graphicsHandler.yellowFrames.get(Direction.LEFT).add(app.loadImage(String.format("%sleft%d.png", yellowPath, i)));
-            graphicsHandler.yellowFrames.get(Direction.RIGHT).add(app.loadImage(String.format("%sright%d.png", yellowPath, i)));
+            loader.sprite(RESOURCEPATH, String.format("%sup%d.png", redPath, i), graphicsHandler.redFrames.get(Direction.UP)::add);
+            loader.sprite(RESOURCEPATH, String.format("%sdown%d.png", redPath, i), graphicsHandler.redFrames.get(Direction.DOWN)::add);
+            loader.sprite(RESOURCEPATH, String.format("%sleft%d.png", redPath, i), graphicsHandler.redFrames.get(Direction.LEFT)::add);
+            loader.sprite(RESOURCEPATH, String.format("%sright%d.png", redPath, i), graphicsHandler.redFrames.get(Direction.RIGHT)::add);
+            loader.sprite(RESOURCEPATH, String.format("%sup%d.png", yellowPath, i), graphicsHandler.yellowFrames.get(Direction.UP)::add);
+            loader.sprite(RESOURCEPATH, String.format("%sdown%d.png", yellowPath, i), graphicsHandler.yellowFrames.get(Direction.DOWN)::add);
+            loader.sprite(RESOURCEPATH, String.format("%sleft%d.png", yellowPath, i), graphicsHandler.yellowFrames.get(Direction.LEFT)::add);
+            loader.sprite(RESOURCEPATH, String.format("%sright%d.png", yellowPath, i), graphicsHandler.yellowFrames.get(Direction.RIGHT)::add);
         }
 
         return new ArrayList<Character>();
@@ -112,13 +139,26 @@ public class Setup {
      * @return A new, empty list used for bombs.
      */
     public List<Bomb> bombs(App app, GraphicsHandler graphicsHandler) {
-        graphicsHandler.bombFrames = new ArrayList<PImage>();
-        graphicsHandler.bombFrames.add(app.loadImage(RESOURCEPATH + "/bomb/bomb.png"));
+        AssetLoader loader = new AssetLoader(app, 0);
+        List<Bomb> bombs = bombs(graphicsHandler, loader);
+        loader.join();
+        return bombs;
+    }
+
+    /**
+     * Sets up the bomb animation frames, queueing the image files to be loaded.
+     * @param graphicsHandler The GraphicsHandler object used in the app.
+     * @param loader The loader the images are queued on.
+     * @return A new, empty list used for bombs.
+     */
+    public List<Bomb> bombs(GraphicsHandler graphicsHandler, AssetLoader loader) {
+        graphicsHandler.bombFrames = new ArrayList<Sprite>();
+        loader.sprite(RESOURCEPATH, "bomb/bomb.png", graphicsHandler.bombFrames::add);
 
         for (int i = 1; i < 9; i++) {
-            graphicsHandler.bombFrames.add(app.loadImage(String.format("%s/bomb/bomb%d.png", RESOURCEPATH, i)));
+            loader.sprite(RESOURCEPATH, String.format("bomb/bomb%d.png", i), graphicsHandler.bombFrames::add);
         }
-        return new LinkedList<Bomb>();
+        return new ArrayList<Bomb>();
     }
 
     /**
@@ -128,23 +168,38 @@ public class Setup {
      * @return A new, empty list used for explosions.
      */
     public List<Explosion> explosions(App app, GraphicsHandler graphicsHandler) {
-        String exPath = RESOURCEPATH + "/explosion/";
-
-        graphicsHandler.explosionFrames = new HashMap<Direction, PImage>();
-        graphicsHandler.explosionFrames.put(Direction.CENTRE, app.loadImage(exPath + "centre.png"));
-        graphicsHandler.explosionFrames.put(Direction.VERTICAL, app.loadImage(exPath + "vertical.png"));
-        graphicsHandler.explosionFrames.put(Direction.HORIZONTAL, app.loadImage(exPath + "horizontal.png"));
-        graphicsHandler.explosionFrames.put(Direction.UP, app.loadImage(exPath + "end_top.png"));
-        graphicsHandler.explosionFrames.put(Direction.DOWN, app.loadImage(exPath + "end_bottom.png"));
-        graphicsHandler.explosionFrames.put(Direction.LEFT, app.loadImage(exPath + "end_left.png"));
-        graphicsHandler.explosionFrames.put(Direction.RIGHT, app.loadImage(exPath + "end_right.png"));
-
-        return new LinkedList<Explosion>();
+        AssetLoader loader = new AssetLoader(app, 0);
+        List<Explosion> explosions = explosions(graphicsHandler, loader);
+        loader.join();
+        return explosions;
+    }
+
+    /**
+     * Sets up the explosion images, queueing the image files to be loaded.
+     * @param graphicsHandler The GraphicsHandler object used in the app.
+     * @param loader The loader the images are queued on.
+     * @return A new, empty list used for explosions.
+     */
+    public List<Explosion> explosions(GraphicsHandler graphicsHandler, AssetLoader loader) {
+        String exPath = "explosion/";
+
+        Map<Direction, Sprite> frames = new HashMap<Direction, Sprite>();
+        graphicsHandler.explosionFrames = frames;
+        loader.sprite(RESOURCEPATH, exPath + "centre.png", sprite -> frames.put(Direction.CENTRE, sprite));
+        loader.sprite(RESOURCEPATH, exPath + "vertical.png", sprite -> frames.put(Direction.VERTICAL, sprite));
+        loader.sprite(RESOURCEPATH, exPath + "horizontal.png", sprite -> frames.put(Direction.HORIZONTAL, sprite));
+        loader.sprite(RESOURCEPATH, exPath + "end_top.png", sprite -> frames.put(Direction.UP, sprite));
+        loader.sprite(RESOURCEPATH, exPath + "end_bottom.png", sprite -> frames.put(Direction.DOWN, sprite));
+        loader.sprite(RESOURCEPATH, exPath + "end_left.png", sprite -> frames.put(Direction.LEFT, sprite));
+        loader.sprite(RESOURCEPATH, exPath + "end_right.png", sprite -> frames.put(Direction.RIGHT, sprite));
+
+        return new ArrayList<Explosion>();
     }
 
     /**
-     * Loads the JSON data from the config.json file. This includes loading
-     * level file names, level times and the player's lives.
+     * Loads the JSON data from the config.json file. The player's lives are
+     * read straight away, while each level's file name, time and optional
+     * dimensions are streamed from the file when the game first reaches it.
      * @param player The Player object.
      * @param filePathExtension A path prefix for loading the config file. Only used in testing.
      * @return Whether the loading of the config file was successful.
@@ -152,33 +207,16 @@ public class Setup {
     public boolean parseJSON(Player player, String filePathExtension) {
         try {
 
-            File f = new File(filePathExtension + "config.json");
-            Scanner scan = new Scanner(f);
-            String plainText = "";
-
-            while (scan.hasNextLine()) {
-                plainText += scan.nextLine() + "\n";
-            }
-
-            JSONObject data = JSONObject.parse(plainText);
-            levelFiles = new ArrayList<String>();
-            levelTimes = new ArrayList<Integer>();
-
-            JSONArray levelsArray = data.getJSONArray("levels");
-            JSONObject level;
-
-            for (int i = 0; i < levelsArray.size(); i++) {
-                level = levelsArray.getJSONObject(i);
-                levelFiles.add(level.getString("path"));
-                levelTimes.add((Integer) level.getInt("time"));
-            }
-
-            player.lives = data.getInt("lives");
+            LevelCatalog catalog = LevelCatalog.open(filePathExtension + "config.json");
+            load(catalog);
+            player.lives = catalog.lives;
 
             return true;
 
         } catch (FileNotFoundException e) {
             return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -189,17 +227,31 @@ public class Setup {
      * @return A PFont object represting the font used in the game.
      */
     public PFont loadImages(App app, GraphicsHandler graphicsHandler) {
-        graphicsHandler.tileImages = new HashMap<Tile, PImage>();
-        graphicsHandler.tileImages.put(Tile.SOLID, app.loadImage(RESOURCEPATH + "/wall/solid.png"));
-        graphicsHandler.tileImages.put(Tile.BROKEN, app.loadImage(RESOURCEPATH + "/broken/broken.png"));
-        graphicsHandler.tileImages.put(Tile.GOAL, app.loadImage(RESOURCEPATH + "/goal/goal.png"));
-        graphicsHandler.tileImages.put(Tile.EMPTY, app.loadImage(RESOURCEPATH + "/empty/empty.png"));
-
-        graphicsHandler.livesIcon = app.loadImage(RESOURCEPATH + "/icons/player.png");
-        graphicsHandler.timeIcon = app.loadImage(RESOURCEPATH + "/icons/clock.png");
-
-        font = app.createFont(RESOURCEPATH + "/PressStart2P-Regular.ttf", App.FONTSIZE);
+        AssetLoader loader = new AssetLoader(app, 0);
+        loadImages(graphicsHandler, loader);
+        loader.join();
         return font;
     }
 
+    /**
+     * Queues the other individual images used directly in graphicsHandler,
+     * and the font, to be loaded. The font is stored in the font field once
+     * the loader is joined.
+     * @param graphicsHandler The GraphicsHandler object used in the app.
+     * @param loader The loader the images are queued on.
+     */
+    public void loadImages(GraphicsHandler graphicsHandler, AssetLoader loader) {
+        Map<Tile, PImage> tileImages = new HashMap<Tile, PImage>();
+        graphicsHandler.tileImages = tileImages;
+        loader.image(RESOURCEPATH + "/wall/solid.png", image -> tileImages.put(Tile.SOLID, image));
+        loader.image(RESOURCEPATH + "/broken/broken.png", image -> tileImages.put(Tile.BROKEN, image));
+        loader.image(RESOURCEPATH + "/goal/goal.png", image -> tileImages.put(Tile.GOAL, image));
+        loader.image(RESOURCEPATH + "/empty/empty.png", image -> tileImages.put(Tile.EMPTY, image));
+
+        loader.image(RESOURCEPATH + "/icons/player.png", image -> graphicsHandler.livesIcon = image);
+        loader.image(RESOURCEPATH + "/icons/clock.png", image -> graphicsHandler.timeIcon = image);
+
+        loader.font(RESOURCEPATH + "/PressStart2P-Regular.ttf", App.FONTSIZE, loaded -> font = loaded);
+    }
+
 }
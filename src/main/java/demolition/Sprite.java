@@ -0,0 +1,61 @@
+package demolition;
+
+import processing.core.*;
+
+/**
+ * A rectangular region of an image, drawn as a single sprite. A sprite is
+ * either a whole image loaded on its own, or one frame packed into the
+ * SpriteAtlas alongside every other frame.
+ */
+public class Sprite {
+
+    /**
+     * The image containing the sprite.
+     */
+    public final PImage image;
+
+    /**
+     * The position of the sprite's top left corner within the image.
+     */
+    public final int u, v;
+
+    /**
+     * The dimensions of the sprite in pixels.
+     */
+    public final int width, height;
+
+    /**
+     * Constructs a sprite covering a whole image.
+     * @param image The image.
+     */
+    public Sprite(PImage image) {
+        this(image, 0, 0, image.width, image.height);
+    }
+
+    /**
+     * Constructs a sprite covering a region of an image.
+     * @param image The image containing the sprite.
+     * @param u The x-coord of the sprite's top left corner in the image.
+     * @param v The y-coord of the sprite's top left corner in the image.
+     * @param width The width of the sprite.
+     * @param height The height of the sprite.
+     */
+    public Sprite(PImage image, int u, int v, int width, int height) {
+        this.image = image;
+        this.u = u;
+        this.v = v;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Draws the sprite at its natural size.
+     * @param app The app to draw to.
+     * @param x The x pixel of the sprite's top left corner.
+     * @param y The y pixel of the sprite's top left corner.
+     */
+    public void draw(PApplet app, int x, int y) {
+        app.image(image, x, y, width, height, u, v, u + width, v + height);
+    }
+
+}
@@ -0,0 +1,235 @@
+package demolition;
+
+import processing.core.*;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+
+/**
+ * Every character, bomb and explosion frame packed into a single image, so
+ * that they are loaded with one file open and one decode, and drawn as
+ * regions of one texture. The atlas is built from the sprite directories by
+ * the Gradle atlas task, which writes the packed image and a text index of
+ * each frame's region into the build directory; the game reads the index,
+ * and looks frames up by their path within the resources directory, such as
+ * "bomb/bomb1.png".
+ */
+public class SpriteAtlas {
+
+    /**
+     * The packed image and its index, within the directory the atlas is written to.
+     */
+    public static final String IMAGE = "atlas/sprites.png";
+    public static final String INDEX = "atlas/sprites.txt";
+
+    /**
+     * The directories whose frames are packed into the atlas when no others
+     * are given. The Gradle atlas task passes its own list.
+     */
+    public static final String[] DIRECTORIES = {"player", "red_enemy", "yellow_enemy", "bomb", "explosion"};
+
+    /**
+     * The width of the packed image in pixels.
+     */
+    public static final int WIDTH = 256;
+
+    /**
+     * The transparent gap left around each frame.
+     */
+    public static final int PADDING = 1;
+
+    /**
+     * The region of each frame, as its x, y, width and height.
+     */
+    private final Map<String, int[]> regions;
+
+    /**
+     * The packed image, once it has been loaded.
+     */
+    public PImage image;
+
+    private SpriteAtlas(Map<String, int[]> regions) {
+        this.regions = regions;
+    }
+
+    /**
+     * Reads the index of the atlas in a directory.
+     * @param resourcePath The directory the atlas was written to.
+     * @return The atlas, without its image loaded, or null if the directory
+     * has no atlas.
+     * @throws IOException If the index cannot be read.
+     */
+    public static SpriteAtlas read(String resourcePath) throws IOException {
+        Path index = Paths.get(resourcePath, INDEX);
+        if (!Files.exists(index) || !Files.exists(Paths.get(resourcePath, IMAGE))) {
+            return null;
+        }
+        Map<String, int[]> regions = new HashMap<String, int[]>();
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(" ");
+                if (fields.length != 5) {
+                    throw new IOException(String.format("Malformed atlas entry: %s", line));
+                }
+                regions.put(fields[0], new int[] {Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                    Integer.parseInt(fields[3]), Integer.parseInt(fields[4])});
+            }
+        }
+        return new SpriteAtlas(regions);
+    }
+
+    /**
+     * @param name The path of a frame within the resources directory.
+     * @return Whether the frame is packed into the atlas.
+     */
+    public boolean contains(String name) {
+        return regions.containsKey(name);
+    }
+
+    /**
+     * @return The number of frames in the atlas.
+     */
+    public int size() {
+        return regions.size();
+    }
+
+    /**
+     * Returns a frame as a region of the packed image, which must have been loaded.
+     * @param name The path of the frame within the resources directory.
+     * @return The frame's sprite.
+     */
+    public Sprite sprite(String name) {
+        int[] region = regions.get(name);
+        return new Sprite(image, region[0], region[1], region[2], region[3]);
+    }
+
+    /**
+     * Packs every PNG frame in the sprite directories into the atlas, and
+     * writes its image and index into the resources directory.
+     * @param resourcePath The resources directory.
+     * @return The number of frames packed.
+     * @throws IOException If a frame cannot be read or the atlas cannot be written.
+     */
+    public static int pack(String resourcePath) throws IOException {
+        return pack(resourcePath, resourcePath);
+    }
+
+    /**
+     * Packs every PNG frame in the sprite directories into the atlas, and
+     * writes its image and index into another directory.
+     * @param resourcePath The resources directory.
+     * @param outputPath The directory to write the atlas to.
+     * @return The number of frames packed.
+     * @throws IOException If a frame cannot be read or the atlas cannot be written.
+     */
+    public static int pack(String resourcePath, String outputPath) throws IOException {
+        return pack(resourcePath, outputPath, DIRECTORIES);
+    }
+
+    /**
+     * Packs every PNG frame in the given directories into the atlas, and
+     * writes its image and index into another directory. Frames are placed in
+     * rows from tallest to shortest, each row as full as the width allows.
+     * @param resourcePath The resources directory.
+     * @param outputPath The directory to write the atlas to.
+     * @param directories The directories of frames, within the resources directory.
+     * @return The number of frames packed.
+     * @throws IOException If a frame cannot be read or the atlas cannot be written.
+     */
+    public static int pack(String resourcePath, String outputPath, String... directories) throws IOException {
+        List<String> names = new ArrayList<String>();
+        for (String directory : directories) {
+            try (Stream<Path> files = Files.list(Paths.get(resourcePath, directory))) {
+                files.map(file -> directory + "/" + file.getFileName())
+                    .filter(name -> name.endsWith(".png"))
+                    .forEach(names::add);
+            }
+        }
+        Map<String, BufferedImage> frames = new HashMap<String, BufferedImage>();
+        for (String name : names) {
+            BufferedImage frame = ImageIO.read(new File(resourcePath, name));
+            if (frame == null) {
+                throw new IOException(String.format("Cannot decode %s", name));
+            }
+            frames.put(name, frame);
+        }
+        names.sort(Comparator.comparingInt((String name) -> -frames.get(name).getHeight())
+            .thenComparing(Comparator.naturalOrder()));
+
+        // shelf packing: fill each row left to right, then start a new row below it
+        Map<String, int[]> regions = new HashMap<String, int[]>();
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        for (String name : names) {
+            BufferedImage frame = frames.get(name);
+            int width = frame.getWidth() + 2 * PADDING;
+            if (width > WIDTH) {
+                throw new IOException(String.format("%s is wider than the atlas", name));
+            }
+            if (x + width > WIDTH) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            regions.put(name, new int[] {x + PADDING, y + PADDING, frame.getWidth(), frame.getHeight()});
+            x += width;
+            rowHeight = Math.max(rowHeight, frame.getHeight() + 2 * PADDING);
+        }
+
+        BufferedImage atlas = new BufferedImage(WIDTH, Math.max(y + rowHeight, 1), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = atlas.createGraphics();
+        names.sort(Comparator.naturalOrder());
+        Path index = Paths.get(outputPath, INDEX);
+        Files.createDirectories(index.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8)) {
+            writer.write("# Generated by the Gradle atlas task: name x y width height");
+            writer.newLine();
+            for (String name : names) {
+                int[] region = regions.get(name);
+                graphics.drawImage(frames.get(name), region[0], region[1], null);
+                writer.write(String.format("%s %d %d %d %d", name, region[0], region[1], region[2], region[3]));
+                writer.newLine();
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ImageIO.write(atlas, "png", Paths.get(outputPath, IMAGE).toFile());
+        return names.size();
+    }
+
+    /**
+     * Packs the atlas of the game's resources directory into the build
+     * directory, or of the directories given.
+     * @param args The resources directory, the directory to write the atlas
+     * to, and the frame directories to pack, all optionally.
+     * @throws IOException If the atlas cannot be built.
+     */
+    public static void main(String[] args) throws IOException {
+        String resourcePath = (args.length > 0) ? args[0] : Setup.RESOURCEPATH;
+        String outputPath = (args.length > 1) ? args[1] : Setup.ATLASPATH;
+        String[] directories = (args.length > 2) ? Arrays.copyOfRange(args, 2, args.length) : DIRECTORIES;
+        int packed = pack(resourcePath, outputPath, directories);
+        System.out.printf("Packed %d frames into %s/%s%n", packed, outputPath, IMAGE);
+    }
+
+}
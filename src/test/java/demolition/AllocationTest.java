@@ -0,0 +1,88 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+public class AllocationTest {
+
+    static final int TICKS = 2000;
+
+    GameConfig config;
+    GameState gameState;
+    Bomb bomb;
+    Explosion explosion;
+
+    @BeforeEach
+    public void setupObjects() {
+        config = new GameConfig(Arrays.asList("level1.txt"), Arrays.asList(180));
+        gameState = GameState.newGame(config, 0, 3, "src/test/resources/");
+
+        // keep the player and explosion inside the wall so that nothing is killed
+        gameState.player.x = 0;
+        gameState.player.y = 0;
+        // a bomb and explosion far from their fuse and expiry, so every tick is in the steady state
+        bomb = new Bomb(0, 0);
+        bomb.gameTime = -1000000;
+        gameState.bombs.add(bomb);
+        explosion = new Explosion(Direction.CENTRE, 2, 0);
+        explosion.gameTime = -1000000;
+        gameState.addExplosion(explosion);
+    }
+
+    @Test
+    public void testTickAllocatesNothing() {
+        assertEquals(0, allocatedBytes(() -> tick()));
+        assertEquals(2, gameState.enemies.size());
+    }
+
+    @Test
+    public void testProfiledTickAllocatesNothing() {
+        gameState.profiler = new Profiler(true, Long.MAX_VALUE);
+        assertEquals(0, allocatedBytes(() -> tick()));
+        assertTrue(gameState.profiler.histogram(Profiler.TICK).count > TICKS);
+    }
+
+    @Test
+    public void testRenderAllocatesNothing() {
+        RecordingApp app = new RecordingApp();
+        GraphicsHandler graphicsHandler = app.graphicsHandler();
+        graphicsHandler.drawLevel(gameState.levelMap, gameState.player);
+        assertEquals(0, allocatedBytes(() -> {
+            graphicsHandler.handleAllGraphics(gameState);
+            tick();
+        }));
+        assertTrue(app.images > TICKS);
+    }
+
+    private void tick() {
+        assertTrue(gameState.tick(config, GameListener.HEADLESS));
+    }
+
+    /**
+     * Runs a frame repeatedly to warm it up, then measures the bytes it
+     * allocates on this thread over the same number of runs. The fewest of
+     * a few measurements is taken, since code deoptimised by an earlier test
+     * allocates until it is recompiled, while garbage made by every frame
+     * shows up in all of them.
+     */
+    private static long allocatedBytes(Runnable frame) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < TICKS; i++) {
+            frame.run();
+        }
+        long fewest = Long.MAX_VALUE;
+        for (int round = 0; (round < 3) && (fewest > 0); round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < TICKS; i++) {
+                frame.run();
+            }
+            fewest = Math.min(fewest, threads.getThreadAllocatedBytes(thread) - before);
+        }
+        return fewest;
+    }
+
+}
@@ -0,0 +1,72 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import processing.core.PImage;
+
+public class AssetLoaderTest {
+
+    private static final String IMAGE = "src/test/resources/dummyFrame.png";
+
+    @Test
+    public void testConcurrentLoadKeepsOrder() {
+        RecordingApp app = new RecordingApp();
+        AssetLoader loader = new AssetLoader(app, 4);
+        List<PImage> images = new ArrayList<PImage>();
+        List<Integer> order = new ArrayList<Integer>();
+        for (int i = 0; i < 12; i++) {
+            int index = i;
+            loader.image(IMAGE, image -> {
+                images.add(image);
+                order.add(index);
+            });
+        }
+        loader.join();
+
+        assertEquals(12, images.size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(i, order.get(i));
+            assertNotNull(images.get(i));
+            assertTrue(images.get(i).width > 0);
+            assertTrue(loader.nanos(i) >= 0);
+        }
+        assertTrue(loader.totalNanos > 0);
+        String report = loader.report();
+        assertTrue(report.contains(IMAGE));
+        assertTrue(report.contains("Loaded 12 assets"));
+    }
+
+    @Test
+    public void testInlineLoad() {
+        RecordingApp app = new RecordingApp();
+        AssetLoader loader = new AssetLoader(app, 0);
+        PImage[] loaded = new PImage[1];
+        loader.image(IMAGE, image -> loaded[0] = image);
+        // the image is decoded as soon as it is queued, but only delivered on join
+        assertTrue(loader.nanos(0) >= 0);
+        assertNull(loaded[0]);
+        loader.join();
+        assertNotNull(loaded[0]);
+    }
+
+    @Test
+    public void testFailure() {
+        AssetLoader loader = new AssetLoader(new RecordingApp(), 2);
+        loader.image(IMAGE, image -> {
+            throw new IllegalStateException("unexpected image");
+        });
+        assertThrows(IllegalStateException.class, loader::join);
+    }
+
+    @Test
+    public void testMissingSprite() {
+        AssetLoader loader = new AssetLoader(new RecordingApp(), 2);
+        loader.sprite("src/test/resources", "missing.png", sprite -> fail("no sprite expected"));
+        IllegalStateException e = assertThrows(IllegalStateException.class, loader::join);
+        assertTrue(e.getMessage().contains("src/test/resources/missing.png"));
+    }
+
+}
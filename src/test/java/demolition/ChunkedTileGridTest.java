@@ -0,0 +1,189 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChunkedTileGridTest {
+
+    private static final Tile[] TILES = Tile.values();
+
+    @Test
+    public void testPagingMatchesMemory() {
+        // a cache of two chunks forces constant eviction and write-back
+        ChunkedTileGrid chunked = new ChunkedTileGrid(200, 150, 2);
+        TileGrid packed = new TileGrid(200, 150);
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            int x = random.nextInt(200);
+            int y = random.nextInt(150);
+            Tile tile = TILES[random.nextInt(TILES.length)];
+            chunked.set(x, y, tile);
+            packed.set(x, y, tile);
+        }
+        assertTrue(chunked.loadedChunks() <= 2);
+        assertTrue(chunked.storedChunks() > 0);
+        chunked.flush();
+        for (int y = -1; y <= 150; y++) {
+            for (int x = -1; x <= 200; x++) {
+                assertEquals(packed.get(x, y), chunked.get(x, y));
+                assertEquals(packed.isWalkable(x, y), chunked.isWalkable(x, y));
+                assertEquals(packed.getAt(packed.index(x, y)), chunked.getAt(chunked.index(x, y)));
+            }
+        }
+        chunked.close();
+    }
+
+    @Test
+    public void testCacheMatchesMemory() {
+        // enough chunks to cycle the cache through every probe and eviction order
+        ChunkedTileGrid chunked = new ChunkedTileGrid(1000, 700, ChunkedTileGrid.PREFETCHCACHE + 2);
+        TileGrid packed = new TileGrid(1000, 700);
+        Random random = new Random(2);
+        int x = 500;
+        int y = 350;
+        for (int i = 0; i < 50000; i++) {
+            // a walk that is read ahead around, with writes scattered across the map
+            x = Math.floorMod(x + random.nextInt(41) - 20, 1000);
+            y = Math.floorMod(y + random.nextInt(41) - 20, 700);
+            chunked.prefetch(x, y);
+            Tile tile = TILES[random.nextInt(TILES.length)];
+            int tileX = (random.nextInt(4) == 0) ? random.nextInt(1000) : x;
+            int tileY = (random.nextInt(4) == 0) ? random.nextInt(700) : y;
+            chunked.set(tileX, tileY, tile);
+            packed.set(tileX, tileY, tile);
+            assertTrue(chunked.loadedChunks() <= ChunkedTileGrid.PREFETCHCACHE + 2);
+        }
+        for (int tileY = 0; tileY < 700; tileY++) {
+            for (int tileX = 0; tileX < 1000; tileX++) {
+                assertEquals(packed.get(tileX, tileY), chunked.get(tileX, tileY));
+            }
+        }
+        assertEquals(packed.tileHash(), chunked.tileHash());
+        chunked.close();
+    }
+
+    @Test
+    public void testPrefetch() {
+        int size = ChunkedTileGrid.CHUNKSIZE;
+        int across = 2 * ChunkedTileGrid.PREFETCHCACHE;
+        ChunkedTileGrid levelMap = new ChunkedTileGrid(across * size, 3 * size, ChunkedTileGrid.PREFETCHCACHE);
+        for (int column = 0; column < across; column++) {
+            levelMap.set(column * size, size, Tile.BROKEN);
+        }
+        levelMap.flush();
+        // only the last chunks changed are still in memory
+        assertFalse(levelMap.isLoaded(5 * size, size));
+
+        levelMap.prefetch(5 * size, size);
+        levelMap.flush();
+        assertFalse(levelMap.isLoaded(5 * size, size));
+        levelMap.prefetch(5 * size + 1, size);
+        for (int column = 4; column <= 6; column++) {
+            assertTrue(levelMap.isLoaded(column * size, size));
+            assertEquals(Tile.BROKEN, levelMap.get(column * size, size));
+        }
+        // chunks never written are left to be created when needed
+        assertFalse(levelMap.isLoaded(5 * size, 0));
+
+        // a read ahead overtaken by a newer write back is dropped
+        levelMap.prefetch(10 * size, size);
+        levelMap.set(10 * size, size, Tile.EMPTY);
+        for (int column = 0; column < across; column++) {
+            levelMap.get(column * size, 2 * size);
+        }
+        levelMap.flush();
+        levelMap.prefetch(30 * size, size);
+        assertEquals(Tile.EMPTY, levelMap.get(10 * size, size));
+        levelMap.close();
+    }
+
+    @Test
+    public void testBlastAcrossChunks() {
+        ChunkedTileGrid levelMap = new ChunkedTileGrid(130, 130, 1);
+        int edge = ChunkedTileGrid.CHUNKSIZE;
+        levelMap.set(edge, edge - 1, Tile.BROKEN);
+        levelMap.set(edge - 2, edge - 1, Tile.SOLID);
+        Bomb bomb = new Bomb(edge - 1, edge - 1);
+        bomb.gameTime = 121;
+        List<Explosion> explosions = bomb.checkExplode(levelMap);
+
+        // the broken wall in the next chunk is destroyed and the wall stops the left ray
+        assertEquals(Tile.EMPTY, levelMap.get(edge, edge - 1));
+        assertEquals(Tile.SOLID, levelMap.get(edge - 2, edge - 1));
+        assertEquals(1 + 2 + 2 + 1, explosions.size());
+
+        Player player = new Player();
+        player.x = edge - 1;
+        player.y = edge - 1;
+        assertTrue(player.move(Direction.RIGHT, levelMap));
+        assertTrue(player.move(Direction.DOWN, levelMap));
+        assertEquals(edge, player.y);
+        levelMap.close();
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        ChunkedTileGrid original = new ChunkedTileGrid(100, 100, 1);
+        original.set(3, 3, Tile.BROKEN);
+        original.set(90, 90, Tile.BROKEN);
+        TileGrid copy = original.copy();
+        copy.set(3, 3, Tile.EMPTY);
+        assertEquals(Tile.BROKEN, original.get(3, 3));
+        assertEquals(Tile.EMPTY, copy.get(3, 3));
+        assertEquals(Tile.BROKEN, copy.get(90, 90));
+        assertThrows(IllegalStateException.class, () -> original.set(3, 3, Tile.EMPTY));
+        copy.close();
+    }
+
+    @Test
+    public void testListener() {
+        ChunkedTileGrid levelMap = new ChunkedTileGrid(70, 70);
+        int[] changed = new int[3];
+        levelMap.listener = new GameListener() {
+            @Override
+            public void tileChanged(int x, int y, Tile tile) {
+                changed[0] = x;
+                changed[1] = y;
+                changed[2] = tile.ordinal();
+            }
+        };
+        levelMap.setAt(levelMap.index(65, 2), Tile.GOAL);
+        assertArrayEquals(new int[] {65, 2, Tile.GOAL.ordinal()}, changed);
+        levelMap.close();
+    }
+
+    @Test
+    public void testParseChunked(@TempDir Path dir) throws IOException {
+        StringBuilder level = new StringBuilder();
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 150; x++) {
+                level.append((x == 0 || y == 0 || x == 149 || y == 99) ? 'W' : ((x * y) % 7 == 0) ? 'B' : ' ');
+            }
+            level.append('\n');
+        }
+        level.setCharAt(level.indexOf(" "), 'P');
+        Path file = dir.resolve("level.txt");
+        Files.write(file, level.toString().getBytes("US-ASCII"));
+
+        LevelTemplate packed = LevelTemplate.parse(file.toString(), 0, 0);
+        LevelTemplate chunked = LevelTemplate.parse(file.toString(), 0, 0, true);
+        TileGrid expected = packed.newMap();
+        TileGrid actual = chunked.newMap();
+        assertTrue(actual instanceof ChunkedTileGrid);
+        assertEquals(packed.playerX, chunked.playerX);
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 150; x++) {
+                assertEquals(expected.get(x, y), actual.get(x, y));
+            }
+        }
+        actual.close();
+    }
+
+}
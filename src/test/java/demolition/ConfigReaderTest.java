@@ -0,0 +1,61 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+public class ConfigReaderTest {
+
+    private static ConfigReader reader(String json) {
+        return new ConfigReader(new StringReader(json), "test.json");
+    }
+
+    @Test
+    public void testTokens() throws IOException {
+        ConfigReader reader = reader("{\"a\": [1, -20, \"x\\\"\\u0041\"], \"b\": true, \"c\": null}");
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        reader.beginArray();
+        assertEquals(ConfigReader.Token.NUMBER, reader.peek());
+        assertEquals(1, reader.nextInt());
+        assertEquals(-20, reader.nextInt());
+        assertEquals("x\"A", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertEquals("b", reader.nextName());
+        assertTrue(reader.nextBoolean());
+        assertEquals("c", reader.nextName());
+        reader.nextNull();
+        reader.endObject();
+        assertEquals(ConfigReader.Token.END, reader.peek());
+    }
+
+    @Test
+    public void testSkipValue() throws IOException {
+        ConfigReader reader = reader("{\"skip\": [{\"x\": [1.5e3, false]}, \"y\"], \"keep\": 7}");
+        reader.beginObject();
+        assertEquals("skip", reader.nextName());
+        reader.skipValue();
+        assertEquals("keep", reader.nextName());
+        assertEquals(7, reader.nextInt());
+        reader.endObject();
+    }
+
+    @Test
+    public void testMalformed() throws IOException {
+        ConfigReader reader = reader("{\n  \"a\": 1\n  \"b\": 2\n}");
+        reader.beginObject();
+        reader.nextName();
+        reader.nextInt();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::hasNext);
+        assertTrue(e.getMessage().startsWith("test.json, line 3"), e.getMessage());
+
+        ConfigReader decimal = reader("1.5");
+        assertThrows(IllegalArgumentException.class, decimal::nextInt);
+        ConfigReader unterminated = reader("\"abc");
+        assertThrows(IllegalArgumentException.class, unterminated::nextString);
+    }
+
+}
@@ -0,0 +1,52 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirtyTilesTest {
+
+    DirtyTiles dirtyTiles;
+
+    @BeforeEach
+    public void setupObjects() {
+        dirtyTiles = new DirtyTiles(15, 14);
+    }
+
+    @Test
+    public void testMarkOnce() {
+        assertTrue(dirtyTiles.mark(3, 4));
+        assertFalse(dirtyTiles.mark(3, 4));
+        assertTrue(dirtyTiles.mark(14, 13));
+        assertEquals(2, dirtyTiles.size());
+        assertTrue(dirtyTiles.isMarked(3, 4));
+        assertFalse(dirtyTiles.isMarked(4, 3));
+        assertEquals(3, dirtyTiles.x(0));
+        assertEquals(4, dirtyTiles.y(0));
+        assertEquals(14, dirtyTiles.x(1));
+        assertEquals(13, dirtyTiles.y(1));
+    }
+
+    @Test
+    public void testOutside() {
+        assertFalse(dirtyTiles.mark(-1, 0));
+        assertFalse(dirtyTiles.mark(0, 14));
+        assertFalse(dirtyTiles.mark(15, 0));
+        assertFalse(dirtyTiles.isMarked(15, 0));
+        assertEquals(0, dirtyTiles.size());
+    }
+
+    @Test
+    public void testClear() {
+        for (int y = 0; y < 14; y++) {
+            for (int x = 0; x < 15; x++) {
+                assertTrue(dirtyTiles.mark(x, y));
+            }
+        }
+        assertEquals(15 * 14, dirtyTiles.size());
+        dirtyTiles.clear();
+        assertEquals(0, dirtyTiles.size());
+        assertFalse(dirtyTiles.isMarked(7, 7));
+        assertTrue(dirtyTiles.mark(7, 7));
+    }
+
+}
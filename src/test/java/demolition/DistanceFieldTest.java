@@ -0,0 +1,195 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DistanceFieldTest {
+
+    TileGrid levelMap;
+    DistanceField field;
+
+    @BeforeEach
+    public void setupObjects() {
+        // a wall down column 2, open only at the bottom row
+        levelMap = new TileGrid(5, 4);
+        for (int y = 0; y < 3; y++) {
+            levelMap.set(2, y, Tile.SOLID);
+        }
+        levelMap.set(4, 0, Tile.BROKEN);
+        field = new DistanceField();
+        field.target(levelMap, 0, 0);
+    }
+
+    @Test
+    public void testDistances() {
+        assertEquals(0, field.distance(0, 0));
+        assertEquals(1, field.distance(1, 0));
+        assertEquals(3, field.distance(0, 3));
+        assertEquals(6, field.distance(3, 3));
+        assertEquals(9, field.distance(3, 0));
+        assertEquals(DistanceField.UNREACHABLE, field.distance(2, 0));
+        assertEquals(DistanceField.UNREACHABLE, field.distance(4, 0));
+        assertEquals(1, field.searches);
+    }
+
+    @Test
+    public void testSteps() {
+        assertNull(field.step(0, 0));
+        assertEquals(Direction.DOWN, field.step(3, 0));
+        assertEquals(Direction.LEFT, field.step(3, 3));
+        // both neighbours are one step closer, so UP wins the tie
+        assertEquals(Direction.UP, field.step(1, 1));
+
+        TileGrid walled = new TileGrid(3, 1);
+        walled.set(1, 0, Tile.SOLID);
+        field.target(walled, 0, 0);
+        assertNull(field.step(2, 0));
+    }
+
+    @Test
+    public void testSearchedOncePerTarget() {
+        GameState gameState = new GameState();
+        gameState.levelMap = levelMap;
+        gameState.player.x = 0;
+        gameState.player.y = 0;
+        for (int i = 0; i < 100; i++) {
+            gameState.addEnemy(new ChaserEnemy(3, 0, gameState.distanceField));
+        }
+        gameState.rebuildOccupancy();
+        assertFalse(gameState.updateEnemies());
+        assertEquals(1, gameState.distanceField.searches);
+        for (Character enemy : gameState.enemies) {
+            assertEquals(3, enemy.x);
+            assertEquals(1, enemy.y);
+        }
+        // no chaser moves on the next tick, so nothing is searched
+        assertFalse(gameState.updateEnemies());
+        assertEquals(1, gameState.distanceField.searches);
+    }
+
+    @Test
+    public void testRepairsMatchSearch() {
+        Random random = new Random(1);
+        TileGrid map = new TileGrid(24, 17);
+        for (int y = 0; y < map.height; y++) {
+            for (int x = 0; x < map.width; x++) {
+                if (random.nextInt(3) == 0) {
+                    map.set(x, y, Tile.BROKEN);
+                }
+            }
+        }
+        map.set(0, 0, Tile.EMPTY);
+        int targetX = 0;
+        int targetY = 0;
+        field.target(map, targetX, targetY);
+        field.distance(0, 0);
+        int moves = 0;
+        for (int event = 0; event < 2000; event++) {
+            int x = random.nextInt(map.width);
+            int y = random.nextInt(map.height);
+            if (random.nextInt(4) == 0) {
+                if (map.isWalkable(x, y) && ((x != targetX) || (y != targetY))) {
+                    moves++;
+                    targetX = x;
+                    targetY = y;
+                    field.target(map, x, y);
+                }
+            } else if ((x != targetX) || (y != targetY)) {
+                map.set(x, y, map.isWalkable(x, y) ? Tile.BROKEN : Tile.EMPTY);
+                field.tileChanged(x, y);
+            }
+            DistanceField searched = new DistanceField();
+            searched.target(map, targetX, targetY);
+            for (int i = 0; i < map.height; i++) {
+                for (int j = 0; j < map.width; j++) {
+                    assertEquals(searched.distance(j, i), field.distance(j, i), "event " + event);
+                }
+            }
+        }
+        // walls are repaired, and only the player's moves are searched
+        assertEquals(1 + moves, field.searches);
+        assertTrue(field.repairs > 100, "repairs " + field.repairs);
+    }
+
+    @Test
+    public void testRepairIsLocal() {
+        // a large open map with a walled-in pocket of four tiles
+        TileGrid map = new TileGrid(500, 500);
+        for (int x = 99; x <= 102; x++) {
+            map.set(x, 99, Tile.SOLID);
+            map.set(x, 102, Tile.SOLID);
+        }
+        map.set(99, 100, Tile.SOLID);
+        map.set(99, 101, Tile.SOLID);
+        map.set(102, 100, Tile.SOLID);
+        map.set(102, 101, Tile.BROKEN);
+        field.target(map, 0, 0);
+        assertEquals(DistanceField.UNREACHABLE, field.distance(100, 100));
+        long searchedTiles = field.visited;
+
+        map.set(102, 101, Tile.EMPTY);
+        field.tileChanged(102, 101);
+        assertEquals(208, field.distance(100, 100));
+        assertEquals(1, field.searches);
+        assertTrue(field.visited - searchedTiles < 10);
+    }
+
+    @Test
+    public void testChaserFollowsDestroyedWall() {
+        TileGrid map = new TileGrid(5, 1);
+        map.set(2, 0, Tile.BROKEN);
+        GameState gameState = new GameState();
+        gameState.levelMap = map;
+        gameState.player.x = 0;
+        gameState.player.y = 0;
+        ChaserEnemy chaser = new ChaserEnemy(4, 0, gameState.distanceField);
+        gameState.addEnemy(chaser);
+        assertFalse(gameState.updateEnemies());
+        assertEquals(4, chaser.x);
+
+        Bomb bomb = new Bomb(1, 0);
+        bomb.gameTime = 121;
+        gameState.bombs.add(bomb);
+        gameState.updateBombs();
+        assertEquals(Tile.EMPTY, map.get(2, 0));
+        for (int i = 0; i < Character.MOVEINTERVAL - 1; i++) {
+            gameState.updateEnemies();
+            assertEquals(4, chaser.x);
+        }
+        gameState.updateEnemies();
+        assertEquals(3, chaser.x);
+        assertEquals(1, gameState.distanceField.searches);
+    }
+
+    @Test
+    public void testChasersCatchPlayer(@TempDir Path dir) throws IOException {
+        Files.write(dir.resolve("chase.txt"), "WWWWWWW\nWP   CW\nWWWWWWW\n".getBytes("US-ASCII"));
+        GameConfig config = new GameConfig(Arrays.asList("chase.txt"), Arrays.asList(180));
+        for (boolean store : new boolean[] {false, true}) {
+            GameState gameState = new GameState();
+            gameState.player.lives = 1;
+            if (store) {
+                gameState.enemyStore = new EnemyStore(new Random(0));
+            }
+            gameState.levelMap = gameState.initialiseLevelMap(config, dir.toString() + "/");
+            assertEquals(store ? 0 : 1, gameState.enemies.size());
+            assertEquals(store ? 1 : 0, (gameState.enemyStore != null) ? gameState.enemyStore.size : 0);
+
+            // the chaser starts four tiles away and steps once a second
+            int ticks = 0;
+            while (gameState.tick(config, GameListener.HEADLESS)) {
+                ticks++;
+                assertTrue(ticks < 300);
+            }
+            assertEquals(180, ticks);
+        }
+    }
+
+}
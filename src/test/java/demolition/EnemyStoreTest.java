@@ -0,0 +1,167 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class EnemyStoreTest {
+
+    TileGrid levelMap;
+    EnemyStore enemyStore;
+
+    @BeforeEach
+    public void setupObjects() {
+        levelMap = new TileGrid(5, 5);
+        levelMap.set(1, 2, Tile.SOLID);
+        levelMap.set(3, 1, Tile.BROKEN);
+        enemyStore = new EnemyStore(new Random(0));
+        enemyStore.reset(levelMap);
+    }
+
+    @Test
+    public void testYellowMatchesObjects() {
+        YellowEnemy yellowEnemy = new YellowEnemy(1, 1);
+        enemyStore.add(EnemyStore.YELLOW, 1, 1);
+        for (int i = 0; i < 600; i++) {
+            yellowEnemy.autoMove(levelMap);
+            yellowEnemy.tick();
+            assertFalse(enemyStore.update(-1, -1));
+            assertEquals(yellowEnemy.x, enemyStore.x[0]);
+            assertEquals(yellowEnemy.y, enemyStore.y[0]);
+            assertEquals(yellowEnemy.dir, enemyStore.direction(0));
+            assertEquals(yellowEnemy.getAnimationState(), enemyStore.animationState(0));
+        }
+    }
+
+    @Test
+    public void testRedMoves() {
+        enemyStore.add(EnemyStore.RED, 1, 1);
+        for (int i = 0; i < 600; i++) {
+            int oldX = enemyStore.x[0];
+            int oldY = enemyStore.y[0];
+            enemyStore.update(-1, -1);
+            assertTrue(levelMap.isWalkable(enemyStore.x[0], enemyStore.y[0]));
+            assertTrue(Math.abs(enemyStore.x[0] - oldX) + Math.abs(enemyStore.y[0] - oldY) <= 1);
+            assertTrue(enemyStore.anyAt(enemyStore.x[0], enemyStore.y[0]));
+        }
+    }
+
+    @Test
+    public void testRedMatchesObjects() {
+        // both pick from the same exit masks with the same draws, so equal seeds walk equal paths
+        RedEnemy redEnemy = new RedEnemy(1, 1, new Random(0));
+        enemyStore.add(EnemyStore.RED, 1, 1);
+        for (int i = 0; i < 600; i++) {
+            redEnemy.autoMove(levelMap);
+            redEnemy.tick();
+            enemyStore.update(-1, -1);
+            assertEquals(redEnemy.x, enemyStore.x[0]);
+            assertEquals(redEnemy.y, enemyStore.y[0]);
+            assertEquals(redEnemy.dir, enemyStore.direction(0));
+        }
+    }
+
+    @Test
+    public void testKillsKeepMoveTimes() {
+        // the second enemy is created 30 ticks after the first, so moves 30 ticks out of step
+        enemyStore.add(EnemyStore.YELLOW, 0, 4);
+        for (int i = 0; i < 30; i++) {
+            enemyStore.update(-1, -1);
+        }
+        enemyStore.add(EnemyStore.YELLOW, 4, 0);
+        enemyStore.update(-1, -1);
+        assertEquals(31, enemyStore.gameTime(0));
+        assertEquals(1, enemyStore.gameTime(1));
+
+        // killing the first moves the second into its slot, along with its timer
+        assertEquals(1, enemyStore.killAt(enemyStore.x[0], enemyStore.y[0]));
+        int oldX = enemyStore.x[0];
+        int oldY = enemyStore.y[0];
+        assertEquals(1, enemyStore.gameTime(0));
+        for (int i = 0; i < 59; i++) {
+            enemyStore.update(-1, -1);
+        }
+        assertEquals(60, enemyStore.gameTime(0));
+        assertEquals(oldX, enemyStore.x[0]);
+        assertEquals(oldY, enemyStore.y[0]);
+        enemyStore.update(-1, -1);
+        assertEquals(oldY + 1, enemyStore.y[0]);
+    }
+
+    @Test
+    public void testPlayerKill() {
+        enemyStore.add(EnemyStore.YELLOW, 0, 0);
+        assertTrue(enemyStore.update(0, 1));
+    }
+
+    @Test
+    public void testWalksIntoExplosion() {
+        enemyStore.occupancy = new OccupancyIndex(5, 5);
+        enemyStore.occupancy.addExplosion(new Explosion(Direction.CENTRE, 0, 1));
+        enemyStore.add(EnemyStore.YELLOW, 0, 0);
+        enemyStore.add(EnemyStore.YELLOW, 4, 4);
+        int hash = enemyStore.stateHash();
+        assertFalse(enemyStore.update(-1, -1));
+        assertEquals(1, enemyStore.size);
+        assertFalse(enemyStore.anyAt(0, 1));
+        assertNotEquals(hash, enemyStore.stateHash());
+        assertEquals(1, enemyStore.killAt(enemyStore.x[0], enemyStore.y[0]));
+        assertEquals(0, enemyStore.stateHash());
+    }
+
+    @Test
+    public void testMapTooLargeForDenseArrays() {
+        int size = 46000;
+        ChunkedTileGrid hugeMap = new ChunkedTileGrid(size, size, 4);
+        enemyStore.reset(hugeMap);
+        enemyStore.add(EnemyStore.YELLOW, size - 1, size - 1);
+        assertTrue(enemyStore.anyAt(size - 1, size - 1));
+        assertFalse(enemyStore.anyAt(0, 0));
+        assertFalse(enemyStore.anyAt(-1, size));
+        assertEquals(1, enemyStore.killAt(size - 1, size - 1));
+        assertEquals(0, enemyStore.size);
+        hugeMap.close();
+    }
+
+    @Test
+    public void testKillAndGrow() {
+        for (int i = 0; i < 100; i++) {
+            enemyStore.add((i % 2 == 0) ? EnemyStore.RED : EnemyStore.YELLOW, i % 5, 4);
+        }
+        enemyStore.add(EnemyStore.RED, 0, 0);
+        assertEquals(101, enemyStore.size);
+        assertEquals(20, enemyStore.killAt(2, 4));
+        assertEquals(81, enemyStore.size);
+        assertFalse(enemyStore.anyAt(2, 4));
+        assertTrue(enemyStore.anyAt(0, 0));
+        assertEquals(0, enemyStore.killAt(2, 4));
+        for (int i = 0; i < enemyStore.size; i++) {
+            assertFalse(enemyStore.x[i] == 2 && enemyStore.y[i] == 4);
+        }
+        enemyStore.reset(levelMap);
+        assertEquals(0, enemyStore.size);
+        assertFalse(enemyStore.anyAt(0, 0));
+    }
+
+    @Test
+    public void testGameStateUsesStore() {
+        GameConfig config = new GameConfig(Arrays.asList("level1.txt"), Arrays.asList(180));
+        GameState gameState = new GameState();
+        gameState.player.lives = 3;
+        gameState.enemyStore = enemyStore;
+        gameState.levelMap = gameState.initialiseLevelMap(config, "src/test/resources/");
+        assertTrue(gameState.enemies.isEmpty());
+        assertEquals(2, enemyStore.size);
+
+        gameState.explosions.clear();
+        gameState.checkExplosionKill(new Explosion(Direction.CENTRE, enemyStore.x[0], enemyStore.y[0]));
+        assertEquals(1, enemyStore.size);
+        gameState.player.x = enemyStore.x[0];
+        gameState.player.y = enemyStore.y[0];
+        assertTrue(gameState.checkLoss(config, GameListener.HEADLESS));
+        assertEquals(2, gameState.player.lives);
+    }
+
+}
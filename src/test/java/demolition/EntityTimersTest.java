@@ -0,0 +1,167 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class EntityTimersTest {
+
+    EntityTimers<Bomb> timers;
+    List<Bomb> bombs;
+
+    @BeforeEach
+    public void setupObjects() {
+        timers = new EntityTimers<Bomb>(Bomb::nextEvent, bomb -> 0);
+        bombs = new ArrayList<Bomb>();
+    }
+
+    @Test
+    public void testBombsDueOnTheirEvents() {
+        // every bomb against a twin ticked on every update, numbered by x-coord
+        Random random = new Random(5);
+        List<Bomb> twins = new ArrayList<Bomb>();
+        for (int tick = 0; tick < 1000; tick++) {
+            if (tick % 7 == 0) {
+                int gameTime = random.nextInt(200) - 50;
+                Bomb bomb = new Bomb(twins.size(), 0);
+                bomb.gameTime = gameTime;
+                bombs.add(bomb);
+                Bomb twin = new Bomb(twins.size(), 0);
+                twin.gameTime = gameTime;
+                twins.add(twin);
+            }
+            timers.sync(bombs);
+            timers.advance();
+            Bomb[] due = new Bomb[twins.size()];
+            Bomb bomb;
+            while ((bomb = timers.poll()) != null) {
+                bomb.tick();
+                due[bomb.x] = bomb;
+                if (bomb.gameTime > Bomb.FUSE) {
+                    timers.release(bomb);
+                } else {
+                    timers.schedule(bomb);
+                }
+            }
+            timers.removeReleased(bombs);
+
+            for (Bomb twin : twins) {
+                if (twin.gameTime > Bomb.FUSE) {
+                    continue;
+                }
+                int frame = twin.getAnimationState();
+                twin.tick();
+                boolean event = (twin.getAnimationState() != frame) || (twin.gameTime > Bomb.FUSE);
+                assertEquals(event, due[twin.x] != null, "bomb " + twin.x + " on tick " + tick);
+                if (event) {
+                    assertEquals(twin.gameTime, due[twin.x].gameTime);
+                    assertEquals(twin.getAnimationState(), due[twin.x].getAnimationState());
+                }
+            }
+        }
+        for (Bomb bomb : bombs) {
+            assertTrue(twins.get(bomb.x).gameTime <= Bomb.FUSE);
+        }
+    }
+
+    @Test
+    public void testNextEvents() {
+        // the first later gameTime whose update changes a frame, moves, explodes or disappears
+        for (int gameTime = -300; gameTime < 300; gameTime++) {
+            int enemy = gameTime + 1;
+            while ((enemy % Character.FRAMETICKS != 0) && ((enemy - 1) % Character.MOVEINTERVAL != 0)) {
+                enemy++;
+            }
+            assertEquals(enemy, Character.nextEvent(gameTime), "gameTime " + gameTime);
+            int bomb = gameTime + 1;
+            while ((bomb % Bomb.FRAMETICKS != 0) && (bomb <= Bomb.FUSE)) {
+                bomb++;
+            }
+            assertEquals(bomb, Bomb.nextEvent(gameTime), "gameTime " + gameTime);
+            assertEquals(Math.max(gameTime + 1, Explosion.LIFETIME + 1), Explosion.nextEvent(gameTime));
+        }
+    }
+
+    @Test
+    public void testHashFollowsEntities() {
+        Bomb first = new Bomb(1, 1);
+        Bomb second = new Bomb(2, 2);
+        bombs.add(first);
+        assertEquals(0, timers.sync(bombs));
+        int one = timers.hash();
+        bombs.add(second);
+        assertEquals(1, timers.sync(bombs));
+        assertNotEquals(one, timers.hash());
+
+        timers.release(second);
+        timers.removeReleased(bombs);
+        assertEquals(1, bombs.size());
+        assertEquals(one, timers.hash());
+
+        // bombs only change frame, which is not hashed
+        for (int tick = 0; tick < 60; tick++) {
+            timers.sync(bombs);
+            timers.advance();
+            Bomb bomb;
+            while ((bomb = timers.poll()) != null) {
+                bomb.tick();
+                timers.schedule(bomb);
+            }
+            assertEquals(one, timers.hash());
+        }
+        timers.release(first);
+        timers.removeReleased(bombs);
+        assertEquals(0, timers.hash());
+    }
+
+    @Test
+    public void testNewListCatchesUp() {
+        Bomb bomb = new Bomb(1, 1);
+        bombs.add(bomb);
+        timers.sync(bombs);
+        for (int tick = 0; tick < 10; tick++) {
+            timers.advance();
+            assertNull(timers.poll());
+        }
+        // the bomb was not due, so its gameTime is only brought up to date when the list is replaced
+        assertEquals(0, bomb.gameTime);
+        List<Bomb> replaced = new ArrayList<Bomb>(bombs);
+        assertEquals(0, timers.sync(replaced));
+        assertEquals(10, bomb.gameTime);
+        for (int tick = 10; tick < 14; tick++) {
+            timers.advance();
+            assertNull(timers.poll());
+        }
+        timers.advance();
+        assertEquals(bomb, timers.poll());
+        assertEquals(14, bomb.gameTime);
+    }
+
+    @Test
+    public void testExplosionKillsOnArrival() {
+        GameState gameState = new GameState();
+        gameState.levelMap = new TileGrid(5, 1);
+        gameState.player.x = 0;
+        gameState.player.y = 0;
+
+        // an enemy placed on an explosion dies on the next update
+        gameState.addExplosion(new Explosion(Direction.CENTRE, 3, 0));
+        gameState.addEnemy(new YellowEnemy(3, 0));
+        YellowEnemy walker = new YellowEnemy(4, 0);
+        gameState.addEnemy(walker);
+        assertFalse(gameState.updateEnemies());
+        // the other enemy walks left into the explosion as it moves
+        assertTrue(walker.killed);
+        assertTrue(gameState.enemies.isEmpty());
+        assertNull(gameState.occupancy.enemyAt(3, 0));
+
+        // a new explosion on the player kills them as soon as it is picked up
+        assertFalse(gameState.updateExplosions());
+        gameState.addExplosion(new Explosion(Direction.CENTRE, 0, 0));
+        assertTrue(gameState.updateExplosions());
+    }
+
+}
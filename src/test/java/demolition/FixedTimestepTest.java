@@ -0,0 +1,69 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+public class FixedTimestepTest {
+
+    static final long TICK = 1000000000L / GameState.TICKRATE;
+
+    FixedTimestep timestep;
+
+    @BeforeEach
+    public void setupObjects() {
+        timestep = new FixedTimestep(GameState.TICKRATE, FixedTimestep.MAXCATCHUP);
+    }
+
+    @Test
+    public void testSteadyFrames() {
+        assertEquals(1, timestep.advance(0));
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(1, timestep.advance(i * TICK));
+        }
+    }
+
+    @Test
+    public void testFastFrames() {
+        timestep.advance(0);
+        // rendering at four times the tick rate
+        int ticks = 0;
+        for (int i = 1; i <= 400; i++) {
+            ticks += timestep.advance(i * TICK / 4);
+        }
+        assertEquals(100, ticks);
+        assertTrue(timestep.alpha() < 1);
+    }
+
+    @Test
+    public void testCatchUp() {
+        timestep.advance(0);
+        assertEquals(3, timestep.advance(3 * TICK + 1));
+        assertEquals(FixedTimestep.MAXCATCHUP, timestep.advance(3 * TICK + 60 * TICK));
+        // the rest of the stall is dropped
+        assertEquals(1, timestep.advance(4 * TICK + 60 * TICK));
+    }
+
+    @Test
+    public void testUncapped() {
+        timestep = new FixedTimestep(FixedTimestep.UNCAPPED, 1000);
+        assertEquals(1000, timestep.advance(0));
+        assertEquals(1000, timestep.advance(0));
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestep(GameState.TICKRATE, 0));
+    }
+
+    @Test
+    public void testRunHeadless() {
+        GameConfig config = new GameConfig(Arrays.asList("level1.txt"), Arrays.asList(180));
+        GameState gameState = GameState.newGame(config, 0, 3, "src/test/resources/");
+
+        timestep = new FixedTimestep(FixedTimestep.UNCAPPED, 1000);
+        assertEquals(1000, timestep.run(gameState, config, GameListener.HEADLESS, 0));
+        assertEquals(180 * GameState.TICKRATE - 1000, gameState.timeLeft);
+
+        gameState.gameEnded = true;
+        assertEquals(0, timestep.run(gameState, config, GameListener.HEADLESS, 0));
+    }
+
+}
@@ -0,0 +1,90 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GameEventsTest {
+
+    GameConfig config;
+
+    @BeforeEach
+    public void setupObjects() {
+        config = new GameConfig(Arrays.asList("level1.txt"), Arrays.asList(180));
+    }
+
+    @Test
+    public void testDisabledWithoutRecording() {
+        assertNull(GameEvents.beginTick());
+        assertNull(GameEvents.beginLevelLoad());
+        assertNull(GameEvents.beginAssetLoad());
+        GameEvents.endTick(null, 0, 0);
+    }
+
+    @Test
+    public void testGameEventsRecorded(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("game.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] {"Tick", "BombDetonation", "EnemyKill", "LevelLoad"}) {
+                recording.enable("demolition." + name);
+            }
+            recording.start();
+
+            // the game is built while recording, so its first level load is recorded as well,
+            // and resetting the level loads it again from the cached template
+            GameConfig resettable = new GameConfig(Arrays.asList("src/test/resources/level1.txt"), Arrays.asList(180));
+            GameState gameState = GameState.newGame(resettable, 0, 3, "");
+            gameState.resetLevel(resettable, GameListener.HEADLESS);
+            // the level's two enemies are replaced, not added again
+            assertEquals(2, gameState.enemies.size());
+            gameState.tick(resettable, GameListener.HEADLESS);
+
+            // the blast reaches two tiles left and down, and stops at the broken wall to the right
+            Bomb bomb = new Bomb(5, 1);
+            bomb.gameTime = 121;
+            gameState.bombs.add(bomb);
+            gameState.addEnemy(new YellowEnemy(4, 1));
+            gameState.updateBombs();
+            for (Explosion explosion : gameState.explosions) {
+                gameState.checkExplosionKill(explosion);
+            }
+
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        List<RecordedEvent> loads = named(events, "demolition.LevelLoad");
+        assertEquals(2, loads.size());
+        assertFalse(loads.get(0).getBoolean("cached"));
+        assertTrue(loads.get(1).getBoolean("cached"));
+        assertEquals(15, loads.get(0).getInt("width"));
+
+        assertEquals(1, named(events, "demolition.Tick").size());
+        assertEquals(1, named(events, "demolition.Tick").get(0).getInt("tick"));
+
+        List<RecordedEvent> detonations = named(events, "demolition.BombDetonation");
+        assertEquals(1, detonations.size());
+        assertEquals(6, detonations.get(0).getInt("blastSize"));
+        assertEquals(1, detonations.get(0).getInt("tilesDestroyed"));
+
+        List<RecordedEvent> kills = named(events, "demolition.EnemyKill");
+        assertEquals(1, kills.size());
+        assertEquals(4, kills.get(0).getInt("x"));
+        assertEquals(1, kills.get(0).getInt("killed"));
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+}
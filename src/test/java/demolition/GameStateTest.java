@@ -3,7 +3,6 @@ package demolition;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
 import processing.core.PImage;
@@ -15,7 +14,6 @@ public class GameStateTest {
     App app;
     GraphicsHandler graphicsHandler;
     GameState gameState;
-    Map<Direction, ArrayList<PImage>> dummyFrames;
 
     @BeforeEach
     public void setupObject() {
@@ -26,10 +24,6 @@ public class GameStateTest {
         PApplet.runSketch(new String[] {"App"}, app);
         app.delay(1000);
         graphicsHandler = new GraphicsHandler(app);
-        dummyFrames = new HashMap<Direction, ArrayList<PImage>>();
-        ArrayList<PImage> dummyList = new ArrayList<PImage>();
-        dummyList.add(new PImage());
-        dummyFrames.put(Direction.DOWN, dummyList);
     }
 
     @Test
@@ -38,38 +32,37 @@ public class GameStateTest {
         setup.levelTimes.add(100);
         setup.levelFiles = new ArrayList<String>();
         setup.levelFiles.add("level1.txt");
-        gameState.player = new Player(dummyFrames);
+        gameState.player = new Player();
         gameState.enemies = new ArrayList<Character>();
-        graphicsHandler.redFrames = dummyFrames;
-        graphicsHandler.yellowFrames = dummyFrames;
-        assertNotNull(gameState.initialiseLevelMap(setup, graphicsHandler, "src/test/resources/"));
-        assertNotNull(gameState.initialiseLevelMap(setup, graphicsHandler, "nonexistent/file/path"));
+        assertNotNull(gameState.initialiseLevelMap(setup, "src/test/resources/"));
+        assertNotNull(gameState.initialiseLevelMap(setup, "nonexistent/file/path"));
     }
 
     @Test
     public void testEntityUpdates() {
-        RedEnemy redEnemy = new RedEnemy(dummyFrames, 0, 0);
-        gameState.player = new Player(dummyFrames);
+        RedEnemy redEnemy = new RedEnemy(0, 0);
+        gameState.player = new Player();
         gameState.player.x = 0;
         gameState.player.y = 0;
         assertTrue(gameState.checkEnemyKill(redEnemy));
         gameState.player.x = 1;
         assertFalse(gameState.checkEnemyKill(redEnemy));
 
-        gameState.levelMap = new Tile[4][4];
-        for (int i = 0; i < 4; i++)
-            for (int j = 0; j < 4; j++)
-                gameState.levelMap[i][j] = Tile.EMPTY;
-        gameState.levelMap[2][1] = Tile.SOLID;
+        gameState.levelMap = new TileGrid(4, 4);
+        gameState.levelMap.set(1, 2, Tile.SOLID);
 
         gameState.enemies = new ArrayList<Character>();
         assertFalse(gameState.updateEnemies());
-        redEnemy.gameTime = 30;
+        int startTime = Character.MOVEINTERVAL / 2;
+        redEnemy.gameTime = startTime;
         gameState.enemies.add(redEnemy);
         assertFalse(gameState.updateEnemies());
         gameState.player.x = redEnemy.x + redEnemy.dir.getXOffset();
         gameState.player.y = redEnemy.y + redEnemy.dir.getYOffset();
-        redEnemy.gameTime = 60;
+        // every update so far has ticked the enemy once, and it moves on the update starting at MOVEINTERVAL
+        for (int gameTime = startTime + 1; gameTime < Character.MOVEINTERVAL; gameTime++) {
+            assertFalse(gameState.updateEnemies());
+        }
         assertTrue(gameState.updateEnemies());
 
         gameState.timeLeft = 1000;
@@ -77,39 +70,34 @@ public class GameStateTest {
         gameState.bombs = new ArrayList<Bomb>();
         gameState.explosions = new ArrayList<Explosion>();
         assertFalse(gameState.updateExplosions());
-        gameState.explosions.add(new Explosion(new PImage(), 1, 1));
+        gameState.explosions.add(new Explosion(Direction.CENTRE, 1, 1));
         assertFalse(gameState.updateExplosions());
+        // the move onto the player left the enemy unticked at MOVEINTERVAL, so this update moves it again
         assertFalse(gameState.updateAllEntities());
+        for (int gameTime = Character.MOVEINTERVAL + 1; gameTime < 2 * Character.MOVEINTERVAL; gameTime++) {
+            assertFalse(gameState.updateAllEntities());
+        }
         gameState.player.x = redEnemy.x + redEnemy.dir.getXOffset();
         gameState.player.y = redEnemy.y + redEnemy.dir.getYOffset();
-        redEnemy.gameTime = 60;
         assertTrue(gameState.updateAllEntities());
-        Explosion explosion = new Explosion(new PImage(), gameState.player.x, gameState.player.y);
+        Explosion explosion = new Explosion(Direction.CENTRE, gameState.player.x, gameState.player.y);
         gameState.explosions.add(explosion);
         assertTrue(gameState.updateExplosions());
     }
 
     @Test
     public void testBombUpdates() {
-        gameState.levelMap = new Tile[5][5];
-        for (int i = 0; i < 5; i++)
-            for (int j = 0; j < 5; j++)
-                gameState.levelMap[i][j] = Tile.EMPTY;
-        gameState.levelMap[2][1] = Tile.SOLID;
+        gameState.levelMap = new TileGrid(5, 5);
+        gameState.levelMap.set(1, 2, Tile.SOLID);
         gameState.bombs = new ArrayList<Bomb>();
 
-        ArrayList<PImage> dummyImgs = new ArrayList<PImage>();
-        dummyImgs.add(new PImage());
-        Map<Direction, PImage> dummyMap = new HashMap<Direction, PImage>();
-        dummyMap.put(Direction.DOWN, new PImage());
-
-        Bomb bomb1 = new Bomb(dummyImgs, dummyMap, 2, 2);
+        Bomb bomb1 = new Bomb(2, 2);
         bomb1.gameTime = 30;
         assertNull(bomb1.checkExplode(gameState.levelMap));
         bomb1.gameTime = 200;
         assertNotNull(bomb1.checkExplode(gameState.levelMap));
 
-        Bomb bomb2 = new Bomb(dummyImgs, dummyMap, 3, 3);
+        Bomb bomb2 = new Bomb(3, 3);
         bomb2.gameTime = 200;
         assertNotNull(bomb2.checkExplode(gameState.levelMap));
 
@@ -121,7 +109,7 @@ public class GameStateTest {
 
     @Test
     public void testEndGameMethods() {
-        gameState.player = new Player(dummyFrames);
+        gameState.player = new Player();
         gameState.player.x = 0;
         gameState.player.y = 0;
         gameState.goalCoords = new Coordinates(0, 0);
@@ -136,8 +124,6 @@ public class GameStateTest {
         setup.levelFiles = new ArrayList<String>();
         setup.levelFiles.add("level1.txt");
         gameState.enemies = new ArrayList<Character>();
-        graphicsHandler.redFrames = dummyFrames;
-        graphicsHandler.yellowFrames = dummyFrames;
 
         gameState.explosions = new ArrayList<Explosion>();
         gameState.bombs = new ArrayList<Bomb>();
@@ -156,24 +142,26 @@ public class GameStateTest {
         gameState.player.lives = 100;
         assertFalse(gameState.doLoss(setup, graphicsHandler));
 
-        gameState.enemies.add(new RedEnemy(dummyFrames, -1, -1));
-        gameState.explosions.add(new Explosion(dummyPic, -1, -1));
+        gameState.addEnemy(new RedEnemy(-1, -1));
+        gameState.addExplosion(new Explosion(Direction.CENTRE, -1, -1));
         assertFalse(gameState.checkLoss(setup, graphicsHandler));
-        gameState.enemies.add(new RedEnemy(dummyFrames, gameState.player.x, gameState.player.y));
+        gameState.addEnemy(new RedEnemy(gameState.player.x, gameState.player.y));
         assertTrue(gameState.checkLoss(setup, graphicsHandler));
-        gameState.explosions.add(new Explosion(dummyPic, gameState.player.x, gameState.player.y));
+        gameState.addExplosion(new Explosion(Direction.CENTRE, gameState.player.x, gameState.player.y));
         assertTrue(gameState.checkLoss(setup, graphicsHandler));
     }
 
     @Test
     public void testCheckExplosionKill() {
-        gameState.player = new Player(dummyFrames);
+        gameState.player = new Player();
         gameState.player.x = 0;
         gameState.player.y = 0;
+        gameState.levelMap = new TileGrid(4, 4);
         gameState.enemies = new ArrayList<Character>();
-        gameState.enemies.add(new RedEnemy(dummyFrames, 1, 1));
-        Explosion explosion = new Explosion(new PImage(), 1, 1);
-        gameState.checkExplosionKill(explosion);
+        gameState.enemies.add(new RedEnemy(1, 1));
+        Explosion explosion = new Explosion(Direction.CENTRE, 1, 1);
+        assertFalse(gameState.checkExplosionKill(explosion));
+        assertTrue(gameState.enemies.isEmpty());
     }
 
 }
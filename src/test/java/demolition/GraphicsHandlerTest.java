@@ -0,0 +1,117 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import processing.core.PImage;
+
+public class GraphicsHandlerTest {
+
+    RecordingApp app;
+    GraphicsHandler graphicsHandler;
+    TileGrid levelMap;
+
+    @BeforeEach
+    public void setupObjects() {
+        app = new RecordingApp();
+        graphicsHandler = app.graphicsHandler();
+        levelMap = new TileGrid(GameState.MAPWIDTH, GameState.MAPHEIGHT);
+    }
+
+    @Test
+    public void testRedrawOnce() {
+        // a character standing on a bomb and its explosion
+        graphicsHandler.addCharRedraw(3, 3);
+        graphicsHandler.addRedraw(3, 3);
+        graphicsHandler.addRedraw(3, 3);
+        assertEquals(2, graphicsHandler.pendingRedraws());
+        graphicsHandler.redrawTiles(levelMap);
+        assertEquals(2, app.images);
+        assertEquals(0, graphicsHandler.pendingRedraws());
+    }
+
+    @Test
+    public void testOverlayErased() {
+        GameState gameState = new GameState();
+        gameState.profiler = new Profiler();
+        graphicsHandler.drawOverlay(gameState, 0);
+        assertEquals(1, app.rects);
+        assertEquals(GraphicsHandler.OVERLAYWIDTH * GraphicsHandler.OVERLAYHEIGHT, graphicsHandler.pendingRedraws());
+        graphicsHandler.redrawTiles(levelMap);
+        assertEquals(GraphicsHandler.OVERLAYWIDTH * GraphicsHandler.OVERLAYHEIGHT, app.images);
+    }
+
+    @Test
+    public void testRedrawUI() {
+        graphicsHandler.addCharRedraw(3, 0);
+        graphicsHandler.redrawTiles(levelMap);
+        assertEquals(1, app.images);
+        assertEquals(1, app.rects);
+    }
+
+    @Test
+    public void testFullRedraw() {
+        for (int y = 0; y < GameState.MAPHEIGHT; y++) {
+            for (int x = 0; x < GameState.MAPWIDTH; x++) {
+                graphicsHandler.addCharRedraw(x, y);
+            }
+        }
+        assertTrue(graphicsHandler.pendingRedraws() > GraphicsHandler.FULLREDRAW);
+        graphicsHandler.redrawTiles(levelMap);
+        assertEquals(1, app.images);
+        assertEquals(GameState.MAPWIDTH, app.rects);
+    }
+
+    @Test
+    public void testBackgroundCached() {
+        graphicsHandler.drawLevel(levelMap, new Player());
+        assertEquals(1, app.layers);
+        int drawn = app.images;
+        graphicsHandler.addRedraw(3, 3);
+        graphicsHandler.redrawTiles(levelMap);
+        graphicsHandler.drawView(levelMap);
+        assertEquals(drawn + 2, app.images);
+        assertEquals(1, app.layers);
+        assertSame(graphicsHandler, levelMap.listener);
+    }
+
+    @Test
+    public void testBackgroundPatched() {
+        levelMap.set(3, 3, Tile.BROKEN);
+        graphicsHandler.tileImages.put(Tile.EMPTY, solid(0xFF00FF00));
+        graphicsHandler.updateBackground(levelMap);
+        int x = 3 * App.TILESIZE + 1;
+        assertNotEquals(0xFF00FF00, graphicsHandler.backgroundLayer.get(x, x));
+
+        levelMap.setAt(levelMap.index(3, 3), Tile.EMPTY);
+        assertEquals(0xFF00FF00, graphicsHandler.backgroundLayer.get(x, x));
+        assertEquals(1, graphicsHandler.pendingRedraws());
+    }
+
+    @Test
+    public void testBackgroundFollowsCamera() {
+        levelMap = new TileGrid(40, 40);
+        Player player = new Player();
+        graphicsHandler.drawLevel(levelMap, player);
+        graphicsHandler.tileImages.put(Tile.EMPTY, solid(0xFF00FF00));
+        player.x = 30;
+        graphicsHandler.updateCamera(levelMap, player);
+        graphicsHandler.updateBackground(levelMap);
+        assertEquals(0xFF00FF00, graphicsHandler.backgroundLayer.get(1, 1));
+        assertEquals(1, app.layers);
+    }
+
+    private static PImage solid(int colour) {
+        PImage image = new PImage(App.TILESIZE, App.TILESIZE, PImage.ARGB);
+        java.util.Arrays.fill(image.pixels, colour);
+        return image;
+    }
+
+    @Test
+    public void testOffScreen() {
+        levelMap = new TileGrid(40, 40);
+        graphicsHandler.addCharRedraw(30, 30);
+        assertEquals(0, graphicsHandler.pendingRedraws());
+    }
+
+}
@@ -0,0 +1,104 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HeadlessTest {
+
+    GameConfig config;
+    GameState gameState;
+
+    @BeforeEach
+    public void setupObjects() {
+        config = new GameConfig(Arrays.asList("level1.txt"), Arrays.asList(180));
+        gameState = GameState.newGame(config, 0, 3, "src/test/resources/");
+    }
+
+    @Test
+    public void testTickWithoutDisplay() {
+        assertEquals(180 * GameState.TICKRATE, gameState.timeLeft);
+        assertEquals(2, gameState.enemies.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(gameState.tick(config, GameListener.HEADLESS));
+        }
+        assertEquals(180 * GameState.TICKRATE - 1000, gameState.timeLeft);
+    }
+
+    @Test
+    public void testBombWithoutDisplay() {
+        KeyHandler keyHandler = new KeyHandler();
+        assertTrue(keyHandler.handlePress(32, gameState.player, gameState.bombs, gameState.levelMap));
+        assertEquals(1, gameState.bombs.size());
+        for (int i = 0; i < 121; i++) {
+            gameState.updateBombs();
+        }
+        assertTrue(gameState.bombs.isEmpty());
+        assertFalse(gameState.explosions.isEmpty());
+    }
+
+    @Test
+    public void testLossWithoutDisplay() {
+        gameState.player.lives = 1;
+        gameState.addEnemy(new RedEnemy(gameState.player.x, gameState.player.y));
+        assertTrue(gameState.checkLoss(config, GameListener.HEADLESS));
+        assertTrue(gameState.gameEnded);
+        assertFalse(gameState.tick(config, GameListener.HEADLESS));
+    }
+
+    @Test
+    public void testLargeMap(@TempDir Path dir) throws IOException {
+        int size = 4096;
+        try (PrintWriter writer = new PrintWriter(dir.resolve("large.txt").toFile())) {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                line.setLength(0);
+                for (int j = 0; j < size; j++) {
+                    boolean wall = (i == 0) || (j == 0) || (i == size - 1) || (j == size - 1) || (i % 2 == 0 && j % 2 == 0);
+                    line.append(wall ? 'W' : ' ');
+                }
+                if (i == 1) {
+                    line.setCharAt(1, 'P');
+                    line.setCharAt(size - 2, 'R');
+                } else if (i == size - 2) {
+                    line.setCharAt(1, 'Y');
+                    line.setCharAt(size - 2, 'G');
+                }
+                writer.println(line);
+            }
+        }
+
+        config = new GameConfig(Arrays.asList("large.txt"), Arrays.asList(180));
+        gameState.enemies.clear();
+        gameState.levelMap = gameState.initialiseLevelMap(config, dir.toString() + "/");
+        assertEquals(size, gameState.levelMap.height);
+        assertEquals(size, gameState.levelMap.width);
+        assertEquals(size - 2, gameState.goalCoords.x);
+        assertEquals(size - 2, gameState.goalCoords.y);
+        assertEquals(2, gameState.enemies.size());
+        for (int i = 0; i < 120; i++) {
+            assertTrue(gameState.tick(config, GameListener.HEADLESS));
+        }
+    }
+
+    @Test
+    public void testDeclaredSize() {
+        config.levelWidths = Arrays.asList(20);
+        config.levelHeights = Arrays.asList(16);
+        gameState.enemies.clear();
+        gameState.levelMap = gameState.initialiseLevelMap(config, "src/test/resources/");
+        assertEquals(16, gameState.levelMap.height);
+        assertEquals(20, gameState.levelMap.width);
+        assertEquals(Tile.SOLID, gameState.levelMap.get(14, 12));
+        assertEquals(Tile.EMPTY, gameState.levelMap.get(19, 15));
+
+        config.levelWidths = Arrays.asList(10);
+        assertThrows(IllegalArgumentException.class, () -> gameState.initialiseLevelMap(config, "src/test/resources/"));
+    }
+
+}
@@ -0,0 +1,84 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LevelCatalogTest {
+
+    private static Path campaign(Path dir, int levels) throws IOException {
+        StringBuilder json = new StringBuilder("{\n  \"levels\": [\n");
+        for (int i = 0; i < levels; i++) {
+            json.append(String.format("    {\"path\": \"level%d.txt\", \"time\": %d%s}%s\n",
+                i, 100 + i, (i % 2 == 0) ? ", \"width\": 20, \"height\": 16" : "", (i < levels - 1) ? "," : ""));
+        }
+        json.append("  ],\n  \"lives\": 3\n}\n");
+        Path config = dir.resolve("config.json");
+        Files.write(config, json.toString().getBytes("UTF-8"));
+        return config;
+    }
+
+    @Test
+    public void testLazy(@TempDir Path dir) throws IOException {
+        try (LevelCatalog catalog = LevelCatalog.open(campaign(dir, 10000).toString())) {
+            assertEquals(3, catalog.lives);
+            assertEquals(0, catalog.resolved());
+
+            GameConfig config = new GameConfig();
+            config.load(catalog);
+            assertEquals("level0.txt", config.levelFiles.get(0));
+            assertEquals(100, config.levelTimes.get(0));
+            assertEquals(20, config.declaredWidth(0));
+            assertEquals(0, config.declaredHeight(1));
+            assertEquals(2, catalog.resolved());
+
+            assertTrue(config.hasLevel(41));
+            assertEquals("level41.txt", config.levelFiles.get(41));
+            assertEquals(42, catalog.resolved());
+            assertFalse(config.hasLevel(10000));
+            assertEquals(10000, config.levelFiles.size());
+        }
+    }
+
+    @Test
+    public void testConfigClosesCatalog(@TempDir Path dir) throws IOException {
+        LevelCatalog catalog = LevelCatalog.open(campaign(dir, 100).toString());
+        GameConfig config = new GameConfig();
+        config.load(catalog);
+        assertTrue(config.hasLevel(1));
+        config.close();
+        // the levels already read stay, but the rest of the file is no longer read
+        assertEquals("level1.txt", config.levelFiles.get(1));
+        assertFalse(config.hasLevel(2));
+        assertEquals(2, catalog.resolved());
+    }
+
+    @Test
+    public void testEntries(@TempDir Path dir) throws IOException {
+        Path config = dir.resolve("config.json");
+        Files.write(config, "{\"lives\": 2, \"levels\": [{\"time\": 5, \"path\": \"a.txt\", \"note\": [1]}]}".getBytes("UTF-8"));
+        LevelCatalog catalog = LevelCatalog.open(config.toString());
+        assertEquals(2, catalog.lives);
+        assertEquals("a.txt", catalog.files.get(0));
+        assertEquals(null, catalog.widths.get(0));
+        assertFalse(catalog.resolve(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> catalog.files.get(1));
+    }
+
+    @Test
+    public void testInvalid(@TempDir Path dir) throws IOException {
+        assertThrows(FileNotFoundException.class, () -> LevelCatalog.open(dir.resolve("missing.json").toString()));
+        Path config = dir.resolve("config.json");
+        Files.write(config, "{\"levels\": [{\"path\": \"a.txt\"}], \"lives\": 3}".getBytes("UTF-8"));
+        LevelCatalog catalog = LevelCatalog.open(config.toString());
+        assertThrows(IllegalArgumentException.class, () -> catalog.resolve(0));
+        Files.write(config, "{\"levels\": []}".getBytes("UTF-8"));
+        assertThrows(IllegalArgumentException.class, () -> LevelCatalog.open(config.toString()));
+    }
+
+}
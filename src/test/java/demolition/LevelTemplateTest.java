@@ -0,0 +1,128 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LevelTemplateTest {
+
+    @Test
+    public void testParse() throws IOException {
+        LevelTemplate template = LevelTemplate.parse("src/test/resources/level1.txt", 0, 0);
+        assertEquals(15, template.width());
+        assertEquals(13, template.height());
+        assertEquals(1, template.playerX);
+        assertEquals(1, template.playerY);
+        assertNotNull(template.goalCoords);
+        assertEquals(2, template.enemies());
+
+        TileGrid levelMap = template.newMap();
+        assertEquals(Tile.SOLID, levelMap.get(0, 0));
+        assertEquals(Tile.BROKEN, levelMap.get(6, 1));
+        assertEquals(Tile.GOAL, levelMap.get(template.goalCoords.x, template.goalCoords.y));
+    }
+
+    @Test
+    public void testImmutable() throws IOException {
+        LevelTemplate template = LevelTemplate.parse("src/test/resources/level1.txt", 0, 0);
+        TileGrid levelMap = template.newMap();
+        levelMap.set(6, 1, Tile.EMPTY);
+        assertEquals(Tile.BROKEN, template.newMap().get(6, 1));
+        assertNotSame(levelMap, template.newMap());
+    }
+
+    @Test
+    public void testMissing() {
+        assertThrows(FileNotFoundException.class, () -> LevelTemplate.parse("src/test/resources/missing.txt", 0, 0));
+        LevelTemplate template = LevelTemplate.empty(5, 4);
+        assertEquals(0, template.playerX);
+        assertEquals(4, template.goalCoords.x);
+        assertEquals(3, template.goalCoords.y);
+        assertEquals(0, template.enemies());
+    }
+
+    @Test
+    public void testLineEndings(@TempDir Path dir) throws IOException {
+        Path level = dir.resolve("level.txt");
+        Files.write(level, "WWW\r\nWPW\rW W\nWGW".getBytes("US-ASCII"));
+        LevelTemplate template = LevelTemplate.parse(level.toString(), 0, 0);
+        assertEquals(3, template.width());
+        assertEquals(4, template.height());
+        assertEquals(1, template.playerY);
+        assertEquals(Tile.EMPTY, template.newMap().get(1, 2));
+        assertEquals(3, template.goalCoords.y);
+
+        Files.write(level, "W\n\nWW\n".getBytes("US-ASCII"));
+        template = LevelTemplate.parse(level.toString(), 0, 0);
+        assertEquals(2, template.width());
+        assertEquals(3, template.height());
+        assertEquals(Tile.EMPTY, template.newMap().get(1, 0));
+    }
+
+    @Test
+    public void testMalformed(@TempDir Path dir) throws IOException {
+        Path level = dir.resolve("level.txt");
+        Files.write(level, "WWW\nW?W\nWWW\n".getBytes("US-ASCII"));
+        LevelFormatException e = assertThrows(LevelFormatException.class, () -> LevelTemplate.parse(level.toString(), 0, 0));
+        assertEquals(2, e.row);
+        assertEquals(2, e.column);
+
+        Files.write(level, "WWW\nWWWW\n".getBytes("US-ASCII"));
+        e = assertThrows(LevelFormatException.class, () -> LevelTemplate.parse(level.toString(), 3, 0));
+        assertEquals(2, e.row);
+        assertEquals(4, e.column);
+
+        e = assertThrows(LevelFormatException.class, () -> LevelTemplate.parse(level.toString(), 0, 1));
+        assertEquals(2, e.row);
+    }
+
+    @Test
+    public void testMalformedFirstLevel(@TempDir Path dir) throws IOException {
+        Files.write(dir.resolve("first.txt"), "WWW\nW?W\nWWW\n".getBytes("US-ASCII"));
+        GameConfig config = new GameConfig(Arrays.asList("first.txt"), Arrays.asList(180));
+        // the first level is loaded at startup, so the problem is thrown rather than played around
+        LevelFormatException e = assertThrows(LevelFormatException.class,
+            () -> GameState.newGame(config, 0, 3, dir.toString() + "/"));
+        assertEquals(2, e.row);
+    }
+
+    @Test
+    public void testMalformedLaterLevel(@TempDir Path dir) throws IOException {
+        Files.write(dir.resolve("first.txt"), "WWWW\nWPGW\nWWWW\n".getBytes("US-ASCII"));
+        Files.write(dir.resolve("second.txt"), "WWW\nW?W\nWWW\n".getBytes("US-ASCII"));
+        GameConfig config = new GameConfig(Arrays.asList("first.txt", "second.txt"), Arrays.asList(180, 180));
+        GameState gameState = GameState.newGame(config, 0, 3, dir.toString() + "/");
+
+        // winning the first level moves on to an empty map rather than throwing mid-tick
+        gameState.player.x = 2;
+        assertFalse(gameState.checkWin(config, GameListener.HEADLESS));
+        assertEquals(1, gameState.currentLevel);
+        assertEquals(GameState.MAPWIDTH, gameState.levelMap.width);
+        assertTrue(gameState.tick(config, GameListener.HEADLESS));
+    }
+
+    @Test
+    public void testResetUsesCache(@TempDir Path dir) throws IOException {
+        Path level = dir.resolve("level.txt");
+        Files.copy(Path.of("src/test/resources/level1.txt"), level);
+
+        GameConfig config = new GameConfig(Arrays.asList(level.toString()), Arrays.asList(180));
+        GameState gameState = GameState.newGame(config, 0, 3, "");
+        gameState.levelMap.set(6, 1, Tile.EMPTY);
+
+        // the level file is not read again
+        Files.delete(level);
+        gameState.resetLevel(config, GameListener.HEADLESS);
+        assertEquals(Tile.BROKEN, gameState.levelMap.get(6, 1));
+        assertEquals(2, gameState.enemies.size());
+        assertEquals(1, gameState.player.x);
+        assertEquals(1, gameState.player.y);
+    }
+
+}
@@ -3,36 +3,19 @@ package demolition;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.util.Map;
-import java.util.HashMap;
-import java.util.ArrayList;
-import processing.core.PImage;
-
 public class MovementTest {
 
-    Tile[][] levelMap;
-    Map<Direction, ArrayList<PImage>> dummyFrames;
+    TileGrid levelMap;
 
     @BeforeEach
     public void setupObjects() {
-        levelMap = new Tile[4][4];
-        for (int i = 0; i < 4; i++)
-            for (int j = 0; j < 4; j++)
-                levelMap[i][j] = Tile.EMPTY;
-        levelMap[2][1] = Tile.SOLID;
-
-        dummyFrames = new HashMap<Direction, ArrayList<PImage>>();
-        ArrayList<PImage> tempList = new ArrayList<PImage>();
-        tempList.add(new PImage());
-        dummyFrames.put(Direction.DOWN, tempList);
-        dummyFrames.put(Direction.UP, tempList);
-        dummyFrames.put(Direction.LEFT, tempList);
-        dummyFrames.put(Direction.RIGHT, tempList);
+        levelMap = new TileGrid(4, 4);
+        levelMap.set(1, 2, Tile.SOLID);
     }
 
     @Test
     public void testPlayerMove() {
-        Player player = new Player(dummyFrames);
+        Player player = new Player();
         player.x = 1;
         player.y = 1;
         assertFalse(player.move(Direction.DOWN, levelMap));
@@ -44,9 +27,24 @@ public class MovementTest {
         assertFalse(player.autoMove(levelMap));
     }
 
+    @Test
+    public void testMapEdges() {
+        Player player = new Player();
+        player.x = 0;
+        player.y = 0;
+        assertFalse(player.move(Direction.UP, levelMap));
+        assertFalse(player.move(Direction.LEFT, levelMap));
+        player.x = 3;
+        player.y = 3;
+        assertFalse(player.move(Direction.DOWN, levelMap));
+        assertFalse(player.move(Direction.RIGHT, levelMap));
+        assertEquals(player.x, 3);
+        assertEquals(player.y, 3);
+    }
+
     @Test
     public void testRedEnemy() {
-        RedEnemy redEnemy = new RedEnemy(dummyFrames, 1, 1);
+        RedEnemy redEnemy = new RedEnemy(1, 1);
         assertFalse(redEnemy.move(Direction.DOWN, levelMap));
         assertEquals(redEnemy.x, 1);
         assertEquals(redEnemy.y, 1);
@@ -108,7 +106,7 @@ public class MovementTest {
 
     @Test
     public void testYellowEnemy() {
-        YellowEnemy yellowEnemy = new YellowEnemy(dummyFrames, 1, 1);
+        YellowEnemy yellowEnemy = new YellowEnemy(1, 1);
         assertFalse(yellowEnemy.move(Direction.DOWN, levelMap));
         assertEquals(yellowEnemy.x, 1);
         assertEquals(yellowEnemy.y, 1);
@@ -0,0 +1,91 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OccupancyIndexTest {
+
+    TileGrid levelMap;
+    OccupancyIndex occupancy;
+
+    @BeforeEach
+    public void setupObjects() {
+        levelMap = new TileGrid(4, 4);
+        occupancy = new OccupancyIndex(4, 4);
+    }
+
+    @Test
+    public void testEnemiesFollowMoves() {
+        RedEnemy first = new RedEnemy(1, 1);
+        YellowEnemy second = new YellowEnemy(1, 1);
+        occupancy.addEnemy(first);
+        occupancy.addEnemy(second);
+        assertNotNull(occupancy.enemyAt(1, 1));
+
+        assertTrue(first.move(Direction.RIGHT, levelMap));
+        assertEquals(first, occupancy.enemyAt(2, 1));
+        assertEquals(second, occupancy.enemyAt(1, 1));
+
+        assertTrue(second.move(Direction.UP, levelMap));
+        assertNull(occupancy.enemyAt(1, 1));
+        assertEquals(second, occupancy.enemyAt(1, 0));
+    }
+
+    @Test
+    public void testMapTooLargeForDenseArrays() {
+        // dense per-tile arrays for this map would take gigabytes, but only the pages reached are allocated
+        int size = 46000;
+        ChunkedTileGrid hugeMap = new ChunkedTileGrid(size, size, 4);
+        OccupancyIndex hugeIndex = new OccupancyIndex(size, size);
+        RedEnemy enemy = new RedEnemy(size - 1, size - 1);
+        hugeIndex.addEnemy(enemy);
+        assertTrue(enemy.move(Direction.LEFT, hugeMap));
+        assertEquals(enemy, hugeIndex.enemyAt(size - 2, size - 1));
+        assertNull(hugeIndex.enemyAt(size - 1, size - 1));
+        assertNull(hugeIndex.enemyAt(0, 0));
+        assertEquals(0, hugeIndex.explosionsAt(0, 0));
+        assertEquals(1, hugeIndex.killEnemiesAt(size - 2, size - 1));
+        hugeMap.close();
+    }
+
+    @Test
+    public void testKillEnemies() {
+        RedEnemy first = new RedEnemy(2, 2);
+        RedEnemy second = new RedEnemy(2, 2);
+        occupancy.addEnemy(first);
+        occupancy.addEnemy(second);
+        assertEquals(0, occupancy.killEnemiesAt(1, 2));
+        assertEquals(2, occupancy.killEnemiesAt(2, 2));
+        assertTrue(first.killed);
+        assertTrue(second.killed);
+        assertNull(occupancy.enemyAt(2, 2));
+
+        // killed enemies no longer update the index
+        assertTrue(first.move(Direction.LEFT, levelMap));
+        assertNull(occupancy.enemyAt(1, 2));
+    }
+
+    @Test
+    public void testExplosionCounts() {
+        Explosion first = new Explosion(Direction.CENTRE, 3, 0);
+        Explosion second = new Explosion(Direction.HORIZONTAL, 3, 0);
+        occupancy.addExplosion(first);
+        occupancy.addExplosion(second);
+        assertEquals(2, occupancy.explosionsAt(3, 0));
+        occupancy.removeExplosion(first);
+        assertEquals(1, occupancy.explosionsAt(3, 0));
+        occupancy.removeExplosion(second);
+        assertEquals(0, occupancy.explosionsAt(3, 0));
+    }
+
+    @Test
+    public void testOutsideMap() {
+        occupancy.addEnemy(new RedEnemy(-1, -1));
+        occupancy.addExplosion(new Explosion(Direction.CENTRE, 4, 4));
+        assertNull(occupancy.enemyAt(-1, -1));
+        assertEquals(0, occupancy.explosionsAt(4, 4));
+        assertTrue(occupancy.fits(levelMap));
+        assertFalse(occupancy.fits(new TileGrid(4, 5)));
+    }
+
+}
@@ -0,0 +1,106 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.io.TempDir;
+import processing.core.PImage;
+
+public class PixelCacheTest {
+
+    /**
+     * An app that counts how many images it has decoded.
+     */
+    private static class DecodingApp extends RecordingApp {
+
+        int decodes;
+
+        public PImage loadImage(String filename) {
+            decodes++;
+            return super.loadImage(filename);
+        }
+
+    }
+
+    private static Path writeImage(Path dir, int colour) throws IOException {
+        BufferedImage image = new BufferedImage(5, 3, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < 5; x++) {
+            image.setRGB(x, 1, colour + x);
+        }
+        Path file = dir.resolve("sprite.png");
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+
+    @Test
+    public void testCachedLoadSkipsDecoding(@TempDir Path dir) throws IOException {
+        Path file = writeImage(dir, 0xFF102030);
+        PixelCache cache = new PixelCache(dir.resolve("cache").toString());
+        DecodingApp app = new DecodingApp();
+
+        PImage decoded = cache.load(app, file.toString());
+        assertEquals(1, app.decodes);
+        assertTrue(Files.exists(cache.entry(file.toString())));
+
+        PImage cached = cache.load(app, file.toString());
+        assertEquals(1, app.decodes);
+        assertEquals(decoded.width, cached.width);
+        assertEquals(decoded.height, cached.height);
+        assertEquals(decoded.format, cached.format);
+        assertArrayEquals(decoded.pixels, cached.pixels);
+        assertEquals(0xFF102032, cached.pixels[5 + 2]);
+    }
+
+    @Test
+    public void testChangedFileIsDecodedAgain(@TempDir Path dir) throws IOException {
+        Path file = writeImage(dir, 0xFF102030);
+        PixelCache cache = new PixelCache(dir.resolve("cache").toString());
+        DecodingApp app = new DecodingApp();
+        Path oldEntry = cache.entry(file.toString());
+        cache.load(app, file.toString());
+
+        writeImage(dir, 0xFF405060);
+        assertNotEquals(oldEntry, cache.entry(file.toString()));
+        PImage changed = cache.load(app, file.toString());
+        assertEquals(2, app.decodes);
+        assertEquals(0xFF405060, changed.pixels[5]);
+    }
+
+    @Test
+    public void testCorruptEntryIsReplaced(@TempDir Path dir) throws IOException {
+        Path file = writeImage(dir, 0xFF102030);
+        PixelCache cache = new PixelCache(dir.resolve("cache").toString());
+        DecodingApp app = new DecodingApp();
+        cache.load(app, file.toString());
+        Path entry = cache.entry(file.toString());
+        Files.write(entry, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+
+        PImage image = cache.load(app, file.toString());
+        assertEquals(2, app.decodes);
+        assertEquals(0xFF102030, image.pixels[5]);
+        cache.load(app, file.toString());
+        assertEquals(2, app.decodes);
+    }
+
+    @Test
+    public void testLoaderUsesCache(@TempDir Path dir) throws IOException {
+        Path file = writeImage(dir, 0xFF102030);
+        DecodingApp app = new DecodingApp();
+        PImage[] images = new PImage[2];
+        for (int i = 0; i < 2; i++) {
+            int index = i;
+            AssetLoader loader = new AssetLoader(app, 2);
+            loader.cache(new PixelCache(dir.resolve("cache").toString()));
+            loader.image(file.toString(), image -> images[index] = image);
+            loader.join();
+        }
+        assertEquals(1, app.decodes);
+        assertArrayEquals(images[0].pixels, images[1].pixels);
+    }
+
+}
@@ -0,0 +1,95 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+public class ProfilerTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.count);
+        assertEquals(1_000_000, histogram.max);
+        // every value is recorded to within 1/16 of itself
+        assertEquals(500_000, histogram.percentile(50), 500_000 / 16);
+        assertEquals(990_000, histogram.percentile(99), 990_000 / 16);
+        assertEquals(1_000_000, histogram.percentile(100));
+        histogram.reset();
+        assertEquals(0, histogram.percentile(50));
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(3);
+        assertEquals(3, histogram.percentile(50));
+        assertEquals(0, histogram.percentile(1));
+    }
+
+    @Test
+    public void testDisabled() {
+        assertEquals(0, Profiler.DISABLED.start());
+        assertEquals(0, Profiler.DISABLED.lap(Profiler.TICK, 0));
+        Profiler.DISABLED.endTick(0, 0);
+        assertEquals(0, Profiler.DISABLED.histogram(Profiler.TICK).count);
+    }
+
+    @Test
+    public void testTickPhases() {
+        GameState gameState = GameState.newGame(
+            new GameConfig(Arrays.asList("level1.txt"), Arrays.asList(180)), 0, 3, "src/test/resources/");
+        gameState.player.x = 0;
+        gameState.player.y = 0;
+        gameState.profiler = new Profiler();
+        for (int i = 0; i < 10; i++) {
+            gameState.tick(null, GameListener.HEADLESS);
+        }
+        for (int phase : new int[] {Profiler.PLAYER, Profiler.BOMBS, Profiler.ENEMIES, Profiler.EXPLOSIONS, Profiler.TICK}) {
+            assertEquals(10, gameState.profiler.histogram(phase).count, Profiler.PHASES[phase]);
+        }
+        assertEquals(0, gameState.profiler.histogram(Profiler.FRAME).count);
+        assertTrue(gameState.profiler.report().contains("updateEnemies"));
+    }
+
+    @Test
+    public void testWindowsAddUpInReport() {
+        Profiler profiler = new Profiler(true, Long.MAX_VALUE);
+        profiler.endTick(System.nanoTime(), 1);
+        profiler.newWindow();
+        assertEquals(0, profiler.histogram(Profiler.TICK).count);
+        profiler.endTick(System.nanoTime(), 2);
+        profiler.endTick(System.nanoTime(), 3);
+        profiler.newWindow();
+        profiler.endTick(System.nanoTime(), 4);
+        assertEquals(1, profiler.histogram(Profiler.TICK).count);
+        // the report covers every window, including the current one
+        assertTrue(profiler.report().contains("(4 samples)"));
+
+        LatencyHistogram total = new LatencyHistogram();
+        LatencyHistogram other = new LatencyHistogram();
+        total.record(10);
+        other.record(200);
+        other.record(200);
+        total.add(other);
+        assertEquals(3, total.count);
+        assertEquals(200, total.max);
+        assertEquals(10, total.percentile(30));
+    }
+
+    @Test
+    public void testOverBudget() {
+        Profiler profiler = new Profiler(true, 0);
+        profiler.endTick(System.nanoTime() - 1_000_000, 1);
+        profiler.endTick(System.nanoTime() - 1_000_000, 2);
+        assertEquals(2, profiler.overBudget);
+        assertEquals(2, profiler.histogram(Profiler.TICK).count);
+    }
+
+}
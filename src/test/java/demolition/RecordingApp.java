@@ -0,0 +1,123 @@
+package demolition;
+
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Field;
+import processing.core.PApplet;
+import processing.awt.PGraphicsJava2D;
+import processing.core.PGraphics;
+import processing.core.PImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An App that counts draw calls instead of drawing them, so that the
+ * GraphicsHandler can be tested without a display.
+ */
+public class RecordingApp extends App {
+
+    public int images;
+    public int rects;
+    public int layers;
+
+    /**
+     * Resolves files against the working directory, as runSketch would,
+     * so that images can be loaded without starting the sketch.
+     */
+    public RecordingApp() {
+        try {
+            Field sketchPath = PApplet.class.getDeclaredField("sketchPath");
+            sketchPath.setAccessible(true);
+            sketchPath.set(this, System.getProperty("user.dir"));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void image(PImage img, float a, float b) {
+        images++;
+    }
+
+    public void image(PImage img, float a, float b, float c, float d, int u1, int v1, int u2, int v2) {
+        images++;
+    }
+
+    public void rect(float a, float b, float c, float d) {
+        rects++;
+    }
+
+    public void fill(float v1, float v2, float v3) {
+    }
+
+    public void stroke(float v1, float v2, float v3) {
+    }
+
+    public void text(String str, float x, float y) {
+    }
+
+    public void text(int num, float x, float y) {
+    }
+
+    public void text(char[] chars, int start, int stop, float x, float y) {
+    }
+
+    public void textSize(float size) {
+    }
+
+    /**
+     * Creates an offscreen Java2D surface, which unlike the default does not
+     * need a screen device.
+     */
+    public PGraphics createGraphics(int w, int h) {
+        PGraphics graphics = new PGraphicsJava2D();
+        graphics.setParent(this);
+        graphics.setPrimary(false);
+        graphics.setSize(w, h);
+        graphics.image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        layers++;
+        return graphics;
+    }
+
+    /**
+     * Builds a GraphicsHandler drawing to this app, with blank images for
+     * every sprite and tile.
+     * @return The new GraphicsHandler.
+     */
+    public GraphicsHandler graphicsHandler() {
+        GraphicsHandler graphicsHandler = new GraphicsHandler(this);
+        graphicsHandler.playerFrames = characterFrames();
+        graphicsHandler.redFrames = characterFrames();
+        graphicsHandler.yellowFrames = characterFrames();
+        graphicsHandler.bombFrames = new ArrayList<Sprite>();
+        for (int i = 0; i < Bomb.FRAMES; i++) {
+            graphicsHandler.bombFrames.add(new Sprite(blank(App.TILESIZE)));
+        }
+        graphicsHandler.tileImages = new HashMap<Tile, PImage>();
+        for (Tile tile : Tile.values()) {
+            graphicsHandler.tileImages.put(tile, blank(App.TILESIZE));
+        }
+        graphicsHandler.explosionFrames = new HashMap<Direction, Sprite>();
+        for (Direction dir : Direction.values()) {
+            graphicsHandler.explosionFrames.put(dir, new Sprite(blank(App.TILESIZE)));
+        }
+        graphicsHandler.livesIcon = blank(App.TILESIZE);
+        graphicsHandler.timeIcon = blank(App.TILESIZE);
+        return graphicsHandler;
+    }
+
+    private static Map<Direction, ArrayList<Sprite>> characterFrames() {
+        Map<Direction, ArrayList<Sprite>> frames = new HashMap<Direction, ArrayList<Sprite>>();
+        for (Direction dir : new Direction[] {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT}) {
+            frames.put(dir, new ArrayList<Sprite>());
+            for (int i = 0; i < Character.FRAMES; i++) {
+                frames.get(dir).add(new Sprite(blank(App.CHARHEIGHT)));
+            }
+        }
+        return frames;
+    }
+
+    private static PImage blank(int height) {
+        return new PImage(App.TILESIZE, height, PImage.ARGB);
+    }
+
+}
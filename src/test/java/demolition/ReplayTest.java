@@ -0,0 +1,99 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class ReplayTest {
+
+    static final String LEVELPATH = "src/test/resources/";
+
+    GameConfig config;
+    InputLog log;
+    GameState gameState;
+
+    @BeforeEach
+    public void setupObjects() {
+        config = new GameConfig(Arrays.asList("level1.txt", "level2.txt"), Arrays.asList(180, 200));
+        log = new InputLog(1234, 3, config);
+        gameState = Replay.newGame(log, LEVELPATH);
+        gameState.recorder = log;
+    }
+
+    /**
+     * Plays a short session: a step right, then a bomb dropped at the
+     * player's feet, which costs a life.
+     */
+    private void record(int ticks) {
+        KeyHandler keyHandler = new KeyHandler();
+        for (int tick = 0; tick < ticks; tick++) {
+            if (tick == 10) {
+                assertTrue(gameState.applyInput(keyHandler, 39, true, config, GameListener.HEADLESS));
+            } else if (tick == 12) {
+                gameState.applyInput(keyHandler, 39, false, config, GameListener.HEADLESS);
+            } else if (tick == 20) {
+                assertTrue(gameState.applyInput(keyHandler, 32, true, config, GameListener.HEADLESS));
+            }
+            gameState.tick(config, GameListener.HEADLESS);
+        }
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        record(2000);
+        assertEquals(2000, log.ticks());
+        assertEquals(3, log.events());
+        assertEquals(2, gameState.player.lives);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.write(out);
+        InputLog read = InputLog.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(1234, read.seed);
+        assertEquals(3, read.lives);
+        assertEquals(Arrays.asList("level1.txt", "level2.txt"), read.config.levelFiles);
+        assertEquals(Arrays.asList(180, 200), read.config.levelTimes);
+        assertEquals(12, read.eventTick(1));
+        assertEquals(39, read.eventKey(1));
+        assertFalse(read.eventPressed(1));
+
+        GameState replayed = Replay.newGame(read, LEVELPATH);
+        assertEquals(2000, Replay.run(read, replayed, GameListener.HEADLESS));
+        assertEquals(gameState.checksum(), replayed.checksum());
+        assertEquals(gameState.player.lives, replayed.player.lives);
+    }
+
+    @Test
+    public void testSeededEnemies() {
+        record(600);
+        GameState other = Replay.newGame(log, LEVELPATH);
+        for (int tick = 0; tick < 600; tick++) {
+            if (tick == 10) {
+                other.applyInput(new KeyHandler(), 39, true, config, GameListener.HEADLESS);
+            } else if (tick == 20) {
+                other.applyInput(new KeyHandler(), 32, true, config, GameListener.HEADLESS);
+            }
+            other.tick(config, GameListener.HEADLESS);
+            assertEquals(log.checksum(tick), other.checksum());
+        }
+    }
+
+    @Test
+    public void testDivergence() {
+        record(100);
+        GameState replayed = Replay.newGame(log, LEVELPATH);
+        replayed.player.lives++;
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> Replay.run(log, replayed, GameListener.HEADLESS));
+        assertTrue(e.getMessage().contains("tick 0"));
+    }
+
+    @Test
+    public void testNotAReplay() {
+        assertThrows(IOException.class, () -> InputLog.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5})));
+    }
+
+}
@@ -4,10 +4,6 @@ import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import processing.core.PApplet;
-import processing.core.PImage;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.ArrayList;
 
 public class SetupTest {
 
@@ -27,16 +23,12 @@ public class SetupTest {
 
     @Test
     public void testPlayerSetup() {
-        assertNotNull(setup.player(app));
+        assertNotNull(setup.player(app, graphicsHandler));
     }
 
     @Test
     public void testJSONReading() {
-        Map<Direction, ArrayList<PImage>> dummyFrames = new HashMap<Direction, ArrayList<PImage>>();
-        ArrayList<PImage> dummyList = new ArrayList<PImage>();
-        dummyList.add(new PImage());
-        dummyFrames.put(Direction.DOWN, dummyList);
-        Player player = new Player(dummyFrames);
+        Player player = new Player();
         assertTrue(setup.parseJSON(player, "src/test/resources/"));
         assertFalse(setup.parseJSON(player, "nonexistent/file/path"));
     }
@@ -0,0 +1,110 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SpriteAtlasTest {
+
+    private static void assertPacked(String resourcePath, String name, BufferedImage atlas, Sprite sprite) throws IOException {
+        BufferedImage frame = ImageIO.read(new File(resourcePath, name));
+        assertEquals(frame.getWidth(), sprite.width);
+        assertEquals(frame.getHeight(), sprite.height);
+        for (int y = 0; y < frame.getHeight(); y++) {
+            for (int x = 0; x < frame.getWidth(); x++) {
+                int expected = frame.getRGB(x, y);
+                int actual = atlas.getRGB(sprite.u + x, sprite.v + y);
+                // fully transparent pixels may differ in colour
+                if ((expected >>> 24) != 0 || (actual >>> 24) != 0) {
+                    assertEquals(expected, actual, name);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPack(@TempDir Path dir) throws IOException {
+        List<String> names = new ArrayList<String>();
+        int colour = 0;
+        for (String directory : SpriteAtlas.DIRECTORIES) {
+            Files.createDirectories(dir.resolve(directory));
+            for (int i = 0; i < 5; i++) {
+                BufferedImage frame = new BufferedImage(32, (i % 2 == 0) ? 48 : 32, BufferedImage.TYPE_INT_ARGB);
+                for (int y = 0; y < frame.getHeight(); y++) {
+                    frame.setRGB(i, y, 0xFF000000 | (colour += 0x10203));
+                }
+                String name = String.format("%s/frame%d.png", directory, i);
+                ImageIO.write(frame, "png", dir.resolve(name).toFile());
+                names.add(name);
+            }
+        }
+        Files.write(dir.resolve("player/ignored.gif"), new byte[0]);
+
+        assertEquals(names.size(), SpriteAtlas.pack(dir.toString()));
+        SpriteAtlas atlas = SpriteAtlas.read(dir.toString());
+        assertEquals(names.size(), atlas.size());
+        assertFalse(atlas.contains("player/ignored.gif"));
+        BufferedImage image = ImageIO.read(dir.resolve(SpriteAtlas.IMAGE).toFile());
+        assertEquals(SpriteAtlas.WIDTH, image.getWidth());
+        for (String name : names) {
+            assertPacked(dir.toString(), name, image, atlas.sprite(name));
+        }
+    }
+
+    @Test
+    public void testBuiltAtlasIsCurrent() throws IOException {
+        SpriteAtlas atlas = SpriteAtlas.read(Setup.ATLASPATH);
+        assertNotNull(atlas, "run gradle atlas to build the sprite atlas");
+        BufferedImage image = ImageIO.read(new File(Setup.ATLASPATH, SpriteAtlas.IMAGE));
+        int frames = 0;
+        for (String directory : SpriteAtlas.DIRECTORIES) {
+            for (File file : new File(Setup.RESOURCEPATH, directory).listFiles()) {
+                if (file.getName().endsWith(".png")) {
+                    String name = directory + "/" + file.getName();
+                    assertTrue(atlas.contains(name), name);
+                    assertPacked(Setup.RESOURCEPATH, name, image, atlas.sprite(name));
+                    frames++;
+                }
+            }
+        }
+        assertEquals(frames, atlas.size());
+    }
+
+    @Test
+    public void testLoaderUsesAtlas(@TempDir Path dir) throws IOException {
+        for (String directory : SpriteAtlas.DIRECTORIES) {
+            Files.createDirectories(dir.resolve(directory));
+        }
+        ImageIO.write(new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB), "png", dir.resolve("bomb/bomb1.png").toFile());
+        // the atlas is built outside the resources, as the Gradle task does
+        Path build = dir.resolve("build");
+        SpriteAtlas.pack(dir.toString(), build.toString());
+        assertFalse(Files.exists(dir.resolve(SpriteAtlas.INDEX)));
+        ImageIO.write(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB), "png", dir.resolve("bomb/loose.png").toFile());
+
+        AssetLoader loader = new AssetLoader(new RecordingApp(), 2);
+        assertFalse(loader.atlas(dir.toString()));
+        assertTrue(loader.atlas(build.toString()));
+        Sprite[] sprites = new Sprite[2];
+        loader.sprite(dir.toString(), "bomb/bomb1.png", sprite -> sprites[0] = sprite);
+        loader.sprite(dir.toString(), "bomb/loose.png", sprite -> sprites[1] = sprite);
+        loader.join();
+
+        // the atlas image and the frame missing from it are the only files loaded
+        assertEquals(2, loader.size());
+        assertEquals(SpriteAtlas.WIDTH, sprites[0].image.width);
+        assertEquals(SpriteAtlas.PADDING, sprites[0].u);
+        assertEquals(16, sprites[1].image.width);
+        assertEquals(0, sprites[1].u);
+    }
+
+}
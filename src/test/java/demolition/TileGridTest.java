@@ -0,0 +1,205 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+public class TileGridTest {
+
+    TileGrid levelMap;
+
+    @BeforeEach
+    public void setupObjects() {
+        levelMap = new TileGrid(3, 2);
+    }
+
+    @Test
+    public void testSentinelBorder() {
+        for (int x = -1; x <= 3; x++) {
+            assertEquals(Tile.SOLID, levelMap.get(x, -1));
+            assertEquals(Tile.SOLID, levelMap.get(x, 2));
+        }
+        assertEquals(Tile.SOLID, levelMap.get(-1, 0));
+        assertEquals(Tile.SOLID, levelMap.get(3, 1));
+        assertEquals(Tile.EMPTY, levelMap.get(0, 0));
+        assertEquals(Tile.EMPTY, levelMap.get(2, 1));
+    }
+
+    @Test
+    public void testWalkable() {
+        levelMap.set(0, 0, Tile.BROKEN);
+        levelMap.set(1, 0, Tile.GOAL);
+        levelMap.set(2, 0, Tile.SOLID);
+        assertFalse(levelMap.isWalkable(0, 0));
+        assertTrue(levelMap.isWalkable(1, 0));
+        assertFalse(levelMap.isWalkable(2, 0));
+        assertTrue(levelMap.isWalkable(0, 1));
+        assertFalse(levelMap.isWalkable(0, 2));
+    }
+
+    @Test
+    public void testIndexing() {
+        int index = levelMap.index(1, 1);
+        assertEquals(levelMap.index(2, 1), index + levelMap.offset(Direction.RIGHT));
+        assertEquals(levelMap.index(1, 0), index + levelMap.offset(Direction.UP));
+        levelMap.setAt(index, Tile.GOAL);
+        assertEquals(Tile.GOAL, levelMap.get(1, 1));
+        assertEquals(Tile.GOAL, levelMap.getAt(index));
+        assertEquals(5 * 4, levelMap.capacity());
+    }
+
+    @Test
+    public void testCopy() {
+        levelMap.set(1, 1, Tile.BROKEN);
+        TileGrid copy = levelMap.copy();
+        copy.set(1, 1, Tile.EMPTY);
+        assertEquals(Tile.BROKEN, levelMap.get(1, 1));
+        assertEquals(Tile.EMPTY, copy.get(1, 1));
+        assertEquals(Tile.SOLID, copy.get(-1, -1));
+    }
+
+    @Test
+    public void testBlastStopsAtBorder() {
+        levelMap.set(2, 0, Tile.BROKEN);
+        Bomb bomb = new Bomb(0, 0);
+        bomb.gameTime = 121;
+        List<Explosion> explosions = bomb.checkExplode(levelMap);
+        // the centre, two tiles down to the edge and two tiles right into the broken wall
+        assertEquals(4, explosions.size());
+        assertEquals(Tile.EMPTY, levelMap.get(2, 0));
+        for (Explosion explosion : explosions) {
+            assertTrue(explosion.x >= 0 && explosion.y >= 0);
+        }
+    }
+
+    @Test
+    public void testBlastReach() {
+        levelMap.set(2, 0, Tile.BROKEN);
+        assertEquals(2, levelMap.blastReach(0, 0, Direction.RIGHT, 5));
+        assertEquals(1, levelMap.blastReach(0, 0, Direction.LEFT, 5));
+        assertEquals(2, levelMap.blastReach(0, 0, Direction.DOWN, 5));
+        assertEquals(2, levelMap.blastReach(0, 0, Direction.DOWN, 1));
+        levelMap.set(2, 0, Tile.EMPTY);
+        assertEquals(3, levelMap.blastReach(0, 0, Direction.RIGHT, 5));
+        assertEquals(3, levelMap.blastReach(0, 0, Direction.RIGHT, 2));
+    }
+
+    @Test
+    public void testBlastReachMatchesTiles() {
+        // wide enough that rays cross several longs of each bitboard
+        Random random = new Random(1);
+        TileGrid map = new TileGrid(150, 140);
+        for (int i = 0; i < 5000; i++) {
+            map.set(random.nextInt(map.width), random.nextInt(map.height), Tile.values()[random.nextInt(4)]);
+        }
+        TileGrid copy = map.copy();
+        ChunkedTileGrid chunked = new ChunkedTileGrid(map.width, map.height);
+        for (int y = 0; y < map.height; y++) {
+            for (int x = 0; x < map.width; x++) {
+                chunked.set(x, y, map.get(x, y));
+            }
+        }
+        for (int i = 0; i < 2000; i++) {
+            int x = random.nextInt(map.width);
+            int y = random.nextInt(map.height);
+            int range = 1 + random.nextInt(200);
+            for (Direction dir : new Direction[] {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT}) {
+                int expected = range + 1;
+                for (int distance = 1; distance <= range; distance++) {
+                    if (!map.isWalkable(x + dir.getXOffset() * distance, y + dir.getYOffset() * distance)) {
+                        expected = distance;
+                        break;
+                    }
+                }
+                assertEquals(expected, map.blastReach(x, y, dir, range));
+                assertEquals(expected, copy.blastReach(x, y, dir, range));
+                assertEquals(expected, chunked.blastReach(x, y, dir, range));
+            }
+        }
+        chunked.close();
+    }
+
+    @Test
+    public void testExitMasks() {
+        levelMap.set(1, 0, Tile.BROKEN);
+        // UP and LEFT lead onto the border, and RIGHT onto the broken wall
+        assertEquals(0b0100, levelMap.exits(0, 0));
+        // UP leads onto the broken wall, and DOWN onto the border
+        assertEquals(0b1010, levelMap.exits(1, 1));
+        assertEquals(Direction.DOWN, TileGrid.firstExit(levelMap.exits(0, 0), Direction.UP));
+        assertEquals(Direction.RIGHT, TileGrid.firstExit(levelMap.exits(1, 1), Direction.UP));
+        assertEquals(Direction.LEFT, TileGrid.firstExit(levelMap.exits(1, 1), Direction.DOWN));
+        assertEquals(Direction.LEFT, TileGrid.firstExit(levelMap.exits(1, 1), Direction.LEFT));
+        assertTrue(TileGrid.hasExit(levelMap.exits(1, 1), Direction.RIGHT));
+        assertFalse(TileGrid.hasExit(levelMap.exits(1, 1), Direction.UP));
+        assertEquals(Direction.RIGHT, TileGrid.nthExit(levelMap.exits(1, 1), 0));
+        assertEquals(Direction.LEFT, TileGrid.nthExit(levelMap.exits(1, 1), 1));
+
+        levelMap.set(1, 0, Tile.EMPTY);
+        assertEquals(0b0110, levelMap.exits(0, 0));
+        levelMap.set(0, 1, Tile.SOLID);
+        levelMap.set(1, 1, Tile.SOLID);
+        assertEquals(0b0010, levelMap.exits(0, 0));
+        assertNull(TileGrid.firstExit(0, Direction.UP));
+    }
+
+    @Test
+    public void testExitMasksMatchTiles() {
+        Random random = new Random(2);
+        TileGrid map = new TileGrid(40, 30);
+        ChunkedTileGrid chunked = new ChunkedTileGrid(map.width, map.height);
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(map.width);
+            int y = random.nextInt(map.height);
+            Tile tile = Tile.values()[random.nextInt(4)];
+            map.set(x, y, tile);
+            chunked.set(x, y, tile);
+        }
+        TileGrid copy = map.copy();
+        for (int y = 0; y < map.height; y++) {
+            for (int x = 0; x < map.width; x++) {
+                int expected = 0;
+                for (int i = 0; i < TileGrid.EXITS.length; i++) {
+                    Direction dir = TileGrid.EXITS[i];
+                    if (map.isWalkable(x + dir.getXOffset(), y + dir.getYOffset())) {
+                        expected |= 1 << i;
+                    }
+                }
+                assertEquals(expected, map.exits(x, y));
+                assertEquals(expected, copy.exits(x, y));
+                assertEquals(expected, chunked.exits(x, y));
+            }
+        }
+        chunked.close();
+    }
+
+    @Test
+    public void testTileHash() {
+        TileGrid other = new TileGrid(3, 2);
+        assertEquals(other.tileHash(), levelMap.tileHash());
+        levelMap.set(1, 0, Tile.BROKEN);
+        levelMap.set(2, 1, Tile.GOAL);
+        assertNotEquals(other.tileHash(), levelMap.tileHash());
+
+        // the hash depends only on the tiles, not the order they were set in
+        other.set(2, 1, Tile.SOLID);
+        other.set(2, 1, Tile.GOAL);
+        other.set(1, 0, Tile.BROKEN);
+        assertEquals(levelMap.tileHash(), other.tileHash());
+        assertEquals(levelMap.tileHash(), levelMap.copy().tileHash());
+
+        // the same wall destroyed on another tile changes the hash
+        other.set(1, 0, Tile.EMPTY);
+        other.set(0, 0, Tile.BROKEN);
+        assertNotEquals(levelMap.tileHash(), other.tileHash());
+
+        ChunkedTileGrid chunked = new ChunkedTileGrid(3, 2);
+        chunked.set(1, 0, Tile.BROKEN);
+        chunked.set(2, 1, Tile.GOAL);
+        assertEquals(levelMap.tileHash(), chunked.tileHash());
+        chunked.close();
+    }
+
+}
@@ -0,0 +1,95 @@
+package demolition;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TimingWheelTest {
+
+    TimingWheel wheel;
+
+    @BeforeEach
+    public void setupObjects() {
+        wheel = new TimingWheel(4);
+    }
+
+    @Test
+    public void testDueOnTheirTicks() {
+        wheel.schedule(0, 0);
+        wheel.schedule(1, 3);
+        wheel.schedule(2, 64);
+        wheel.schedule(3, 5000);
+        assertEquals(0, wheel.poll());
+        assertEquals(-1, wheel.poll());
+        assertFalse(wheel.isScheduled(0));
+        for (int tick = 1; tick <= 5000; tick++) {
+            wheel.advance();
+            assertEquals(tick, wheel.now());
+            int expected = (tick == 3) ? 1 : (tick == 64) ? 2 : (tick == 5000) ? 3 : -1;
+            assertEquals(expected, wheel.poll(), "tick " + tick);
+            assertEquals(-1, wheel.poll());
+        }
+    }
+
+    @Test
+    public void testCancelAndReschedule() {
+        wheel.schedule(0, 10);
+        wheel.schedule(1, 10);
+        wheel.cancel(0);
+        wheel.schedule(1, 20);
+        assertTrue(wheel.isScheduled(1));
+        assertEquals(20, wheel.dueTick(1));
+        for (int tick = 1; tick < 20; tick++) {
+            wheel.advance();
+            assertEquals(-1, wheel.poll());
+        }
+        wheel.advance();
+        assertEquals(1, wheel.poll());
+
+        // handles left on the due list stay due
+        wheel.schedule(2, 21);
+        wheel.advance();
+        wheel.advance();
+        assertEquals(2, wheel.poll());
+
+        wheel.schedule(3, 100);
+        wheel.clear();
+        assertEquals(0, wheel.now());
+        assertFalse(wheel.isScheduled(3));
+    }
+
+    @Test
+    public void testMatchesPolling() {
+        // every handle counted down on every tick, against the wheel
+        Random random = new Random(3);
+        int handles = 200;
+        wheel.ensureCapacity(handles);
+        int[] due = new int[handles];
+        Arrays.fill(due, -1);
+        for (int tick = 0; tick < 300000; tick++) {
+            for (int handle = 0; handle < handles; handle++) {
+                if (due[handle] == -1) {
+                    // delays of every size, up to several turns of the third wheel
+                    int delay = (random.nextInt(8) == 0) ? random.nextInt(1 << 20) : random.nextInt(200);
+                    due[handle] = tick + delay;
+                    wheel.schedule(handle, due[handle]);
+                } else if (random.nextInt(50000) == 0) {
+                    due[handle] = -1;
+                    wheel.cancel(handle);
+                }
+            }
+            int handle;
+            while ((handle = wheel.poll()) != -1) {
+                assertEquals(tick, due[handle], "handle " + handle);
+                due[handle] = -1;
+            }
+            for (int i = 0; i < handles; i++) {
+                assertFalse(due[i] == tick, "handle " + i + " missed on tick " + tick);
+            }
+            wheel.advance();
+        }
+    }
+
+}